@@ -0,0 +1,154 @@
+/*
+ * AsyncMoveGenerator.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Finds the best move on a background thread, so that the UI thread
+ *          is not blocked by a long search, such as one with a large lexicon
+ *          and a blank tile in the rack. Each search returns a SearchHandle,
+ *          which can cancel the search and gives its result once it is done.
+ *          A search can also be given a deadline, after which it returns the
+ *          best move found so far, marked as not proven to be the best.
+ *
+ *          The search runs in anytime mode: the start squares are searched
+ *          in order of their upper bounds, so good moves are found early,
+ *          and each better move is passed to the listener as it is found, at
+ *          most once per progress interval. The ParallelMoveGenerator
+ *          passes on the best move of each line once the line is searched,
+ *          if it beats the moves passed on before.
+ *
+ *          Moves are ranked by equity if the MoveGenerator has a leaveTable,
+ *          and otherwise by points, using the ParallelMoveGenerator if there
+ *          is one, which is given the same leaveTable. The searches are run
+ *          one at a time in the order they are started, so a search started
+ *          after cancelling another one waits at most a few thousand nodes
+ *          for it to stop.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class AsyncMoveGenerator {
+
+    // Only used by the thread of the executor from now on
+    private final MoveGenerator generator;
+    private final ParallelMoveGenerator parallelGenerator;
+
+    private final ExecutorService executor;
+
+    // The shortest time between two better moves passed to the listener,
+    // which is one frame of a 60 Hz display by default
+    public long progressIntervalMillis = 16;
+
+    // Constructor function for a MoveGenerator that is only used by this
+    // class from now on, and a ParallelMoveGenerator or null
+    public AsyncMoveGenerator (MoveGenerator generator,
+                               ParallelMoveGenerator parallelGenerator) {
+        this.generator = generator;
+        this.parallelGenerator = parallelGenerator;
+        this.executor = Executors.newSingleThreadExecutor();
+
+        generator.orderStartSquares = true;
+    }
+
+    /**
+     * Starts finding the best move on the background thread.
+     *
+     * @param   board       stores the state of the Scrabble board, which must
+     *                      not be changed until the search is done
+     * @param   rack        stores the number of each possible tile, which is
+     *                      copied before returning
+     * @param   timeout     the time after which the search stops, or 0 to
+     *                      search every move
+     * @param   unit        the unit of timeout
+     * @param   listener    told about better moves while the search runs and
+     *                      about the result or the error once it is done, on
+     *                      the background thread, or null
+     * @return              the handle of the search
+     */
+    public SearchHandle findBestMove (final PackedBoard board, int[] rack,
+                                      long timeout, TimeUnit unit,
+                                      SearchListener listener) {
+
+        final SearchHandle handle = new SearchHandle(timeout, unit, listener,
+                TimeUnit.MILLISECONDS.toNanos(progressIntervalMillis));
+        final int[] rackCopy = rack.clone();
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run () {
+                SearchResult result;
+
+                // Anything thrown by the search, including an Error such as
+                // a StackOverflowError, ends it through the handle, so that
+                // get() and the listener are never left waiting
+                try {
+                    result = search(board, rackCopy, handle);
+                } catch (Throwable ex) {
+                    handle.fail(ex);
+                    return;
+                }
+
+                handle.finish(result);
+            }
+        });
+
+        return handle;
+    }
+
+    /**
+     * Stops the background thread once the searches that were started have
+     * finished. Cancel them first to stop it sooner.
+     */
+    public void shutdown () {
+        executor.shutdown();
+    }
+
+    /**
+     * Runs a search on the background thread.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile
+     * @param   handle  stops the search if it is cancelled or past its deadline
+     * @return          the best move found and whether it is proven to be best
+     */
+    private SearchResult search (PackedBoard board, int[] rack,
+                                 SearchHandle handle) {
+
+        long startTime = System.nanoTime();
+        ScrabbleMove bestMove;
+
+        if (parallelGenerator != null) {
+            parallelGenerator.leaveTable = generator.leaveTable;
+            bestMove = parallelGenerator.findBestMove(board, rack, handle);
+        }
+        else {
+            // Same as findBestEquityMove() or findBestMove(), with a visitor
+            // whose best move can be reported while the search runs
+            BestMoveVisitor visitor = new BestMoveVisitor(generator.leaveTable != null);
+            visitor.reset(0);
+            handle.reportProgressOf(visitor);
+            generator.searchHandle = handle;
+
+            try {
+                generator.visitMoves(board, rack, visitor);
+            } finally {
+                generator.searchHandle = null;
+            }
+
+            bestMove = visitor.getBestMove();
+        }
+
+        return new SearchResult(bestMove, !handle.wasStopped(),
+                System.nanoTime() - startTime);
+    }
+}
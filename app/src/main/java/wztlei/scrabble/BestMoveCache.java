@@ -0,0 +1,137 @@
+/*
+ * BestMoveCache.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Remembers the best moves of the positions searched most recently,
+ *          so that asking again for the best move of the same board and rack
+ *          does not search again. Positions are looked up by the Zobrist hash
+ *          of the board together with the hash of the rack, and the least
+ *          recently used position is forgotten once the cache is full.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class BestMoveCache {
+
+    private final LinkedHashMap<PositionKey, ScrabbleMove> moves;
+
+    // The number of lookups that found a move and that did not
+    private long numHits;
+    private long numMisses;
+
+    /**
+     * @param   capacity    the most positions to remember
+     */
+    public BestMoveCache (final int capacity) {
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        // Iterate in access order so that the eldest entry is the least
+        // recently used one
+        moves = new LinkedHashMap<PositionKey, ScrabbleMove>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry
+                    (Map.Entry<PositionKey, ScrabbleMove> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param   boardHash   the Zobrist hash of the board
+     * @param   rack        stores the number of each possible tile
+     * @return              a copy of the best move of the position, or null
+     *                      if it is not in the cache
+     */
+    public synchronized ScrabbleMove get (long boardHash, int[] rack) {
+
+        ScrabbleMove move = moves.get(new PositionKey(boardHash,
+                ZobristHash.hashRack(rack)));
+
+        if (move == null) {
+            numMisses++;
+            return null;
+        }
+
+        numHits++;
+        return move.copy();
+    }
+
+    /**
+     * @param   boardHash   the Zobrist hash of the board
+     * @param   rack        stores the number of each possible tile
+     * @param   move        the best move of the position, which is copied
+     */
+    public synchronized void put (long boardHash, int[] rack, ScrabbleMove move) {
+        moves.put(new PositionKey(boardHash, ZobristHash.hashRack(rack)),
+                move.copy());
+    }
+
+    /**
+     * Forgets every position, but keeps the counters.
+     */
+    public synchronized void clear () {
+        moves.clear();
+    }
+
+    /**
+     * @return  the number of positions in the cache
+     */
+    public synchronized int size () {
+        return moves.size();
+    }
+
+    /**
+     * @return  the number of lookups that found a move
+     */
+    public synchronized long getNumHits () {
+        return numHits;
+    }
+
+    /**
+     * @return  the number of lookups that did not find a move
+     */
+    public synchronized long getNumMisses () {
+        return numMisses;
+    }
+
+    // The hashes of a board and a rack
+    private static class PositionKey {
+
+        private final long boardHash;
+        private final long rackHash;
+
+        PositionKey (long boardHash, long rackHash) {
+            this.boardHash = boardHash;
+            this.rackHash = rackHash;
+        }
+
+        @Override
+        public int hashCode () {
+            long hash = boardHash * 31 + rackHash;
+            return (int) (hash ^ (hash >>> 32));
+        }
+
+        @Override
+        public boolean equals (Object obj) {
+            if (!(obj instanceof PositionKey)) {
+                return false;
+            }
+
+            PositionKey other = (PositionKey) obj;
+            return boardHash == other.boardHash && rackHash == other.rackHash;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * BestMoveVisitor.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: A MoveVisitor that keeps the highest scoring move, copying its
+ *          tiles into preallocated arrays so that no objects are created
+ *          until the move is read with getBestMove().
+ *
+ *          Of the moves with the most points, it keeps a down move over an
+ *          across move, and otherwise the one that the exhaustive search
+ *          finds first, so the same move is kept no matter the order in which
+ *          the moves are visited.
+ *
+ *          It can also keep the move with the highest equity instead, which
+ *          is its points plus the value of its leave, breaking ties by points
+ *          and then as above.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class BestMoveVisitor implements MoveVisitor {
+
+    // The squares and letters of the best move found so far
+    private final int[] bestSquares;
+    private final char[] bestLetters;
+    private int bestSize;
+    private int bestPoints;
+    private int bestStep;
+    private int bestStartOrder;
+    private float bestEquity;
+
+    // If true, moves are ranked by equity before points
+    private final boolean useEquity;
+
+    // Moves that score less than minPoints are not kept, nor are moves whose
+    // equity is less than minEquity when ranking by equity
+    private int minPoints;
+    private int minEquity;
+
+    // The number of times the best move has been replaced since the reset
+    private int numBestMoves;
+
+    // Constructor function for ranking moves by points
+    public BestMoveVisitor () {
+        this(false);
+    }
+
+    // Constructor function for ranking moves by equity if useEquity is set
+    public BestMoveVisitor (boolean useEquity) {
+        this.useEquity = useEquity;
+        bestSquares = new int[MoveGenerator.MAX_TILES];
+        bestLetters = new char[MoveGenerator.MAX_TILES];
+    }
+
+    /**
+     * Forgets the best move so that the visitor can be used again.
+     *
+     * @param   minPoints   the points a move needs to be kept
+     */
+    public void reset (int minPoints) {
+        reset(minPoints, Integer.MIN_VALUE);
+    }
+
+    /**
+     * Same as reset(), but when ranking by equity, moves whose equity is less
+     * than minEquity are not kept either, and may be skipped when pruning.
+     *
+     * @param   minPoints   the points a move needs to be kept
+     * @param   minEquity   the equity a move needs to be kept
+     */
+    public void reset (int minPoints, int minEquity) {
+        this.bestSize = 0;
+        this.bestPoints = 0;
+        this.minPoints = minPoints;
+        this.minEquity = minEquity;
+        this.numBestMoves = 0;
+    }
+
+    @Override
+    public boolean visitMove (MoveView move) {
+
+        if (move.points >= minPoints &&
+                (!useEquity || move.getEquity() >= minEquity) && isBetter(move)) {
+            for (int i = 0; i < move.size; i++) {
+                bestSquares[i] = move.getSquare(i);
+                bestLetters[i] = move.getLetter(i);
+            }
+
+            bestSize = move.size;
+            bestPoints = move.points;
+            bestEquity = move.getEquity();
+            bestStep = move.step;
+            bestStartOrder = move.startOrder;
+            numBestMoves++;
+        }
+
+        return true;
+    }
+
+    /**
+     * When ranking by equity, the MoveGenerator lowers the points that a move
+     * needs by the best leave value of the rack.
+     */
+    @Override
+    public int getMinPoints () {
+
+        if (useEquity) {
+            int equityPoints = (bestSize > 0) ?
+                    Math.max((int) Math.floor(bestEquity), minEquity) : minEquity;
+            return Math.max(equityPoints, minPoints);
+        }
+
+        return Math.max(bestPoints, minPoints);
+    }
+
+    /**
+     * @return  the number of times a better move has been found since the
+     *          visitor was reset, which can be compared to tell whether the
+     *          best move has changed
+     */
+    public int getNumBestMoves () {
+        return numBestMoves;
+    }
+
+    /**
+     * @return  the points of the best move, or 0 if there is none
+     */
+    public int getPoints () {
+        return bestPoints;
+    }
+
+    /**
+     * @return  the equity of the best move, or 0 if there is none
+     */
+    public float getEquity () {
+        return (bestSize == 0) ? 0 : bestEquity;
+    }
+
+    /**
+     * @return  a new ScrabbleMove storing the best move, which is empty if
+     *          there is none
+     */
+    public ScrabbleMove getBestMove () {
+
+        ScrabbleMove bestMove = new ScrabbleMove();
+
+        for (int i = 0; i < bestSize; i++) {
+            Square sqr = new Square();
+            sqr.row = bestSquares[i] / PackedBoard.WIDTH;
+            sqr.col = bestSquares[i] % PackedBoard.WIDTH;
+            sqr.letter = bestLetters[i];
+            bestMove.add(sqr);
+        }
+
+        bestMove.points = bestPoints;
+        return bestMove;
+    }
+
+    /**
+     * The exhaustive search goes through the start squares in order, and for
+     * each one, tries the letters in alphabetical order, finding each word
+     * before the longer words that start with it.
+     *
+     * @param   move    the move being visited
+     * @return          true if it should replace the best move
+     */
+    private boolean isBetter (MoveView move) {
+
+        if (bestSize == 0) {
+            return move.points > 0;
+        }
+
+        if (useEquity && move.getEquity() != bestEquity) {
+            return move.getEquity() > bestEquity;
+        }
+
+        if (move.points != bestPoints) {
+            return move.points > bestPoints;
+        }
+
+        if (move.step != bestStep) {
+            return move.step == PackedBoard.DOWN;
+        }
+
+        if (move.startOrder != bestStartOrder) {
+            return move.startOrder < bestStartOrder;
+        }
+
+        for (int i = 0; i < move.size && i < bestSize; i++) {
+            // Lowercase and uppercase letters have the same lowest 5 bits
+            int letterIndex = move.getLetter(i) & 0x1F;
+            int bestLetterIndex = bestLetters[i] & 0x1F;
+
+            if (letterIndex != bestLetterIndex) {
+                return letterIndex < bestLetterIndex;
+            }
+        }
+
+        return move.size < bestSize;
+    }
+}
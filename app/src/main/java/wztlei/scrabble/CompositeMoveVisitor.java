@@ -0,0 +1,75 @@
+/*
+ * CompositeMoveVisitor.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Passes every move of one search on to several MoveVisitors, so
+ *          that, for example, the best moves can be kept while statistics
+ *          are gathered, without searching twice. A visitor that stops is
+ *          not sent any more moves, and the search stops once every visitor
+ *          has stopped.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class CompositeMoveVisitor implements MoveVisitor {
+
+    private final MoveVisitor[] visitors;
+
+    // Whether each visitor has asked to stop
+    private final boolean[] isStopped;
+
+    // Constructor function
+    public CompositeMoveVisitor (MoveVisitor... visitors) {
+        this.visitors = visitors.clone();
+        this.isStopped = new boolean[visitors.length];
+    }
+
+    /**
+     * Sends moves to every visitor again, for another search.
+     */
+    public void reset () {
+        for (int i = 0; i < isStopped.length; i++) {
+            isStopped[i] = false;
+        }
+    }
+
+    @Override
+    public boolean visitMove (MoveView move) {
+
+        boolean keepSearching = false;
+
+        for (int i = 0; i < visitors.length; i++) {
+            if (!isStopped[i]) {
+                isStopped[i] = !visitors[i].visitMove(move);
+                keepSearching |= !isStopped[i];
+            }
+        }
+
+        return keepSearching;
+    }
+
+    /**
+     * @return  the lowest of the points needed by the visitors that have
+     *          not stopped, since a move only has to be useful to one of them
+     */
+    @Override
+    public int getMinPoints () {
+
+        int minPoints = Integer.MAX_VALUE;
+
+        for (int i = 0; i < visitors.length; i++) {
+            if (!isStopped[i]) {
+                minPoints = Math.min(minPoints, visitors[i].getMinPoints());
+            }
+        }
+
+        return (minPoints == Integer.MAX_VALUE) ? 0 : minPoints;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * DawgBuilder.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Builds a minimized directed acyclic word graph (dawg) out of
+ *          TrieNodes using Daciuk's incremental algorithm for sorted input.
+ *          Since the result is still made of TrieNodes, its root can be used
+ *          anywhere the root of the trie was used, such as extendRight().
+ *
+ * References: Daciuk, Mihov, Watson and Watson, "Incremental Construction
+ *                  of Minimal Acyclic Finite-State Automata" (2000)
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class DawgBuilder {
+
+    private final TrieNode root;
+    private final int numSymbols;
+
+    // The nodes along the path of the last word inserted
+    // Ex. After inserting "CAT", path == [root, C, A, T]
+    private final ArrayList<TrieNode> path;
+
+    // Stores one representative of each class of equivalent nodes
+    // that have already been minimized
+    private final HashMap<NodeSignature, TrieNode> register;
+
+    // Used instead of register if it is shared with the DawgBuilders of
+    // other threads, or null
+    private final ConcurrentHashMap<NodeSignature, TrieNode> sharedRegister;
+
+    private String previousWord;
+    private boolean isFinished;
+
+    // Constructor function
+    public DawgBuilder () {
+        this(26);
+    }
+
+    // Constructor function for words that may contain the numSymbols
+    // characters starting from 'A', such as '[' which follows 'Z'
+    public DawgBuilder (int numSymbols) {
+        this(numSymbols, null);
+    }
+
+    // Constructor function for a DawgBuilder whose nodes are merged with the
+    // nodes of other DawgBuilders sharing the register, or not if it is null
+    DawgBuilder (int numSymbols,
+                 ConcurrentHashMap<NodeSignature, TrieNode> sharedRegister) {
+        this.numSymbols = numSymbols;
+        this.sharedRegister = sharedRegister;
+
+        root = new TrieNode(numSymbols);
+        root.letter = '*';
+        root.isTerminalNode = false;
+
+        path = new ArrayList<>();
+        path.add(root);
+
+        register = (sharedRegister == null) ?
+                new HashMap<NodeSignature, TrieNode>() : null;
+        previousWord = "";
+        isFinished = false;
+    }
+
+    /**
+     * Inserts a word into the dawg. Words must be inserted in ascending
+     * alphabetical order so that every node left of the current path
+     * will never change again and can be minimized right away.
+     *
+     * @param   word    the String of uppercase letters to be inserted
+     */
+    public void insert (String word) {
+
+        if (isFinished) {
+            throw new IllegalStateException("The dawg has already been finished");
+        }
+
+        int order = word.compareTo(previousWord);
+
+        // Ignore duplicate words and reject words that are out of order
+        if (order == 0) {
+            return;
+        }
+        else if (order < 0) {
+            throw new IllegalArgumentException("Words must be inserted in " +
+                    "sorted order: " + word + " after " + previousWord);
+        }
+
+        // Find the length of the prefix shared with the previous word
+        int prefixLength = 0;
+        int maxPrefixLength = Math.min(word.length(), previousWord.length());
+
+        while (prefixLength < maxPrefixLength &&
+                word.charAt(prefixLength) == previousWord.charAt(prefixLength)) {
+            prefixLength++;
+        }
+
+        // The part of the previous word after the shared prefix can no longer
+        // gain any children, so it can be merged with equivalent nodes
+        minimize(prefixLength);
+
+        // Add the rest of the word as a new chain of nodes
+        TrieNode currNode = path.get(prefixLength);
+
+        for (int i = prefixLength; i < word.length(); i++) {
+            int letterIndex = word.charAt(i) - 'A';
+
+            if (letterIndex < 0 || letterIndex >= numSymbols) {
+                throw new IllegalArgumentException("Invalid character in " + word);
+            }
+
+            TrieNode newNode = new TrieNode(numSymbols);
+            newNode.letter = word.charAt(i);
+            newNode.isTerminalNode = false;
+
+            currNode.children.add(newNode);
+            currNode.letterIndexes[letterIndex] = currNode.children.size() - 1;
+            currNode.childMask |= 1 << letterIndex;
+
+            path.add(newNode);
+            currNode = newNode;
+        }
+
+        currNode.isTerminalNode = true;
+        previousWord = word;
+    }
+
+    /**
+     * Minimizes the nodes that remain on the path of the last word and
+     * returns the root of the finished dawg. No words may be inserted after
+     * this function is called.
+     *
+     * @return  a TrieNode that is the root of the dawg
+     */
+    public TrieNode finish () {
+
+        if (!isFinished) {
+            minimize(0);
+            isFinished = true;
+
+            if (register != null) {
+                register.clear();
+            }
+        }
+
+        return root;
+    }
+
+    /**
+     * Replaces each node on the path deeper than depth with an equivalent
+     * node from the register, or adds the node to the register if it is the
+     * first of its kind. Nodes are handled from the deepest one upwards so
+     * that children are always minimized before their parents.
+     *
+     * @param   depth   the number of letters of the path to keep unchanged
+     */
+    private void minimize (int depth) {
+
+        for (int i = path.size() - 1; i > depth; i--) {
+            TrieNode child = path.get(i);
+            TrieNode parent = path.get(i - 1);
+            NodeSignature signature = new NodeSignature(child);
+            TrieNode equivalentNode;
+
+            // Another thread may add an equivalent node at the same time
+            if (sharedRegister != null) {
+                equivalentNode = sharedRegister.putIfAbsent(signature, child);
+            }
+            else {
+                equivalentNode = register.get(signature);
+
+                if (equivalentNode == null) {
+                    register.put(signature, child);
+                }
+            }
+
+            if (equivalentNode != null) {
+                // The child on the path is always the last one that was added
+                parent.children.set(parent.children.size() - 1, equivalentNode);
+            }
+
+            path.remove(i);
+        }
+    }
+
+    // Two nodes are equivalent if they have the same letter, the same terminal
+    // flag and exactly the same (already minimized) children
+    static class NodeSignature {
+
+        private final TrieNode node;
+        private final int hash;
+
+        NodeSignature (TrieNode node) {
+            this.node = node;
+
+            int h = node.letter * 31 + (node.isTerminalNode ? 1 : 0);
+
+            for (TrieNode child : node.children) {
+                h = h * 31 + System.identityHashCode(child);
+            }
+
+            hash = h;
+        }
+
+        @Override
+        public int hashCode () {
+            return hash;
+        }
+
+        @Override
+        public boolean equals (Object obj) {
+            if (!(obj instanceof NodeSignature)) {
+                return false;
+            }
+
+            TrieNode other = ((NodeSignature) obj).node;
+
+            if (node.letter != other.letter ||
+                    node.isTerminalNode != other.isTerminalNode ||
+                    node.children.size() != other.children.size()) {
+                return false;
+            }
+
+            for (int i = 0; i < node.children.size(); i++) {
+                if (node.children.get(i) != other.children.get(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+/*
+ * DualBoard.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Keeps a Scrabble board together with its inverted board, so that
+ *          down moves can be found as across moves on the inverted board
+ *          without calling invertBoard() for every search. Both boards,
+ *          and their cross-checks, are updated around the changed squares
+ *          whenever tiles are placed or removed.
+ *
+ *          It also keeps the Zobrist hash of the letters on the board, which
+ *          is updated with one XOR for each changed square.
+ *
+ *          Once getPackedBoard() has been called, the PackedBoard of both
+ *          boards is also kept in step by packing the rows and columns
+ *          around the changed squares again. A PackedBoard that has been
+ *          handed out is never changed, since a search may still be reading
+ *          it, so it is copied before the next update.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class DualBoard {
+
+    // The board as it is displayed, used to find across moves
+    public final Square[][] across;
+
+    // The inverted board, where down[col][row] stands for across[row][col],
+    // used to find down moves
+    public final Square[][] down;
+
+    private final ScrabbleEngine engine;
+
+    // The squares of the inverted board that changed during an update,
+    // which is kept to avoid creating a new list for every move
+    private final ArrayList<Square> changedDownSquares;
+
+    // The Zobrist hash of the letters on the board
+    private long hash;
+
+    // Both boards packed for the searches, or null until it is asked for
+    private PackedBoard packedBoard;
+
+    // Set once packedBoard has been handed out by getPackedBoard()
+    private boolean isPackedBoardShared;
+
+    /**
+     * Creates the inverted board of a board. The board itself is used as the
+     * across board, so it must only be changed through this class from now on.
+     *
+     * @param   engine  the engine used to update the boards
+     * @param   board   a board whose properties are up to date
+     */
+    public DualBoard (ScrabbleEngine engine, Square[][] board) {
+        this.engine = engine;
+        this.across = board;
+        this.down = engine.invertBoard(board);
+        this.changedDownSquares = new ArrayList<>();
+        this.hash = ZobristHash.hashBoard(board);
+    }
+
+    /**
+     * Places the tiles of a move on both boards.
+     *
+     * @param   move    a move whose squares use the rows and columns of the
+     *                  across board
+     */
+    public void addMove (ScrabbleMove move) {
+
+        for (int i = 0; i < move.size(); i++) {
+            across[move.get(i).row][move.get(i).col].letter = move.get(i).letter;
+        }
+
+        updateChangedSquares(move);
+    }
+
+    /**
+     * Sets the letters of the board to the ones stored in a String, as
+     * returned by ScrabbleEngine.boardTilesToString().
+     *
+     * @param   boardString     the letters of the board, row by row
+     */
+    public void fillWithString (String boardString) {
+
+        ArrayList<Square> changedSquares = new ArrayList<>();
+
+        for (int i = 0; i < boardString.length(); i++) {
+            Square sqr = across[i/15 + 1][i%15 + 1];
+
+            if (sqr.letter != boardString.charAt(i)) {
+                sqr.letter = boardString.charAt(i);
+                changedSquares.add(sqr);
+            }
+        }
+
+        updateChangedSquares(changedSquares);
+    }
+
+    /**
+     * Copies the letters of the changed squares of the across board onto the
+     * inverted board and then updates the properties of both boards around
+     * those squares.
+     *
+     * @param   changedSquares  the squares whose letters have changed, using
+     *                          the rows and columns of the across board
+     */
+    public void updateChangedSquares (ArrayList<Square> changedSquares) {
+
+        changedDownSquares.clear();
+
+        for (int i = 0; i < changedSquares.size(); i++) {
+            int row = changedSquares.get(i).row;
+            int col = changedSquares.get(i).col;
+
+            // The inverted board still has the old letter of the square
+            hash ^= ZobristHash.squareKey(row, col, down[col][row].letter);
+            hash ^= ZobristHash.squareKey(row, col, across[row][col].letter);
+
+            down[col][row].letter = across[row][col].letter;
+            changedDownSquares.add(down[col][row]);
+        }
+
+        engine.updateChangedSquares(across, changedSquares);
+        engine.updateChangedSquares(down, changedDownSquares);
+
+        if (packedBoard != null && !changedSquares.isEmpty()) {
+            updatePackedBoard(changedSquares);
+        }
+    }
+
+    /**
+     * Packs the rows and columns of the board that may have changed around
+     * the changed squares again, which are the rows and columns next to
+     * each changed square and the ones through it.
+     *
+     * @param   changedSquares  the squares whose letters have changed, using
+     *                          the rows and columns of the across board
+     */
+    private void updatePackedBoard (ArrayList<Square> changedSquares) {
+
+        if (isPackedBoardShared) {
+            packedBoard = packedBoard.copy();
+            isPackedBoardShared = false;
+        }
+
+        // Bit i is set if row or column i needs to be packed again
+        int rowsToUpdate = 0;
+        int colsToUpdate = 0;
+
+        for (int i = 0; i < changedSquares.size(); i++) {
+            rowsToUpdate |= 7 << (changedSquares.get(i).row - 1);
+            colsToUpdate |= 7 << (changedSquares.get(i).col - 1);
+        }
+
+        packedBoard.packLines(across, down, rowsToUpdate, colsToUpdate);
+    }
+
+    /**
+     * Returns both boards packed for a search, without packing the whole
+     * board again if only a few squares have changed since the last call.
+     * The PackedBoard returned is not changed by later updates.
+     *
+     * @return  a PackedBoard storing both boards
+     */
+    public PackedBoard getPackedBoard () {
+
+        if (packedBoard == null) {
+            packedBoard = PackedBoard.fromSquares(across, down);
+        }
+
+        isPackedBoardShared = true;
+        return packedBoard;
+    }
+
+    /**
+     * @return  the Zobrist hash of the letters on the board
+     */
+    public long getHash () {
+        return hash;
+    }
+
+    /**
+     * @return  true if there are no tiles on the board
+     */
+    public boolean isEmpty () {
+
+        for (int row = 1; row <= engine.numBoardRows; row++) {
+            for (int col = 1; col <= engine.numBoardCols; col++) {
+                if (across[row][col].letter != '.') {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,437 @@
+/*
+ * FlatLexicon.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Stores a dawg (or trie) in a single int[] so that it takes up a
+ *          few bytes per edge and can be saved to and loaded from a binary
+ *          file without creating an object for every node or word.
+ *
+ *          Each node is a header followed by a run of edges, one int each.
+ *          The header is the child mask of the node, where bit i is set if
+ *          the node has a child with the letter index i. The edges are in
+ *          order of their letters, so the edge of the child with letter
+ *          index i comes after the edges of the set bits below bit i.
+ *          Each edge stores:
+ *              bits  0 -  4   letter index of the child ('A' == 0)
+ *              bit   5        the child completes a word
+ *              bit   6        this is the last edge of the node
+ *              bits  7 - 30   index of the header of the child,
+ *                             or 0 if the child has no children
+ *
+ *          An edge also works as a handle for the node it leads to, since
+ *          it stores whether that node is terminal and where its children
+ *          are. The handle of the root is given by root().
+ *
+ *          Binary file format (big-endian):
+ *              int     MAGIC
+ *              int     FORMAT_VERSION
+ *              int     the handle of the root
+ *              int     the number of ints, n
+ *              int[n]  the headers and edges
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class FlatLexicon {
+
+    // "SCLX" in ASCII
+    public static final int MAGIC = 0x53434C58;
+    public static final int FORMAT_VERSION = 2;
+
+    static final int LETTER_MASK = 0x1F;
+    static final int TERMINAL_FLAG = 1 << 5;
+    static final int LAST_EDGE_FLAG = 1 << 6;
+    static final int CHILD_SHIFT = 7;
+
+    // The largest index that fits into bits 7 - 30 of an edge
+    static final int MAX_EDGES = 1 << 24;
+
+    // The index stored in an edge whose child has no children
+    // Index 0 is never used by a node so that it can mark this
+    public static final int NO_CHILDREN = 0;
+
+    // A child mask with all 26 letters
+    public static final int ALL_LETTERS = (1 << 26) - 1;
+
+    // Returned when a node does not have a child with a given letter
+    public static final int NO_CHILD = -1;
+
+    public final int[] edges;
+    private final int rootHandle;
+
+    // The number of letters in the longest word that can follow each node,
+    // indexed by the header of the node, which is found when first needed
+    private byte[] maxSuffixLengths;
+
+    // Constructor function
+    FlatLexicon (int[] edges, int rootHandle) {
+        this.edges = edges;
+        this.rootHandle = rootHandle;
+    }
+
+    /**
+     * @return  the handle of the root node
+     */
+    public int root () {
+        return rootHandle;
+    }
+
+    /**
+     * @param   node    the handle of a node
+     * @return          true if the node completes a word
+     */
+    public static boolean isTerminal (int node) {
+        return (node & TERMINAL_FLAG) != 0;
+    }
+
+    /**
+     * @param   edge    an edge of a node
+     * @return          the letter index of the child that the edge leads to
+     */
+    public static int letterIndex (int edge) {
+        return edge & LETTER_MASK;
+    }
+
+    /**
+     * @param   edge    an edge of a node
+     * @return          true if it is the last edge of the node
+     */
+    public static boolean isLastEdge (int edge) {
+        return (edge & LAST_EDGE_FLAG) != 0;
+    }
+
+    /**
+     * @param   node    the handle of a node
+     * @return          the index of the header of the node, which is
+     *                  followed by its edges, or NO_CHILDREN if it has no
+     *                  children
+     */
+    public static int header (int node) {
+        return node >>> CHILD_SHIFT;
+    }
+
+    /**
+     * @param   node    the handle of a node
+     * @return          the child mask of the node, where bit i is set if the
+     *                  node has a child with the letter index i
+     */
+    public int childMask (int node) {
+        return edges[header(node)];
+    }
+
+    /**
+     * Finds the child of a node with a given letter in O(1) time by counting
+     * the children with letters before it.
+     *
+     * @param   node            the handle of a node
+     * @param   letterIndex     the index of the letter ('A' == 0)
+     * @return                  the handle of the child, or NO_CHILD
+     */
+    public int child (int node, int letterIndex) {
+
+        int headerIndex = header(node);
+        int childMask = edges[headerIndex];
+        int letterBit = 1 << letterIndex;
+
+        if ((childMask & letterBit) == 0) {
+            return NO_CHILD;
+        }
+
+        return edges[headerIndex + 1 + Integer.bitCount(childMask & (letterBit - 1))];
+    }
+
+    /**
+     * Same as child(), but only for letters that are known to be in the
+     * child mask of the node.
+     *
+     * @param   node            the handle of a node
+     * @param   childMask       the child mask of the node
+     * @param   letterIndex     the index of a letter in the child mask
+     * @return                  the handle of the child
+     */
+    public int childInMask (int node, int childMask, int letterIndex) {
+        int lowerLetters = childMask & ((1 << letterIndex) - 1);
+        return edges[header(node) + 1 + Integer.bitCount(lowerLetters)];
+    }
+
+    /**
+     * @param   node    the handle of a node
+     * @return          the number of letters in the longest word that can be
+     *                  formed by adding letters after the node
+     */
+    public int maxSuffixLength (int node) {
+        return getMaxSuffixLengths()[header(node)];
+    }
+
+    /**
+     * @return  the number of letters in the longest word that can follow each
+     *          node, indexed by the header of the node
+     */
+    public synchronized byte[] getMaxSuffixLengths () {
+
+        if (maxSuffixLengths == null) {
+            byte[] lengths = new byte[edges.length];
+
+            // Nodes are visited after their children, so 0 is left for every
+            // index that is not a header, including NO_CHILDREN
+            if (header(rootHandle) != NO_CHILDREN) {
+                calcMaxSuffixLength(header(rootHandle), lengths);
+            }
+
+            maxSuffixLengths = lengths;
+        }
+
+        return maxSuffixLengths;
+    }
+
+    /**
+     * @param   headerIndex     the index of the header of a node
+     * @param   lengths         the lengths found so far, which are 0 for
+     *                          the nodes that have not been visited yet
+     * @return                  the length for the node, which is also stored
+     */
+    private int calcMaxSuffixLength (int headerIndex, byte[] lengths) {
+
+        if (lengths[headerIndex] == 0) {
+            int maxLength = 0;
+            int edgeIndex = headerIndex;
+
+            do {
+                edgeIndex++;
+                int childHeader = header(edges[edgeIndex]);
+                int length = (childHeader == NO_CHILDREN) ? 1 :
+                        1 + calcMaxSuffixLength(childHeader, lengths);
+                maxLength = Math.max(maxLength, length);
+            } while (!isLastEdge(edges[edgeIndex]));
+
+            lengths[headerIndex] = (byte) maxLength;
+        }
+
+        return lengths[headerIndex];
+    }
+
+    /**
+     * @param   word    a String of uppercase letters
+     * @return          true if the word is in the lexicon
+     */
+    public boolean contains (CharSequence word) {
+
+        int node = rootHandle;
+
+        for (int i = 0; i < word.length(); i++) {
+            int letterIndex = word.charAt(i) - 'A';
+
+            if (letterIndex < 0 || letterIndex >= 31) {
+                return false;
+            }
+
+            node = child(node, letterIndex);
+
+            if (node == NO_CHILD) {
+                return false;
+            }
+        }
+
+        return isTerminal(node);
+    }
+
+    /**
+     * Packs a trie or dawg made of TrieNodes into a FlatLexicon. Nodes shared
+     * by several parents in a dawg are only stored once. The nodes are laid
+     * out in breadth-first order so that the nodes near the root, which are
+     * used by almost every search, are next to each other in memory.
+     *
+     * @param   root    the root of the trie or dawg
+     * @return          a FlatLexicon storing the same words
+     */
+    public static FlatLexicon fromTrie (TrieNode root) {
+
+        // Assign the index of the header of every node with children
+        // Index 0 is left empty so that it can stand for no children
+        IdentityHashMap<TrieNode, Integer> headers = new IdentityHashMap<>();
+        ArrayDeque<TrieNode> queue = new ArrayDeque<>();
+        int numInts = 1;
+
+        queue.add(root);
+        headers.put(root, numInts);
+        numInts += 1 + root.children.size();
+
+        while (!queue.isEmpty()) {
+            TrieNode node = queue.poll();
+
+            for (TrieNode child : node.children) {
+                if (!child.children.isEmpty() && !headers.containsKey(child)) {
+                    headers.put(child, numInts);
+                    numInts += 1 + child.children.size();
+                    queue.add(child);
+                }
+            }
+        }
+
+        if (numInts > MAX_EDGES) {
+            throw new IllegalArgumentException("Too many edges: " + numInts);
+        }
+
+        // Fill in the header and the edges of every node
+        // The edges must be sorted by letter to be found with the child mask
+        int[] edges = new int[numInts];
+        TrieNode[] sortedChildren = new TrieNode[32];
+
+        for (TrieNode node : headers.keySet()) {
+            int headerIndex = headers.get(node);
+            int childMask = 0;
+
+            for (TrieNode child : node.children) {
+                int letterIndex = (child.letter - 'A') & LETTER_MASK;
+                childMask |= 1 << letterIndex;
+                sortedChildren[letterIndex] = child;
+            }
+
+            edges[headerIndex] = childMask;
+            int edgeIndex = headerIndex + 1;
+
+            while (childMask != 0) {
+                int letterIndex = Integer.numberOfTrailingZeros(childMask);
+                childMask &= childMask - 1;
+                edges[edgeIndex] = encodeEdge(sortedChildren[letterIndex],
+                        childMask == 0, headers);
+                edgeIndex++;
+            }
+        }
+
+        int rootHandle = root.children.isEmpty() ? 0 :
+                headers.get(root) << CHILD_SHIFT;
+
+        return new FlatLexicon(edges, rootHandle);
+    }
+
+    /**
+     * @param   child       the node that the edge leads to
+     * @param   isLast      whether it is the last edge of its parent
+     * @param   headers     the index of the header of every node
+     * @return              the edge packed into an int
+     */
+    private static int encodeEdge (TrieNode child, boolean isLast,
+                                   IdentityHashMap<TrieNode, Integer> headers) {
+
+        int edge = (child.letter - 'A') & LETTER_MASK;
+
+        if (child.isTerminalNode) {
+            edge |= TERMINAL_FLAG;
+        }
+        if (isLast) {
+            edge |= LAST_EDGE_FLAG;
+        }
+        if (!child.children.isEmpty()) {
+            edge |= headers.get(child) << CHILD_SHIFT;
+        }
+
+        return edge;
+    }
+
+    /**
+     * Saves the lexicon in the binary file format.
+     *
+     * @param   outputStream    the stream to write the lexicon to
+     */
+    public void write (OutputStream outputStream) throws IOException {
+
+        DataOutputStream dataStream = new DataOutputStream
+                (new BufferedOutputStream(outputStream));
+
+        dataStream.writeInt(MAGIC);
+        dataStream.writeInt(FORMAT_VERSION);
+        dataStream.writeInt(rootHandle);
+        dataStream.writeInt(edges.length);
+
+        for (int edge : edges) {
+            dataStream.writeInt(edge);
+        }
+
+        dataStream.flush();
+    }
+
+    /**
+     * Loads a lexicon that was saved with write(). The edges are copied out of
+     * the buffer in one bulk operation, so no objects are created per word.
+     *
+     * @param   buffer  the contents of the binary file, such as a
+     *                  MappedByteBuffer
+     * @return          the lexicon stored in the buffer
+     */
+    public static FlatLexicon read (ByteBuffer buffer) throws IOException {
+
+        buffer.order(ByteOrder.BIG_ENDIAN);
+
+        if (buffer.remaining() < 16 || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a lexicon file");
+        }
+
+        int version = buffer.getInt();
+
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported lexicon version " + version +
+                    ", expected " + FORMAT_VERSION);
+        }
+
+        int rootHandle = buffer.getInt();
+        int numEdges = buffer.getInt();
+
+        if (numEdges < 1 || numEdges > MAX_EDGES ||
+                buffer.remaining() < 4L * numEdges) {
+            throw new IOException("Truncated lexicon file");
+        }
+
+        int[] edges = new int[numEdges];
+        buffer.asIntBuffer().get(edges);
+
+        return new FlatLexicon(edges, rootHandle);
+    }
+
+    /**
+     * Loads a lexicon by memory mapping a file saved with write().
+     *
+     * @param   file    the binary lexicon file
+     * @return          the lexicon stored in the file
+     */
+    public static FlatLexicon map (File file) throws IOException {
+
+        FileInputStream inputStream = new FileInputStream(file);
+
+        try {
+            FileChannel channel = inputStream.getChannel();
+            MappedByteBuffer buffer = channel.map
+                    (FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(buffer);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * @return  the number of bytes used by the headers and edges
+     */
+    public long sizeInBytes () {
+        return 4L * edges.length;
+    }
+}
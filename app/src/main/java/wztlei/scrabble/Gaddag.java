@@ -0,0 +1,86 @@
+/*
+ * Gaddag.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Stores the words in a gaddag so that words can be built outwards
+ *          from any letter, rather than only from their first letter.
+ *          Each word is stored once for every letter it contains as
+ *          REV(prefix) + SEPARATOR + suffix.
+ *          Ex. "CARE" is stored as "C[ARE", "AC[RE", "RAC[E" and "ERAC".
+ *
+ * References: Gordon, "A Faster Scrabble Move Generation Algorithm" (1994)
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class Gaddag {
+
+    // The separator comes right after 'Z' so that it has the letter index 26
+    public static final char SEPARATOR = '[';
+    public static final int SEPARATOR_INDEX = SEPARATOR - 'A';
+
+    public final TrieNode root;
+
+    /**
+     * Builds a minimized gaddag containing every valid word.
+     *
+     * @param   words   the words to be stored, which do not need to be sorted
+     */
+    public Gaddag (Collection<String> words) {
+
+        ArrayList<String> paths = new ArrayList<>();
+
+        for (String word : words) {
+            if (word.length() >= 2 && word.matches("[A-Z]+")) {
+                addPaths(word, paths);
+            }
+        }
+
+        // The paths must be sorted to be minimized as they are inserted
+        Collections.sort(paths);
+
+        DawgBuilder dawgBuilder = new DawgBuilder(27);
+
+        for (String path : paths) {
+            dawgBuilder.insert(path);
+        }
+
+        root = dawgBuilder.finish();
+    }
+
+    /**
+     * Adds all the paths in the gaddag that spell out a word.
+     *
+     * @param   word    the word whose paths are added
+     * @param   paths   the ArrayList storing all the paths
+     */
+    static void addPaths (String word, ArrayList<String> paths) {
+
+        StringBuilder reversedPrefix = new StringBuilder();
+
+        for (int i = 0; i < word.length(); i++) {
+            reversedPrefix.insert(0, word.charAt(i));
+
+            // The path that starts from the last letter of the word does not
+            // need a separator since there are no letters to the right of it
+            if (i == word.length() - 1) {
+                paths.add(reversedPrefix.toString());
+            }
+            else {
+                paths.add(reversedPrefix.toString() + SEPARATOR +
+                        word.substring(i + 1));
+            }
+        }
+    }
+}
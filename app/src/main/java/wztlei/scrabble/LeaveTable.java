@@ -0,0 +1,222 @@
+/*
+ * LeaveTable.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Stores the value of every leave, which is the multiset of tiles
+ *          left in the rack after a move, of up to MAX_LEAVE_TILES tiles of
+ *          the 27 types of tiles. The equity of a move is its points plus
+ *          the value of its leave, so ranking moves by equity keeps the
+ *          tiles that are likely to score well on the next turn.
+ *
+ *          The values are stored in a single short[], in hundredths of a
+ *          point, and a leave is found with the combinatorial number system.
+ *          The tiles of a leave of k tiles are sorted by type, t_0 <= t_1 <=
+ *          ... <= t_(k-1), which gives the k distinct numbers c_i = t_i + i.
+ *          The leave is then stored at
+ *              (the number of leaves with fewer than k tiles)
+ *                  + C(c_0, 1) + C(c_1, 2) + ... + C(c_(k-1), k)
+ *          so every leave has its own index from 0 to SIZE - 1.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class LeaveTable {
+
+    // The most tiles in a leave, since a move places at least one tile
+    public static final int MAX_LEAVE_TILES = 6;
+
+    // The types of tiles, where index 26 stands for blank tiles
+    public static final int NUM_TILE_TYPES = 27;
+
+    // The values are stored in hundredths of a point
+    public static final float VALUE_SCALE = 100;
+
+    // C(n, k) for every n and k used by the indexes
+    private static final int[][] BINOMIALS =
+            new int[NUM_TILE_TYPES + MAX_LEAVE_TILES][MAX_LEAVE_TILES + 2];
+
+    // The index of the first leave of each number of tiles, where the last
+    // one is the number of leaves
+    private static final int[] FIRST_INDEXES = new int[MAX_LEAVE_TILES + 2];
+
+    static {
+        for (int n = 0; n < BINOMIALS.length; n++) {
+            BINOMIALS[n][0] = 1;
+
+            for (int k = 1; k <= n && k < BINOMIALS[n].length; k++) {
+                BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1] + BINOMIALS[n - 1][k];
+            }
+        }
+
+        // There are C(26 + k, k) leaves of k tiles
+        for (int k = 0; k <= MAX_LEAVE_TILES; k++) {
+            FIRST_INDEXES[k + 1] = FIRST_INDEXES[k] +
+                    BINOMIALS[NUM_TILE_TYPES - 1 + k][k];
+        }
+    }
+
+    // The number of leaves of up to MAX_LEAVE_TILES tiles
+    public static final int SIZE = FIRST_INDEXES[MAX_LEAVE_TILES + 1];
+
+    // The approximate value of keeping one tile of each type, in points
+    private static final float[] TILE_VALUES = {
+            1.0f, -3.5f, 0.9f, 0.5f, 4.0f, -2.2f, -3.4f, 1.1f, -0.5f, -1.5f,
+            -1.5f, -0.2f, 0.6f, 0.1f, -1.6f, -0.6f, -7.0f, 1.1f, 7.8f, -0.1f,
+            -4.8f, -5.6f, -3.9f, 3.3f, -0.6f, 2.9f, 25.6f
+    };
+
+    // The points lost for each extra copy of a regular tile, and for each
+    // vowel or consonant more than one beyond the other kind
+    private static final float DUPLICATE_PENALTY = 3.0f;
+    private static final float BALANCE_PENALTY = 2.0f;
+
+    // The points gained by keeping a U with a Q, or lost without one
+    private static final float Q_WITH_U_BONUS = 2.0f;
+    private static final float Q_WITHOUT_U_PENALTY = 3.0f;
+
+    private final short[] values;
+
+    // Constructor function for estimated values
+    private LeaveTable (short[] values) {
+        this.values = values;
+    }
+
+    /**
+     * @param   leave   the number of each type of tile in the leave
+     * @return          the index of the leave in the table, or -1 if it has
+     *                  more than MAX_LEAVE_TILES tiles
+     */
+    public static int index (int[] leave) {
+
+        int numTiles = 0;
+        int rank = 0;
+
+        for (int type = 0; type < NUM_TILE_TYPES; type++) {
+            for (int i = 0; i < leave[type]; i++) {
+                if (numTiles == MAX_LEAVE_TILES) {
+                    return -1;
+                }
+
+                rank += BINOMIALS[type + numTiles][numTiles + 1];
+                numTiles++;
+            }
+        }
+
+        return FIRST_INDEXES[numTiles] + rank;
+    }
+
+    /**
+     * @param   index   the index of a leave, as returned by index()
+     * @return          the value of the leave in points
+     */
+    public float get (int index) {
+        return values[index] / VALUE_SCALE;
+    }
+
+    /**
+     * @param   leave   the number of each type of tile in the leave
+     * @return          the value of the leave in points, or 0 if it has more
+     *                  than MAX_LEAVE_TILES tiles
+     */
+    public float valueOf (int[] leave) {
+        int index = index(leave);
+        return (index < 0) ? 0 : get(index);
+    }
+
+    /**
+     * Estimates the value of every leave from the values of its single
+     * tiles, with penalties for duplicate tiles, for too many vowels or
+     * consonants and for a Q without a U. Leaves with more tiles of a type
+     * than there are in the bag have a value of 0.
+     *
+     * @param   tiles   the letter, points and number of each type of tile,
+     *                  in the order of tiles.txt
+     * @return          a table of the estimated values
+     */
+    public static LeaveTable estimate (Tile[] tiles) {
+
+        short[] values = new short[SIZE];
+        estimate(tiles, new int[NUM_TILE_TYPES], 0, 0, values);
+        return new LeaveTable(values);
+    }
+
+    /**
+     * Estimates the values of the leaves that add more tiles of the types
+     * from firstType onwards to the given leave.
+     *
+     * @param   tiles       the letter, points and number of each type of tile
+     * @param   leave       the number of each type of tile in the leave
+     * @param   firstType   the first type of tile that may be added
+     * @param   numTiles    the number of tiles in the leave
+     * @param   values      stores the estimated values
+     */
+    private static void estimate (Tile[] tiles, int[] leave, int firstType,
+                                  int numTiles, short[] values) {
+
+        float value = estimateValue(tiles, leave);
+        value = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE,
+                value * VALUE_SCALE));
+        values[index(leave)] = (short) Math.round(value);
+
+        if (numTiles == MAX_LEAVE_TILES) {
+            return;
+        }
+
+        for (int type = firstType; type < NUM_TILE_TYPES; type++) {
+            leave[type]++;
+            estimate(tiles, leave, type, numTiles + 1, values);
+            leave[type]--;
+        }
+    }
+
+    /**
+     * @param   tiles   the letter, points and number of each type of tile
+     * @param   leave   the number of each type of tile in the leave
+     * @return          the estimated value of the leave in points
+     */
+    private static float estimateValue (Tile[] tiles, int[] leave) {
+
+        float value = 0;
+        int numVowels = 0;
+        int numConsonants = 0;
+
+        for (int type = 0; type < NUM_TILE_TYPES; type++) {
+            if (leave[type] > tiles[type].total) {
+                return 0;
+            }
+
+            value += leave[type] * TILE_VALUES[type];
+
+            if (type == 26) {
+                continue;
+            }
+
+            if (leave[type] > 1) {
+                value -= (leave[type] - 1) * DUPLICATE_PENALTY;
+            }
+
+            if ("AEIOU".indexOf('A' + type) >= 0) {
+                numVowels += leave[type];
+            }
+            else {
+                numConsonants += leave[type];
+            }
+        }
+
+        value -= Math.max(Math.abs(numVowels - numConsonants) - 1, 0) *
+                BALANCE_PENALTY;
+
+        if (leave['Q' - 'A'] > 0) {
+            value += (leave['U' - 'A'] > 0) ? Q_WITH_U_BONUS : -Q_WITHOUT_U_PENALTY;
+        }
+
+        return value;
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * LexiconCompiler.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Command line tool that turns a word list into a binary lexicon
+ *          file which the app can memory map instead of building the dawg
+ *          on every launch.
+ *
+ *          Usage: java wztlei.scrabble.LexiconCompiler words.txt words.lex
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class LexiconCompiler {
+
+    public static void main (String[] args)
+            throws IOException, InterruptedException {
+
+        if (args.length != 2) {
+            System.out.println("Usage: LexiconCompiler <word list> <lexicon file>");
+            return;
+        }
+
+        // Read the words, one per line. ISO-8859-1 is used so that stray
+        // bytes in a word list never stop the reading early.
+        ArrayList<String> words = new ArrayList<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader
+                (new FileInputStream(args[0]), "ISO-8859-1"));
+
+        try {
+            String word;
+
+            while ((word = reader.readLine()) != null) {
+                if (WordListReader.isWord(word)) {
+                    words.add(word);
+                }
+            }
+        } finally {
+            reader.close();
+        }
+
+        // Build the dawg from the sorted words on every processor and pack it
+        Collections.sort(words);
+        TrieNode root = ParallelDawgBuilder.build(words,
+                Runtime.getRuntime().availableProcessors());
+
+        FlatLexicon lexicon = FlatLexicon.fromTrie(root);
+        OutputStream outputStream = new FileOutputStream(args[1]);
+
+        try {
+            lexicon.write(outputStream);
+        } finally {
+            outputStream.close();
+        }
+
+        System.out.println(words.size() + " words, " + lexicon.edges.length +
+                " edges, " + lexicon.sizeInBytes() + " bytes");
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * LexiconStats.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+
+/**
+ * Counts the nodes and edges of a trie or dawg and estimates how many bytes
+ * of heap they use. Shared nodes in a dawg are only counted once.
+ *
+ * @author  William Lei
+ */
+public class LexiconStats {
+
+    // Estimated sizes for a 64-bit JVM with compressed references
+    // TrieNode: 12 byte header + char + boolean + 2 references = 24 bytes
+    // ArrayList: 12 byte header + 2 ints + 1 reference = 24 bytes
+    // int[26]: 16 byte header + 26 ints = 120 bytes
+    static final int TRIE_NODE_BYTES = 24;
+    static final int ARRAY_LIST_BYTES = 24;
+
+    public long numNodes;
+    public long numEdges;
+    public long numTerminalNodes;
+    public long numBytes;
+
+    /**
+     * Goes through every node reachable from the root exactly once.
+     *
+     * @param   root    the root of the trie or dawg to be measured
+     * @return          the statistics for the trie or dawg
+     */
+    public static LexiconStats measure (TrieNode root) {
+
+        LexiconStats stats = new LexiconStats();
+        IdentityHashMap<TrieNode, Boolean> visited = new IdentityHashMap<>();
+        ArrayDeque<TrieNode> stack = new ArrayDeque<>();
+
+        visited.put(root, Boolean.TRUE);
+        stack.push(root);
+
+        while (!stack.isEmpty()) {
+            TrieNode node = stack.pop();
+            int numChildren = node.children.size();
+
+            stats.numNodes++;
+            stats.numEdges += numChildren;
+            stats.numBytes += TRIE_NODE_BYTES + ARRAY_LIST_BYTES +
+                    intArrayBytes(node.letterIndexes.length) +
+                    backingArrayBytes(numChildren);
+
+            if (node.isTerminalNode) {
+                stats.numTerminalNodes++;
+            }
+
+            for (TrieNode child : node.children) {
+                if (visited.put(child, Boolean.TRUE) == null) {
+                    stack.push(child);
+                }
+            }
+        }
+
+        return stats;
+    }
+
+    /**
+     * @param   length  the length of an int[]
+     * @return          the size of the int[] in bytes rounded up to 8 bytes
+     */
+    static long intArrayBytes (int length) {
+        return (16 + 4L * length + 7) / 8 * 8;
+    }
+
+    /**
+     * Estimates the size of the Object[] behind an ArrayList of a given size.
+     * The array starts with a capacity of 10 and grows by half each time.
+     *
+     * @param   size    the number of elements in the ArrayList
+     * @return          the estimated size of the backing array in bytes
+     */
+    static long backingArrayBytes (int size) {
+
+        if (size == 0) {
+            return 0;
+        }
+
+        int capacity = 10;
+
+        while (capacity < size) {
+            capacity += capacity >> 1;
+        }
+
+        // Round the 16 byte header plus the references up to 8 bytes
+        return (16 + 4L * capacity + 7) / 8 * 8;
+    }
+
+    /**
+     * @param   baseline    the statistics of the lexicon to compare against,
+     *                      usually the unminimized trie
+     * @return              a readable report of both lexicons and the number
+     *                      of nodes, edges and bytes saved
+     */
+    public String reportSavings (LexiconStats baseline) {
+        return "Baseline: " + baseline + "\n" +
+                "Current:  " + this + "\n" +
+                "Saved:    " + (baseline.numNodes - numNodes) + " nodes, " +
+                (baseline.numEdges - numEdges) + " edges, " +
+                (baseline.numBytes - numBytes) + " bytes";
+    }
+
+    @Override
+    public String toString () {
+        return numNodes + " nodes, " + numEdges + " edges, " +
+                numTerminalNodes + " terminal nodes, ~" + numBytes + " bytes";
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * LineMoveCache.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Finds the best move by searching each line of the board on its
+ *          own, which are rows for across moves and columns for down moves,
+ *          and remembers the best move of each line. A move only changes a
+ *          few lines, so when the same rack is tried again on the next board,
+ *          as in the playouts of MoveSimulator, most lines are looked up
+ *          instead of searched.
+ *
+ *          The best move of a line only depends on the rack and on the
+ *          context of the line: the letters, cross-checks, cross scores,
+ *          minimum word lengths and multipliers of its squares. So the
+ *          results are stored by a copy of the context and the rack, and the
+ *          least recently used results are forgotten once the cache is full.
+ *
+ *          The lines that were looked up give the points that a searched line
+ *          needs to beat, which lets the search prune. A line with no move
+ *          that scores enough is remembered by that bound, and is only
+ *          searched again if a later board needs fewer points from it.
+ *
+ *          A LineMoveCache searches with a single MoveGenerator, so each
+ *          thread needs its own.
+ *
+ *          It only serves the playouts of MoveSimulator when they rank moves
+ *          by points. The searches of the app are not made with it, because
+ *          they rank moves by equity once there is a leaveTable, report
+ *          better moves as they are found and can be cancelled, and the
+ *          next search of the player is seldom made with the same rack.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class LineMoveCache {
+
+    // The number of ints of the context of each square of a line
+    private static final int SQUARE_CONTEXT_SIZE = 3;
+
+    private final ScrabbleEngine engine;
+    private final MoveGenerator generator;
+    private final LinkedHashMap<LineKey, LineResult> results;
+
+    // The key and the cached result of each line of the board being
+    // searched, where across lines come before down lines
+    private final LineKey[] lineKeys;
+    private final LineResult[] lineResults;
+
+    // If true, the lines are searched with pruning
+    public boolean usePruning;
+
+    // The number of lines that were looked up and that were searched
+    private long numHits;
+    private long numMisses;
+
+    /**
+     * @param   engine      the engine whose lexicon and tiles are used
+     * @param   capacity    the most line results to remember
+     */
+    public LineMoveCache (ScrabbleEngine engine, final int capacity) {
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Invalid capacity: " + capacity);
+        }
+
+        this.engine = engine;
+        this.generator = new MoveGenerator(engine);
+        this.lineKeys = new LineKey[2 * engine.numBoardRows];
+        this.lineResults = new LineResult[2 * engine.numBoardRows];
+
+        // Iterate in access order so that the eldest entry is the least
+        // recently used one
+        this.results = new LinkedHashMap<LineKey, LineResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry
+                    (Map.Entry<LineKey, LineResult> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * Find the highest scoring possible move and the points obtained based on
+     * board and rack. Returns the same move as MoveGenerator.findBestMove().
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile
+     * @return          the highest scoring move
+     */
+    public ScrabbleMove findBestMove (PackedBoard board, int[] rack) {
+
+        generator.usePruning = usePruning;
+
+        // The starting move depends on the whole board being empty rather
+        // than on the context of its line, and is only made once per game
+        if (board.isEmpty()) {
+            return generator.findBestMove(board, rack);
+        }
+
+        int numLines = engine.numBoardRows;
+        int bestTask = -1;
+        int bestPoints = 0;
+
+        // Look up every line first, so that the lines that are searched only
+        // need to beat the best move found in the cache
+        for (int task = 0; task < 2 * numLines; task++) {
+            int step = stepOf(task);
+
+            lineKeys[task] = new LineKey(board, rack, step, task % numLines + 1);
+            lineResults[task] = results.get(lineKeys[task]);
+
+            if (lineResults[task] != null && lineResults[task].move != null &&
+                    isBetterThan(task, lineResults[task].move.points,
+                            bestTask, bestPoints)) {
+                bestTask = task;
+                bestPoints = lineResults[task].move.points;
+            }
+        }
+
+        for (int task = 0; task < 2 * numLines; task++) {
+            LineResult result = lineResults[task];
+
+            // Skip the lines whose best move is known, or whose moves all
+            // score less than the best move found so far
+            if (result != null &&
+                    (result.move != null || result.maxPoints <= bestPoints)) {
+                numHits++;
+                continue;
+            }
+
+            numMisses++;
+
+            int step = stepOf(task);
+            int line = task % numLines + 1;
+            int points = generator.search(board, rack.clone(), step, line, line,
+                    bestPoints);
+
+            if (points == 0) {
+                // No move on the line scores as much as the best move, which
+                // is every move when there is no best move yet
+                result = new LineResult(null, Math.max(bestPoints, 1));
+            }
+            else {
+                result = new LineResult(generator.getBestMove(), 0);
+
+                if (isBetterThan(task, points, bestTask, bestPoints)) {
+                    bestTask = task;
+                    bestPoints = points;
+                }
+            }
+
+            lineResults[task] = result;
+            results.put(lineKeys[task], result);
+        }
+
+        ScrabbleMove bestMove = (bestTask < 0) ? new ScrabbleMove() :
+                lineResults[bestTask].move.copy();
+
+        Arrays.fill(lineKeys, null);
+        Arrays.fill(lineResults, null);
+        return bestMove;
+    }
+
+    /**
+     * Forgets the results of every line, but keeps the counters.
+     */
+    public void clear () {
+        results.clear();
+    }
+
+    /**
+     * @return  the number of line results in the cache
+     */
+    public int size () {
+        return results.size();
+    }
+
+    /**
+     * @return  the number of lines that were not searched
+     */
+    public long getNumHits () {
+        return numHits;
+    }
+
+    /**
+     * @return  the number of lines that were searched
+     */
+    public long getNumMisses () {
+        return numMisses;
+    }
+
+    /**
+     * @param   task        the line of a move, where across lines come
+     *                      before down lines
+     * @param   points      the points of the move
+     * @param   otherTask   the line of another move, or -1 if there is none
+     * @param   otherPoints the points of the other move
+     * @return              true if the move is chosen over the other move
+     */
+    private boolean isBetterThan (int task, int points,
+                                  int otherTask, int otherPoints) {
+
+        if (otherTask < 0) {
+            return points > 0;
+        }
+
+        int numLines = engine.numBoardRows;
+
+        return MoveGenerator.isBetterLineMove(points, stepOf(task),
+                task % numLines + 1, otherPoints, stepOf(otherTask),
+                otherTask % numLines + 1);
+    }
+
+    /**
+     * @param   task    a line, where across lines come before down lines
+     * @return          the direction of the line
+     */
+    private int stepOf (int task) {
+        return (task < engine.numBoardRows) ? PackedBoard.ACROSS : PackedBoard.DOWN;
+    }
+
+    // The best move of a line, or if move is null, the points that every
+    // move of the line scores less than
+    private static class LineResult {
+
+        final ScrabbleMove move;
+        final int maxPoints;
+
+        LineResult (ScrabbleMove move, int maxPoints) {
+            this.move = move;
+            this.maxPoints = maxPoints;
+        }
+    }
+
+    // The context of a line of the board together with the rack. The
+    // direction and the line are part of the key, since the cached move
+    // stores the squares of the line it was found on.
+    private static class LineKey {
+
+        private final int[] context;
+        private final int hash;
+
+        LineKey (PackedBoard board, int[] rack, int step, int line) {
+
+            int[] crossChecks = board.crossChecks(step);
+            int[] crossScores = board.crossScores(step);
+            byte[] minLengths = board.minLengths(step);
+
+            // The squares of the line, including the outside square at each
+            // end, followed by the rack, the direction and the line
+            context = new int[PackedBoard.WIDTH * SQUARE_CONTEXT_SIZE + 29];
+            int square = (step == PackedBoard.ACROSS) ?
+                    PackedBoard.index(line, 0) : PackedBoard.index(0, line);
+
+            for (int pos = 0; pos < PackedBoard.WIDTH; pos++) {
+                int i = pos * SQUARE_CONTEXT_SIZE;
+
+                context[i] = (board.letters[square] & 0xFF) |
+                        (board.letterMultipliers[square] & 0xFF) << 8 |
+                        (board.wordMultipliers[square] & 0xFF) << 16 |
+                        (minLengths[square] & 0xFF) << 24;
+                context[i + 1] = crossChecks[square];
+                context[i + 2] = crossScores[square];
+                square += step;
+            }
+
+            int i = PackedBoard.WIDTH * SQUARE_CONTEXT_SIZE;
+            System.arraycopy(rack, 0, context, i, 27);
+            context[i + 27] = step;
+            context[i + 28] = line;
+
+            hash = Arrays.hashCode(context);
+        }
+
+        @Override
+        public int hashCode () {
+            return hash;
+        }
+
+        @Override
+        public boolean equals (Object obj) {
+            return obj instanceof LineKey &&
+                    Arrays.equals(context, ((LineKey) obj).context);
+        }
+    }
+}
@@ -4,8 +4,13 @@ import android.annotation.SuppressLint;
 import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.DialogInterface;
+import android.content.res.AssetFileDescriptor;
 import android.support.v7.app.AppCompatActivity;
+import android.os.Build;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.util.DisplayMetrics;
 import android.view.View;
 import android.view.inputmethod.InputMethodManager;
@@ -13,14 +18,24 @@ import android.widget.Button;
 import android.widget.EditText;
 import android.widget.TableLayout;
 import android.widget.TableRow;
+import android.widget.TextView;
 
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -29,47 +44,107 @@ public class MainActivity extends AppCompatActivity {
     HashMap<Integer, Square> boardButtonIDs;
     int lastSquareClickedID;
     ScrabbleEngine scrabbleEngine;
+    MoveGenerator moveGenerator;
+    ParallelMoveGenerator parallelMoveGenerator = null;
+    BestMoveCache bestMoveCache;
+    AsyncMoveGenerator asyncMoveGenerator;
+    long searchTimeoutMillis;
+
+    // The search for the best move that is running, or null
+    SearchHandle currentSearch = null;
+
+    // True while the best move found so far by currentSearch is shown on
+    // the buttons, without having been added to the board
+    boolean isPreviewShown = false;
     Square[][] scrabbleBoard = null;
+    DualBoard dualScrabbleBoard = null;
     String oldScrabbleBoard = "";
     final String savedScrabbleKey = "savedScrabbleBoard";
 
+    // The engine is loaded on engineExecutor, and scrabbleEngine stays null
+    // until engineFuture is done and onEngineReady() has been called
+    ExecutorService engineExecutor;
+    Future<ScrabbleEngine> engineFuture;
+
+    // The leave values estimated by loadEngine() if moves are ranked by
+    // equity, which are read once engineFuture is done
+    LeaveTable leaveTable;
+    ArrayList<Runnable> engineReadyActions = new ArrayList<>();
+    boolean isFindBestMoveQueued = false;
+    long createTime;
+
 
     /**
-     * @return  an unordered map of Strings containing all the words in the
-     *          scrabble dictionary. The key is type String since it is stores
-     *          the word. The mapped value is type integer since it stores if
-     *          the word is worth a bonus multiplier.
+     * Builds the dawg out of the word list, reading its bytes straight into
+     * the dawg instead of going through a Scanner and a HashMap. The dawg
+     * is built on 2 to 4 threads, since phones with more cores have slow
+     * cores that would not help much.
+     *
+     * @return  a TrieNode that is the root of the dawg, which has no words
+     *          if the word list could not be read
      */
-    public HashMap <String, Integer> readWordData () {
+    public TrieNode readWordDawg () {
 
-        // Declare hash map to store all of the words in the scrabble dictionary
-        HashMap <String, Integer> wordHashMap = new HashMap<> ();
         TextFileNames textFileNames = new TextFileNames();
         String wordsFileName = textFileNames.wordsFileName;
 
-        Scanner wordDataFile = null;
+        int numThreads = Math.max(2, Math.min(4,
+                Runtime.getRuntime().availableProcessors()));
 
         try {
             InputStream inputStream = getAssets().open(wordsFileName);
-            wordDataFile = new Scanner (inputStream);
+
+            try {
+                return WordListReader.readDawg(inputStream, numThreads);
+            } finally {
+                inputStream.close();
+            }
         } catch (FileNotFoundException ex) {
             System.out.println("Could not open " + wordsFileName);
         } catch (IOException ex) {
             System.out.println("IOException due to " + wordsFileName);
+        } catch (InterruptedException ex) {
+            // The activity is being destroyed, so the dawg is not needed
+            Thread.currentThread().interrupt();
         }
 
-        // If file is opened
-        if (wordDataFile != null) {
-            while(wordDataFile.hasNextLine()) {
-                // IMPORTANT: The words must all be in uppercase.
-                String word = wordDataFile.nextLine();
+        return new DawgBuilder().finish();
+    }
+
+    /**
+     * Memory maps the binary lexicon file, which is much faster than reading
+     * the word list and building the dawg. The file must be stored
+     * uncompressed in the APK for openFd() to work (see build.gradle).
+     *
+     * @return  the lexicon stored in the binary lexicon file,
+     *          or null if it could not be loaded
+     */
+    public FlatLexicon readLexicon () {
 
-                // Insert the word into the unordered map
-                wordHashMap.put(word, 1);
+        FlatLexicon lexicon = null;
+        TextFileNames textFileNames = new TextFileNames();
+        String lexiconFileName = textFileNames.lexiconFileName;
+
+        try {
+            AssetFileDescriptor fileDescriptor = getAssets().openFd(lexiconFileName);
+            FileInputStream inputStream = fileDescriptor.createInputStream();
+
+            try {
+                MappedByteBuffer buffer = inputStream.getChannel().map
+                        (FileChannel.MapMode.READ_ONLY,
+                                fileDescriptor.getStartOffset(),
+                                fileDescriptor.getLength());
+                lexicon = FlatLexicon.read(buffer);
+            } finally {
+                inputStream.close();
             }
+        } catch (FileNotFoundException ex) {
+            System.out.println("Could not open " + lexiconFileName);
+        } catch (IOException ex) {
+            System.out.println("IOException due to " + lexiconFileName);
         }
 
-        return wordHashMap;
+        return lexicon;
     }
 
     /**
@@ -109,6 +184,199 @@ public class MainActivity extends AppCompatActivity {
         return tileArray;
     }
 
+    /**
+     * Builds the engine from the binary lexicon file, or from the word list
+     * if the file could not be loaded. It is run on engineExecutor since
+     * building the dawg out of a large word list takes seconds.
+     *
+     * @return  the engine for the lexicon and the tiles of the assets
+     */
+    protected ScrabbleEngine loadEngine () {
+
+        long startTime = SystemClock.uptimeMillis();
+        FlatLexicon lexicon = readLexicon();
+        ScrabbleEngine engine;
+
+        if (lexicon != null) {
+            engine = new ScrabbleEngine(lexicon, readTileData());
+        }
+        else {
+            showProgress("Building the dictionary...");
+            engine = new ScrabbleEngine(readWordDawg(), readTileData());
+        }
+
+        // The leave values are estimated from the tiles here rather than on
+        // the UI thread, since there are more than a million of them
+        if (new SearchSettings().useLeaveValues) {
+            leaveTable = LeaveTable.estimate(engine.tiles);
+        }
+
+        System.out.println("Loaded the engine in " +
+                (SystemClock.uptimeMillis() - startTime) + " ms");
+
+        return engine;
+    }
+
+    /**
+     * Sets up the search and the board once engineFuture is done. It is
+     * always called on the UI thread.
+     */
+    protected void onEngineReady () {
+
+        if (engineFuture.isCancelled() || isFinishing()) {
+            return;
+        }
+
+        try {
+            scrabbleEngine = engineFuture.get();
+        } catch (InterruptedException | ExecutionException ex) {
+            System.out.println("Could not load the engine: " + ex);
+            showProgress("Could not load the dictionary.");
+            return;
+        }
+
+        SearchSettings searchSettings = new SearchSettings();
+        moveGenerator = new MoveGenerator(scrabbleEngine);
+        moveGenerator.usePruning = searchSettings.usePruning;
+
+        moveGenerator.leaveTable = leaveTable;
+
+        // ForkJoinPool is only available from Android 5.0
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP &&
+                searchSettings.numSearchThreads != 1) {
+            parallelMoveGenerator = (searchSettings.numSearchThreads == 0) ?
+                    new ParallelMoveGenerator(scrabbleEngine) :
+                    new ParallelMoveGenerator(scrabbleEngine,
+                            searchSettings.numSearchThreads);
+            parallelMoveGenerator.usePruning = searchSettings.usePruning;
+        }
+        asyncMoveGenerator = new AsyncMoveGenerator(moveGenerator,
+                parallelMoveGenerator);
+        searchTimeoutMillis = searchSettings.searchTimeoutMillis;
+        bestMoveCache = new BestMoveCache(searchSettings.numCachedMoves);
+        scrabbleBoard = readBoardData();
+        dualScrabbleBoard = new DualBoard(scrabbleEngine, scrabbleBoard);
+
+        // Pick up the tiles that were restored or entered while loading
+        updateStoredScrabbleBoard();
+
+        hideProgress();
+
+        // Run the actions queued while loading in the order they were queued
+        for (Runnable action : engineReadyActions) {
+            action.run();
+        }
+
+        engineReadyActions.clear();
+
+        System.out.println("Engine ready " +
+                (SystemClock.uptimeMillis() - createTime) + " ms after onCreate");
+
+        // Lets the system log the time to full display, measured from the
+        // start of the process, next to the time to the first frame
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            reportFullyDrawn();
+        }
+    }
+
+    /**
+     * Runs an action that needs the engine, right away if the engine has
+     * been loaded, or else once it is ready.
+     *
+     * @param   action  the action to be run on the UI thread
+     */
+    protected void runWhenEngineReady (Runnable action) {
+
+        if (scrabbleEngine != null) {
+            action.run();
+        }
+        else {
+            engineReadyActions.add(action);
+        }
+    }
+
+    /**
+     * Shows the progress bar with a message next to it, while the engine
+     * loads or a search runs. It may be called from any thread.
+     *
+     * @param   status  the message to be shown
+     */
+    protected void showProgress (final String status) {
+        runOnUiThread(new Runnable() {
+            public void run() {
+                TextView progressText = findViewById(R.id.text_progress);
+                progressText.setText(status);
+                findViewById(R.id.row_progress).setVisibility(View.VISIBLE);
+            }
+        });
+    }
+
+    /**
+     * Hides the progress bar and its message.
+     */
+    protected void hideProgress () {
+        findViewById(R.id.row_progress).setVisibility(View.GONE);
+    }
+
+    /**
+     * Stops the search for the best move, if one is running, since the
+     * board or the rack that it was started with has changed.
+     */
+    protected void cancelSearch () {
+
+        if (currentSearch != null) {
+            currentSearch.cancel();
+            currentSearch = null;
+            hideProgress();
+            clearPreview();
+        }
+    }
+
+    /**
+     * Shows the best move found so far by the search on the buttons, while
+     * the search keeps looking for a better one. It is called on the UI
+     * thread, and the move is not added to the board.
+     *
+     * @param   handle  the handle of the search
+     * @param   move    the best move found so far
+     */
+    protected void previewMove (SearchHandle handle, ScrabbleMove move) {
+
+        if (handle != currentSearch || handle.isCancelled()) {
+            return;
+        }
+
+        // Remove the last move shown
+        setButtonTexts();
+        setButtonColors();
+
+        TableLayout tableLayout = findViewById(R.id.table_scrabble_board);
+
+        for (int i = 0; i < move.size(); i++) {
+            Square sqr = move.get(i);
+            TableRow tableRow = (TableRow) tableLayout.getChildAt(sqr.row - 1);
+            Button square = (Button) tableRow.getChildAt(sqr.col - 1);
+            square.setText(String.valueOf(sqr.letter));
+            square.setBackgroundResource(R.drawable.preview_tile_square);
+        }
+
+        isPreviewShown = true;
+        showProgress("Best move so far: " + move.points + " points. " +
+                "Looking for a better one...");
+    }
+
+    /**
+     * Removes the move shown by previewMove() from the buttons.
+     */
+    protected void clearPreview () {
+
+        if (isPreviewShown) {
+            isPreviewShown = false;
+            setButtonTexts();
+            setButtonColors();
+        }
+    }
+
     /**
      * @return  a SquareGrid containing the data for each square on the board.
      *          Key for the text file's characters:
@@ -169,16 +437,14 @@ public class MainActivity extends AppCompatActivity {
                         case 'x': sqr.type = SquareType.OUTSIDE;       break;
                     }
 
-                    // Assign the downCrossCheck vector to sqr
+                    // Assign the downCrossCheck mask to sqr
                     switch (line.charAt(i)) {
                         case 'x':
-                            sqr.downCrossCheck = new boolean[26];
-                            Arrays.fill(sqr.downCrossCheck, false);
+                            sqr.downCrossCheck = 0;
                             sqr.letter = '.';
                             break;
                         default:
-                            sqr.downCrossCheck = new boolean[26];
-                            Arrays.fill(sqr.downCrossCheck, true);
+                            sqr.downCrossCheck = Square.ALL_LETTERS;
                             sqr.letter = '.';
                             break;
                     }
@@ -273,6 +539,17 @@ public class MainActivity extends AppCompatActivity {
      * Function is called to update the state of scrabbleBoard whenever.
      */
     protected void setButtonTexts () {
+        setButtonTexts(scrabbleEngine.boardTilesToString(scrabbleBoard));
+    }
+
+    /**
+     * Shows the letters of a board on the buttons, which does not need the
+     * engine to have been loaded.
+     *
+     * @param   boardString     the letters of the board, row by row, as
+     *                          returned by boardTilesToString()
+     */
+    protected void setButtonTexts (String boardString) {
 
         // Get the table by ID
         TableLayout tableLayout = findViewById(R.id.table_scrabble_board);
@@ -283,18 +560,42 @@ public class MainActivity extends AppCompatActivity {
 
             for (int tableColNum = 0; tableColNum < 15; tableColNum++) {
                 Button square = (Button) tableRow.getChildAt(tableColNum);
-                if (scrabbleBoard[tableRowNum+1][tableColNum+1].letter == '.') {
+                char letter = boardString.charAt(tableRowNum*15 + tableColNum);
+
+                if (letter == '.') {
                     square.setText("");
                 }
                 else {
                     String str = "";
-                    str += scrabbleBoard[tableRowNum+1][tableColNum+1].letter;
+                    str += letter;
                     square.setText(str);
                 }
             }
         }
     }
 
+    /**
+     * @return  the letters shown on the buttons, row by row, in the same
+     *          format as boardTilesToString()
+     */
+    protected String getButtonTexts () {
+
+        TableLayout tableLayout = findViewById(R.id.table_scrabble_board);
+        StringBuilder boardString = new StringBuilder();
+
+        for (int tableRowNum = 0; tableRowNum < 15; tableRowNum++) {
+            TableRow tableRow = (TableRow) tableLayout.getChildAt(tableRowNum);
+
+            for (int tableColNum = 0; tableColNum < 15; tableColNum++) {
+                Button square = (Button) tableRow.getChildAt(tableColNum);
+                boardString.append((square.getText().length() == 0) ?
+                        '.' : square.getText().charAt(0));
+            }
+        }
+
+        return boardString.toString();
+    }
+
 
     protected void readBoardStrings() {
         TextFileNames textFileNames = new TextFileNames();
@@ -534,6 +835,9 @@ public class MainActivity extends AppCompatActivity {
     public void onClickEnterBoardTile(View view) {
 
         if (lastSquareClickedID != 0) {
+            // Remove the move shown by the search before the buttons are read
+            cancelSearch();
+
             // Change the text displayed on the tile on the board
             Button boardSquare = findViewById(lastSquareClickedID);
             EditText boardEditText = findViewById(R.id.edit_text_board);
@@ -586,6 +890,9 @@ public class MainActivity extends AppCompatActivity {
         int currButtonID = view.getId();
         Button boardSquare = findViewById(currButtonID);
 
+        // Editing the board ends the search, so that the letters of the move
+        // it has shown are not mistaken for tiles
+        cancelSearch();
         showKeyboard(this);
 
         // Set the text of the input text box (to change a tile on the board)
@@ -616,8 +923,13 @@ public class MainActivity extends AppCompatActivity {
         EditText rackEditText = findViewById(R.id.edit_text_rack);
         String rackStr = rackEditText.getText().toString();
 
+        // The rack is checked again by onClickFindBestMove() if the engine
+        // has not been loaded yet
+        if (scrabbleEngine == null) {
+            // Do nothing
+        }
         // Check to see if the inputted rack string is valid
-        if (!scrabbleEngine.rackStringIsValid(rackStr) || rackStr.length() == 0) {
+        else if (!scrabbleEngine.rackStringIsValid(rackStr) || rackStr.length() == 0) {
             displayRackError();
         }
         // If there are too many or too little tiles in the rack,
@@ -634,8 +946,15 @@ public class MainActivity extends AppCompatActivity {
      * Function is called to update the state of scrabbleBoard whenever.
      */
     protected void updateStoredScrabbleBoard () {
+
+        // The tiles stay on the buttons until the engine is ready
+        if (scrabbleBoard == null) {
+            return;
+        }
+
         // Get the table by ID
         TableLayout tableLayout = findViewById(R.id.table_scrabble_board);
+        ArrayList<Square> changedSquares = new ArrayList<>();
 
         // Go through every button in the displayed Scrabble board
         for (int tableRowNum = 0; tableRowNum < 15; tableRowNum++) {
@@ -644,18 +963,28 @@ public class MainActivity extends AppCompatActivity {
             for (int tableColNum = 0; tableColNum < tableRow.getChildCount(); tableColNum++) {
 
                 Button square = (Button) tableRow.getChildAt(tableColNum);
+                Square sqr = scrabbleBoard[tableRowNum+1][tableColNum+1];
+                char letter = '.';
 
-                if (square.getText().length() == 0) {
-                    scrabbleBoard[tableRowNum+1][tableColNum+1].letter = '.';
+                if (square.getText().length() != 0) {
+                    letter = square.getText().charAt(0);
                 }
-                else {
-                    scrabbleBoard[tableRowNum+1][tableColNum+1].letter = square.getText().charAt(0);
+
+                // Keep track of the squares that have changed
+                if (sqr.letter != letter) {
+                    sqr.letter = letter;
+                    changedSquares.add(sqr);
                 }
             }
         }
 
-        scrabbleEngine.updateDownCrossChecks(scrabbleBoard);
-        scrabbleEngine.updateMinAcrossWordLength(scrabbleBoard);
+        // A search that was started with the old board is no longer needed
+        if (!changedSquares.isEmpty()) {
+            cancelSearch();
+        }
+
+        // Only the squares around the changed tiles need to be updated
+        dualScrabbleBoard.updateChangedSquares(changedSquares);
 
         oldScrabbleBoard = scrabbleEngine.boardTilesToString(scrabbleBoard);
     }
@@ -664,7 +993,9 @@ public class MainActivity extends AppCompatActivity {
     public void onSaveInstanceState(Bundle savedInstanceState) {
         super.onSaveInstanceState(savedInstanceState);
 
-        String savedBoardString = scrabbleEngine.boardTilesToString(scrabbleBoard);
+        String savedBoardString = (scrabbleBoard != null) ?
+                scrabbleEngine.boardTilesToString(scrabbleBoard) :
+                getButtonTexts();
 
         savedInstanceState.putString(savedScrabbleKey, savedBoardString);
     }
@@ -672,14 +1003,33 @@ public class MainActivity extends AppCompatActivity {
     @Override
     protected void onCreate(Bundle savedInstanceState) {
 
+        createTime = SystemClock.uptimeMillis();
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
         readBoardStrings();
         storeButtonIDs();
         setButtonDimensions();
 
-        scrabbleEngine = new ScrabbleEngine(readWordData(), readTileData());
-        scrabbleBoard = readBoardData();
+        // Load the engine in the background so that the first frame is not
+        // held up by the dictionary, then finish setting up on the UI thread
+        engineExecutor = Executors.newSingleThreadExecutor();
+        FutureTask<ScrabbleEngine> engineTask = new FutureTask<ScrabbleEngine>(
+                new Callable<ScrabbleEngine>() {
+                    public ScrabbleEngine call() {
+                        return loadEngine();
+                    }
+                }) {
+            @Override
+            protected void done() {
+                runOnUiThread(new Runnable() {
+                    public void run() {
+                        onEngineReady();
+                    }
+                });
+            }
+        };
+        engineFuture = engineTask;
+        engineExecutor.execute(engineTask);
 
         // Create an warning Alert dialog
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
@@ -688,10 +1038,16 @@ public class MainActivity extends AppCompatActivity {
                 .setNegativeButton("Yes", new DialogInterface.OnClickListener() {
                     // Load the example board
                     public void onClick(DialogInterface dialog, int id) {
-                        readTestGameData(scrabbleBoard);
-                        setButtonTexts();
-                        setButtonColors();
-                        oldScrabbleBoard = scrabbleEngine.boardTilesToString(scrabbleBoard);
+                        runWhenEngineReady(new Runnable() {
+                            public void run() {
+                                cancelSearch();
+                                readTestGameData(scrabbleBoard);
+                                dualScrabbleBoard = new DualBoard(scrabbleEngine, scrabbleBoard);
+                                setButtonTexts();
+                                setButtonColors();
+                                oldScrabbleBoard = scrabbleEngine.boardTilesToString(scrabbleBoard);
+                            }
+                        });
                     }
                 })
                 .setPositiveButton("No", new DialogInterface.OnClickListener() {
@@ -702,11 +1058,11 @@ public class MainActivity extends AppCompatActivity {
         AlertDialog dialog = builder.create();
         dialog.show();
 
+        // The restored tiles are copied onto the board once the engine is ready
         if (savedInstanceState != null) {
 
             String savedBoardString = savedInstanceState.getString(savedScrabbleKey);
-            scrabbleEngine.fillBoardWithString(scrabbleBoard, savedBoardString);
-            setButtonTexts();
+            setButtonTexts(savedBoardString);
         }
 
         setButtonColors();
@@ -716,9 +1072,41 @@ public class MainActivity extends AppCompatActivity {
         EditText rackEditText = findViewById(R.id.edit_text_rack);
         rackEditText.setSelectAllOnFocus(true);
 
+        // A search that was started with the old rack is no longer needed
+        rackEditText.addTextChangedListener(new TextWatcher() {
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            public void onTextChanged(CharSequence s, int start, int before, int count) {}
+
+            public void afterTextChanged(Editable s) {
+                cancelSearch();
+            }
+        });
+
         lastSquareClickedID = 0;
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+
+        // Stop loading the engine if it has not been loaded yet
+        engineFuture.cancel(true);
+        engineExecutor.shutdown();
+
+        // Stop the search for the best move
+        cancelSearch();
+
+        if (asyncMoveGenerator != null) {
+            asyncMoveGenerator.shutdown();
+        }
+
+        // Stop the threads used to find the best move
+        if (parallelMoveGenerator != null) {
+            parallelMoveGenerator.shutdown();
+        }
+    }
+
     protected void displayRackError() {
         // Create an error Alert dialog
         AlertDialog.Builder builder = new AlertDialog.Builder(this);
@@ -753,7 +1141,25 @@ public class MainActivity extends AppCompatActivity {
      *
      * @param view the ID of the clicked button
      */
-    public void onClickFindBestMove(View view) {
+    public void onClickFindBestMove(final View view) {
+
+        // Find the best move once the engine has been loaded, counting the
+        // taps made while it loads as one
+        if (scrabbleEngine == null) {
+            if (!isFindBestMoveQueued) {
+                isFindBestMoveQueued = true;
+                showProgress("Finding the best move once the " +
+                        "dictionary is loaded...");
+                runWhenEngineReady(new Runnable() {
+                    public void run() {
+                        isFindBestMoveQueued = false;
+                        onClickFindBestMove(view);
+                    }
+                });
+            }
+            return;
+        }
+
         EditText rackEditText = findViewById(R.id.edit_text_rack);
         String rackStr = rackEditText.getText().toString();
 
@@ -763,10 +1169,128 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
-        // Find the best move
-        int[] rack = scrabbleEngine.fillRack(rackStr);
-        ScrabbleMove bestMove = scrabbleEngine.findBestMove(scrabbleBoard, rack);
-        scrabbleEngine.addMoveToBoard(scrabbleBoard, bestMove);
+        // If there are too many or too little tiles in the rack,
+        // display a warning but allow the user to continue
+        if (rackStr.length() != 7) {
+            displayRackWarning();
+        }
+
+        // Find the best move, unless the same board and rack were searched
+        final int[] rack = scrabbleEngine.fillRack(rackStr);
+        final long boardHash = dualScrabbleBoard.getHash();
+        ScrabbleMove bestMove = bestMoveCache.get(boardHash, rack);
+
+        if (bestMove != null) {
+            playBestMove(bestMove, true);
+            return;
+        }
+
+        // Search on the background thread, replacing any search that is
+        // still running
+        cancelSearch();
+        showProgress("Finding the best move...");
+
+        // Only the squares changed since the last search are packed again
+        PackedBoard packedBoard = dualScrabbleBoard.getPackedBoard();
+        currentSearch = asyncMoveGenerator.findBestMove(packedBoard, rack,
+                searchTimeoutMillis, TimeUnit.MILLISECONDS, new SearchListener() {
+                    public void onBetterMove(final SearchHandle handle,
+                                             final ScrabbleMove move) {
+                        runOnUiThread(new Runnable() {
+                            public void run() {
+                                previewMove(handle, move);
+                            }
+                        });
+                    }
+
+                    public void onSearchFinished(final SearchHandle handle,
+                                                 final SearchResult result) {
+                        runOnUiThread(new Runnable() {
+                            public void run() {
+                                onSearchResult(handle, result, boardHash, rack);
+                            }
+                        });
+                    }
+
+                    public void onSearchFailed(final SearchHandle handle,
+                                               final Throwable error) {
+                        runOnUiThread(new Runnable() {
+                            public void run() {
+                                onSearchError(handle, error);
+                            }
+                        });
+                    }
+                });
+    }
+
+    /**
+     * Plays the move found by a search, unless the search was cancelled or
+     * replaced by another one in the meantime. It is called on the UI thread.
+     *
+     * @param   handle      the handle of the search
+     * @param   result      the result of the search
+     * @param   boardHash   the hash of the board that was searched
+     * @param   rack        the rack that was searched
+     */
+    protected void onSearchResult (SearchHandle handle, SearchResult result,
+                                   long boardHash, int[] rack) {
+
+        if (handle != currentSearch || handle.isCancelled()) {
+            return;
+        }
+
+        currentSearch = null;
+        isPreviewShown = false;
+        hideProgress();
+
+        // A move found before the deadline may not be the best one
+        if (result.isProvenOptimal()) {
+            bestMoveCache.put(boardHash, rack, result.getMove());
+        }
+
+        playBestMove(result.getMove(), result.isProvenOptimal());
+    }
+
+    /**
+     * Tells the user that a search failed, unless the search was cancelled
+     * or replaced by another one in the meantime. It is called on the UI
+     * thread.
+     *
+     * @param   handle  the handle of the search
+     * @param   error   what the search threw
+     */
+    protected void onSearchError (SearchHandle handle, Throwable error) {
+
+        if (handle != currentSearch || handle.isCancelled()) {
+            return;
+        }
+
+        System.out.println("Could not find the best move: " + error);
+        currentSearch = null;
+        hideProgress();
+        clearPreview();
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(this);
+        builder.setTitle("Best Move")
+                .setMessage("Could not find the best move.")
+                .setPositiveButton("Ok", new DialogInterface.OnClickListener() {
+                    public void onClick(DialogInterface dialog, int id) {
+                    }
+                });
+
+        builder.create().show();
+    }
+
+    /**
+     * Places the best move on the board and tells the user about it.
+     *
+     * @param   bestMove        the move to be placed
+     * @param   isProvenOptimal false if the search ran out of time, so there
+     *                          may be a better move
+     */
+    protected void playBestMove (ScrabbleMove bestMove, boolean isProvenOptimal) {
+
+        dualScrabbleBoard.addMove(bestMove);
 
         // Update the display
         setButtonTexts();
@@ -785,6 +1309,11 @@ public class MainActivity extends AppCompatActivity {
             }
         }
 
+        if (!isProvenOptimal) {
+            bestMoveMessage += "\n\nThe search ran out of time, so there " +
+                    "may be a better move.";
+        }
+
         builder.setTitle("Best Move")
                 .setMessage(bestMoveMessage)
                 .setPositiveButton("Ok", new DialogInterface.OnClickListener() {
@@ -795,18 +1324,12 @@ public class MainActivity extends AppCompatActivity {
         // Get the AlertDialog from create()
         AlertDialog dialog = builder.create();
         dialog.show();
-
-
-        // If there are too many or too little tiles in the rack,
-        // display a warning but allow the user to continue
-        if (rackStr.length() != 7) {
-            displayRackWarning();
-        }
     }
 
     public void onClickEraseMove(View view) {
         if (scrabbleBoard != null && oldScrabbleBoard.length() > 0) {
-            scrabbleEngine.fillBoardWithString(scrabbleBoard, oldScrabbleBoard);
+            cancelSearch();
+            dualScrabbleBoard.fillWithString(oldScrabbleBoard);
             oldScrabbleBoard = scrabbleEngine.boardTilesToString(scrabbleBoard);
 
             // Update the display
@@ -0,0 +1,971 @@
+/*
+ * MoveGenerator.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Finds the moves on a PackedBoard without creating any objects
+ *          while searching. The tiles of the move being tried are kept on a
+ *          stack of preallocated arrays instead of a ScrabbleMove of Squares.
+ *          Each legal move is passed to a MoveVisitor through a MoveView of
+ *          the stack, and the visitor decides what to keep, such as the best
+ *          move for findBestMove() or the top k moves for findTopMoves().
+ *
+ *          The points of the move are added up as its tiles are placed, so
+ *          scoring a complete word takes constant time. The points of the
+ *          tiles of each cross word were already added up with the
+ *          cross-checks of the board.
+ *
+ *          If usePruning is set, it also skips the parts of the search whose
+ *          moves all score less than the visitor needs. An upper bound on the
+ *          points of any move that extends the word being built is found from
+ *          the multipliers, tiles and cross words further along the line and
+ *          the points of the tiles left in the rack. The start squares are
+ *          searched in order of their upper bounds, so good moves are found
+ *          early. The visitors break ties in the order of the exhaustive
+ *          search, so the same moves are kept as without pruning. The start
+ *          squares can also be searched in that order without pruning, which
+ *          helps a search that may be stopped before it is over.
+ *
+ *          If a LeaveTable is set, the value of the tiles left in the rack is
+ *          also passed with each move. Before searching, the values of all
+ *          the leaves of the rack are read into a small array, indexed by a
+ *          mixed-radix code of the tiles placed so far, which is kept up to
+ *          date as tiles are placed. So each move only takes one array read.
+ *
+ *          If a SearchHandle is set, the search checks every few thousand
+ *          nodes whether it has been cancelled or is past its deadline, and
+ *          if so, stops with the best move found so far.
+ *
+ *          A MoveGenerator stores the state of the search it is running, so
+ *          each thread needs its own.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class MoveGenerator {
+
+    // The most tiles that a move can place
+    static final int MAX_TILES = PackedBoard.WIDTH - 2;
+
+    // Upper bounds are only found for words with fewer tiles than this
+    static final int MAX_PRUNING_DEPTH = 2;
+
+    // The number of nodes between checks of the searchHandle
+    static final int STOP_CHECK_INTERVAL = 2048;
+
+    private final ScrabbleEngine engine;
+    private final FlatLexicon lexicon;
+    private final int[] tilePoints;
+
+    // The board, rack and direction of the search being run
+    private PackedBoard board;
+    private int[] rack;
+    private int step;
+    private int[] crossChecks;
+    private int[] crossScores;
+
+    // The squares and letters of the tiles placed for the move being tried
+    // and the position of its start square in the order of the exhaustive
+    // search, which are passed to the visitor through the view
+    private final int[] currSquares;
+    private final char[] currLetters;
+    private int currSize;
+    private int currStartOrder;
+    private final MoveView currMoveView;
+
+    // The visitor of the search being run and whether it asked to stop
+    private MoveVisitor visitor;
+    private boolean isStopped;
+
+    // The visitor used by findBestMove() and search()
+    private final BestMoveVisitor bestMoveVisitor;
+
+    // The visitor used by findBestEquityMove()
+    private final BestMoveVisitor bestEquityVisitor;
+
+    // The start squares of the search, their minimum word lengths and their
+    // positions in the order of the exhaustive search, which is line * WIDTH
+    // + the position along the line, and the order in which they are searched
+    private final int[] startSquares;
+    private final int[] startMinLengths;
+    private final int[] startOrders;
+    private final long[] startKeys;
+
+    // For each square and each number of tiles n, properties of the squares
+    // that a word starting there can reach with n more tiles, in the direction
+    // of the search, used to find upper bounds:
+    //      the largest letter multiplier of an empty square
+    //      the sum of the letter multipliers minus 1 of the empty squares
+    //      the product of the word multipliers of the empty squares
+    //      the points of the tiles already on the board
+    //      the points of the cross words of the empty squares, times their
+    //          word multipliers, without the tiles that would be placed
+    //      the largest letter multiplier times word multiplier of an empty
+    //          square with a cross word
+    //      the sum of the letter multiplier times word multiplier of the
+    //          empty squares with a cross word
+    //      the number of letters in the shortest word that places all n
+    //          tiles, or NO_ROOM if the edge of the board is in the way
+    // The properties for n tiles are stored at n * NUM_SQUARES + square
+    private int numAheadLevels;
+    private final int[] aheadLetterMultipliers;
+    private final int[] aheadExtraLetterMultipliers;
+    private final int[] aheadWordMultipliers;
+    private final int[] aheadTilePts;
+    private final int[] aheadCrossPts;
+    private final int[] aheadCrossMultipliers;
+    private final int[] aheadCrossLetterMultipliers;
+    private final int[] aheadWordLengths;
+
+    // Larger than the length of any word
+    private static final int NO_ROOM = PackedBoard.WIDTH;
+
+    // The number of letters in the longest word that can follow each node of
+    // the lexicon, as returned by FlatLexicon.getMaxSuffixLengths()
+    private final byte[] maxSuffixLengths;
+
+    // The points and the number of the tiles left in the rack, and the
+    // points of the highest scoring tile in the rack when the search started
+    private int rackPts;
+    private int numTilesLeft;
+    private int maxTilePts;
+
+    // The parts of the search whose upper bounds are lower than this are
+    // skipped when pruning, which is the points returned by the visitor minus
+    // leavePruningOffset
+    private int pruningThreshold;
+
+    // If set, the value of the leave of each move is passed to the visitor
+    public LeaveTable leaveTable;
+
+    // The value of each leave of the rack, at the sum over the types of
+    // tiles of the number of that tile placed times its leave weight, which
+    // is the product of the number of tiles plus 1 of the types before it
+    private float[] rackLeaveValues;
+    private final int[] leaveWeights;
+    private final int[] leaveCounts;
+    private final int[] rackTypes;
+
+    // The code of the leave of the move being tried
+    private int leaveCode;
+
+    // The best leave value of the rack rounded up, or 0 if every leave has
+    // a negative value, which is how many fewer points than the visitor asks
+    // for a move needs to be worth searching for
+    private int leavePruningOffset;
+
+    // If true, parts of the search that cannot score enough for the visitor
+    // are skipped
+    public boolean usePruning;
+
+    // If true, the start squares are searched in order of their upper bounds
+    // even without pruning, so that good moves are found early
+    public boolean orderStartSquares;
+
+    // If set, the search stops once the handle is cancelled or past its
+    // deadline, as if the visitor had asked to stop
+    public SearchHandle searchHandle;
+
+    // The number of nodes left until the searchHandle is checked again
+    private int nodesUntilStopCheck;
+
+    // The number of calls to extendRight() since the counter was last reset
+    public long numNodesVisited;
+
+    // The number of start squares and partial words that were skipped since
+    // the counter was last reset
+    public long numNodesPruned;
+
+    // If true, the points of every complete word are checked against
+    // ScrabbleEngine.calcAcrossPts(), which is slow and only used by tests
+    boolean checkScores;
+    long numScoresChecked;
+
+    // Constructor function
+    public MoveGenerator (ScrabbleEngine engine) {
+        this.engine = engine;
+        this.lexicon = engine.lexicon;
+        this.tilePoints = engine.tilePoints;
+
+        currSquares = new int[MAX_TILES];
+        currLetters = new char[MAX_TILES];
+        currMoveView = new MoveView(currSquares, currLetters);
+        bestMoveVisitor = new BestMoveVisitor();
+        bestEquityVisitor = new BestMoveVisitor(true);
+
+        startSquares = new int[PackedBoard.NUM_SQUARES];
+        startMinLengths = new int[PackedBoard.NUM_SQUARES];
+        startOrders = new int[PackedBoard.NUM_SQUARES];
+        startKeys = new long[PackedBoard.NUM_SQUARES];
+
+        maxSuffixLengths = lexicon.getMaxSuffixLengths();
+
+        // A rack of 7 different tiles has 2^7 leaves
+        rackLeaveValues = new float[1 << 7];
+        leaveWeights = new int[LeaveTable.NUM_TILE_TYPES];
+        leaveCounts = new int[LeaveTable.NUM_TILE_TYPES];
+        rackTypes = new int[LeaveTable.NUM_TILE_TYPES];
+
+        int numAheadProperties = (MAX_TILES + 1) * PackedBoard.NUM_SQUARES;
+        aheadLetterMultipliers = new int[numAheadProperties];
+        aheadExtraLetterMultipliers = new int[numAheadProperties];
+        aheadWordMultipliers = new int[numAheadProperties];
+        aheadTilePts = new int[numAheadProperties];
+        aheadCrossPts = new int[numAheadProperties];
+        aheadCrossMultipliers = new int[numAheadProperties];
+        aheadCrossLetterMultipliers = new int[numAheadProperties];
+        aheadWordLengths = new int[numAheadProperties];
+    }
+
+    /**
+     * Find the highest scoring possible move and the points obtained based on
+     * board and rack.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile
+     * @return          the highest scoring move
+     */
+    public ScrabbleMove findBestMove (PackedBoard board, int[] rack) {
+        bestMoveVisitor.reset(0);
+        visitMoves(board, rack, bestMoveVisitor);
+        return bestMoveVisitor.getBestMove();
+    }
+
+    /**
+     * Find the move with the highest equity, which is its points plus the
+     * value of its leave in the leaveTable. Same as findBestMove() if there is
+     * no leaveTable.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile
+     * @return          the move with the highest equity
+     */
+    public ScrabbleMove findBestEquityMove (PackedBoard board, int[] rack) {
+        bestEquityVisitor.reset(0);
+        visitMoves(board, rack, bestEquityVisitor);
+        return bestEquityVisitor.getBestMove();
+    }
+
+    /**
+     * Returns the move that scores the most possible points by placing tiles
+     * in one direction.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile
+     * @param   step    PackedBoard.ACROSS or PackedBoard.DOWN
+     * @return          the highest scoring move in that direction
+     */
+    public ScrabbleMove findBestMove (PackedBoard board, int[] rack, int step) {
+        search(board, rack, step);
+        return getBestMove();
+    }
+
+    /**
+     * Finds the k highest scoring moves, as kept by a TopMovesVisitor.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile
+     * @param   k       the number of moves to find
+     * @return          up to k moves, from the highest scoring to the lowest
+     */
+    public ArrayList<ScrabbleMove> findTopMoves (PackedBoard board, int[] rack,
+                                                int k) {
+        TopMovesVisitor topMovesVisitor = new TopMovesVisitor(k);
+        visitMoves(board, rack, topMovesVisitor);
+        return topMovesVisitor.removeTopMoves();
+    }
+
+    /**
+     * Passes every legal move to a visitor, first across and then down,
+     * until the visitor asks to stop.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile, which is
+     *                  left unchanged once the search is over
+     * @param   visitor receives each move
+     * @return          false if the visitor or the searchHandle stopped the
+     *                  search
+     */
+    public boolean visitMoves (PackedBoard board, int[] rack,
+                               MoveVisitor visitor) {
+
+        if (!search(board, rack, PackedBoard.ACROSS, 1, engine.numBoardRows,
+                visitor)) {
+            return false;
+        }
+
+        // The starting move is only found across
+        if (board.isEmpty()) {
+            return true;
+        }
+
+        return search(board, rack, PackedBoard.DOWN, 1, engine.numBoardRows,
+                visitor);
+    }
+
+    /**
+     * Finds the highest scoring move in one direction without creating any
+     * objects. The move can then be read with getBestMove().
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile, which is
+     *                  left unchanged once the search is over
+     * @param   step    PackedBoard.ACROSS or PackedBoard.DOWN
+     * @return          the points of the best move, or 0 if there is none
+     */
+    public int search (PackedBoard board, int[] rack, int step) {
+        return search(board, rack, step, 0);
+    }
+
+    /**
+     * Same as search(), but moves that score less than minPoints are not
+     * kept, and may be skipped when pruning.
+     *
+     * @param   board       stores the state of the Scrabble board
+     * @param   rack        stores the number of each possible tile
+     * @param   step        PackedBoard.ACROSS or PackedBoard.DOWN
+     * @param   minPoints   the points a move needs to be useful
+     * @return              the points of the best move, or 0 if there is none
+     *                      that scores at least minPoints
+     */
+    public int search (PackedBoard board, int[] rack, int step, int minPoints) {
+        return search(board, rack, step, 1, engine.numBoardRows, minPoints);
+    }
+
+    /**
+     * Same as search(), but only for the moves that start on some of the
+     * lines of the board, which are rows for across moves and columns for
+     * down moves. Of the moves with the most points, the one that the full
+     * search would find first is kept, so the best moves of the lines can be
+     * compared to find the same move as the full search.
+     *
+     * @param   board       stores the state of the Scrabble board
+     * @param   rack        stores the number of each possible tile
+     * @param   step        PackedBoard.ACROSS or PackedBoard.DOWN
+     * @param   firstLine   the first line to search
+     * @param   lastLine    the last line to search
+     * @param   minPoints   the points a move needs to be useful
+     * @return              the points of the best move, or 0 if there is none
+     *                      that scores at least minPoints
+     */
+    public int search (PackedBoard board, int[] rack, int step,
+                       int firstLine, int lastLine, int minPoints) {
+        bestMoveVisitor.reset(minPoints);
+        search(board, rack, step, firstLine, lastLine, bestMoveVisitor);
+        return bestMoveVisitor.getPoints();
+    }
+
+    /**
+     * Passes every legal move in one direction that starts on some of the
+     * lines of the board to a visitor, until the visitor asks to stop.
+     *
+     * @param   board       stores the state of the Scrabble board
+     * @param   rack        stores the number of each possible tile
+     * @param   step        PackedBoard.ACROSS or PackedBoard.DOWN
+     * @param   firstLine   the first line to search
+     * @param   lastLine    the last line to search
+     * @param   visitor     receives each move
+     * @return              false if the visitor or the searchHandle stopped
+     *                      the search
+     */
+    public boolean search (PackedBoard board, int[] rack, int step,
+                           int firstLine, int lastLine, MoveVisitor visitor) {
+
+        this.board = board;
+        this.rack = rack;
+        this.step = step;
+        this.crossChecks = board.crossChecks(step);
+        this.crossScores = board.crossScores(step);
+        this.visitor = visitor;
+
+        currSize = 0;
+        isStopped = false;
+        nodesUntilStopCheck = 0;
+        leaveCode = 0;
+        leavePruningOffset = (leaveTable == null) ? 0 : findRackLeaveValues(rack);
+        pruningThreshold = visitor.getMinPoints() - leavePruningOffset;
+
+        int rackMask = engine.calcRackMask(rack);
+        int numStartSquares = findStartSquares(board, step, firstLine, lastLine);
+
+        // Add up the tiles in the rack
+        rackPts = 0;
+        numTilesLeft = rack[26];
+        maxTilePts = 0;
+
+        for (int i = 0; i < 26; i++) {
+            rackPts += rack[i] * tilePoints['A' + i];
+            numTilesLeft += rack[i];
+
+            if (rack[i] > 0) {
+                maxTilePts = Math.max(maxTilePts, tilePoints['A' + i]);
+            }
+        }
+
+        boolean isOrdered = usePruning || orderStartSquares;
+
+        if (isOrdered) {
+            calcAheadProperties(board, step, firstLine, lastLine);
+
+            // Sort the start squares by their upper bounds, from highest to
+            // lowest, keeping the order of the exhaustive search for ties
+            for (int i = 0; i < numStartSquares; i++) {
+                long bound = calcBound(lexicon.root(), startSquares[i], 0, 1, 0);
+                startKeys[i] = (bound << 16) | (0xFFFF - i);
+            }
+
+            sortDescending(startKeys, numStartSquares);
+        }
+
+        for (int i = 0; i < numStartSquares && !isStopped; i++) {
+            int start = isOrdered ? 0xFFFF - (int) (startKeys[i] & 0xFFFF) : i;
+
+            // No move from the rest of the start squares can be good enough
+            if (usePruning && (startKeys[i] >> 16) < pruningThreshold) {
+                numNodesPruned += numStartSquares - i;
+                break;
+            }
+
+            currStartOrder = startOrders[start];
+            extendRight(lexicon.root(), startSquares[start],
+                    startMinLengths[start], rackMask, 0, 1, 0);
+        }
+
+        this.visitor = null;
+        return !isStopped;
+    }
+
+    /**
+     * Reads the value of every leave of the rack from the leaveTable into
+     * rackLeaveValues, and finds the leave weight of each type of tile.
+     *
+     * @param   rack    stores the number of each possible tile
+     * @return          the best value of a leave that places at least one
+     *                  tile rounded up, or 0 if it is negative
+     */
+    private int findRackLeaveValues (int[] rack) {
+
+        int numLeaves = 1;
+        int numRackTypes = 0;
+
+        // Only the types of tiles in the rack change between its leaves
+        for (int type = 0; type < LeaveTable.NUM_TILE_TYPES; type++) {
+            leaveWeights[type] = numLeaves;
+            numLeaves *= rack[type] + 1;
+            leaveCounts[type] = 0;
+
+            if (rack[type] > 0) {
+                rackTypes[numRackTypes] = type;
+                numRackTypes++;
+            }
+        }
+
+        if (numLeaves > rackLeaveValues.length) {
+            rackLeaveValues = new float[numLeaves];
+        }
+
+        float maxLeaveValue = 0;
+
+        for (int code = 0; code < numLeaves; code++) {
+            for (int i = 0; i < numRackTypes; i++) {
+                int type = rackTypes[i];
+                int numPlaced = code / leaveWeights[type] % (rack[type] + 1);
+                leaveCounts[type] = rack[type] - numPlaced;
+            }
+
+            rackLeaveValues[code] = leaveTable.valueOf(leaveCounts);
+
+            if (code > 0) {
+                maxLeaveValue = Math.max(maxLeaveValue, rackLeaveValues[code]);
+            }
+        }
+
+        return (int) Math.ceil(maxLeaveValue);
+    }
+
+    /**
+     * Stores the start squares of the search in the order in which
+     * ScrabbleEngine searches them, together with their minimum word lengths.
+     *
+     * @param   board       stores the state of the Scrabble board
+     * @param   step        PackedBoard.ACROSS or PackedBoard.DOWN
+     * @param   firstLine   the first line to search
+     * @param   lastLine    the last line to search
+     * @return              the number of start squares
+     */
+    private int findStartSquares (PackedBoard board, int step,
+                                  int firstLine, int lastLine) {
+
+        int numStartSquares = 0;
+        int numRackTiles = engine.numRackTiles;
+
+        // On an empty board, the first word must cover the center square
+        // and place at least 2 tiles, so it is started from the squares
+        // left of and including the center square
+        if (board.isEmpty()) {
+            int midRow = engine.numBoardRows/2 + 1;
+            int midCol = engine.numBoardCols/2 + 1;
+
+            if (midRow < firstLine || midRow > lastLine) {
+                return 0;
+            }
+
+            for (int col = 1; col <= midCol; col++) {
+                int minWordLength = Math.max(midCol - col + 1, 2);
+
+                if (minWordLength <= numRackTiles) {
+                    startSquares[numStartSquares] = PackedBoard.index(midRow, col);
+                    startMinLengths[numStartSquares] = minWordLength;
+                    startOrders[numStartSquares] = PackedBoard.index(midRow, col);
+                    numStartSquares++;
+                }
+            }
+
+            return numStartSquares;
+        }
+
+        byte[] minLengths = board.minLengths(step);
+
+        // The rows and columns are swapped for down moves so that the squares
+        // are started from in the same order as ScrabbleEngine does
+        for (int line = firstLine; line <= lastLine; line++) {
+            for (int pos = 1; pos <= engine.numBoardCols; pos++) {
+
+                int square = (step == PackedBoard.ACROSS) ?
+                        PackedBoard.index(line, pos) :
+                        PackedBoard.index(pos, line);
+                int minWordLength = minLengths[square];
+
+                // Only call extendRight when necessary
+                if (minWordLength <= numRackTiles && minWordLength != -1) {
+                    startSquares[numStartSquares] = square;
+                    startMinLengths[numStartSquares] = minWordLength;
+                    startOrders[numStartSquares] = PackedBoard.index(line, pos);
+                    numStartSquares++;
+                }
+            }
+        }
+
+        return numStartSquares;
+    }
+
+    /**
+     * Fills in the properties of the squares ahead of each square for up to
+     * numTilesLeft tiles, going backwards from the edge of the board along
+     * each line that is searched.
+     *
+     * @param   board       stores the state of the Scrabble board
+     * @param   step        PackedBoard.ACROSS or PackedBoard.DOWN
+     * @param   firstLine   the first line to search
+     * @param   lastLine    the last line to search
+     */
+    private void calcAheadProperties (PackedBoard board, int step,
+                                      int firstLine, int lastLine) {
+
+        int crossStep = PackedBoard.ACROSS + PackedBoard.DOWN - step;
+        int[] crossScores = board.crossScores(step);
+        numAheadLevels = Math.min(numTilesLeft, MAX_TILES) + 1;
+
+        for (int line = firstLine; line <= lastLine; line++) {
+
+            // Start from the outside square at the end of the line, where the
+            // outside square at the start of the line is line * crossStep
+            int end = line * crossStep + (engine.numBoardCols + 1) * step;
+
+            for (int level = 0; level < numAheadLevels; level++) {
+                int square = level * PackedBoard.NUM_SQUARES + end;
+                aheadLetterMultipliers[square] = 0;
+                aheadExtraLetterMultipliers[square] = 0;
+                aheadWordMultipliers[square] = 1;
+                aheadTilePts[square] = 0;
+                aheadCrossPts[square] = 0;
+                aheadCrossMultipliers[square] = 0;
+                aheadCrossLetterMultipliers[square] = 0;
+                aheadWordLengths[square] = (level == 0) ? 0 : NO_ROOM;
+            }
+
+            for (int square = end - step; !board.isOutside(square); square -= step) {
+
+                int letter = board.letters[square];
+
+                for (int level = 0; level < numAheadLevels; level++) {
+                    int curr = level * PackedBoard.NUM_SQUARES + square;
+
+                    if (letter != PackedBoard.EMPTY) {
+                        // A tile on the board is part of the word
+                        int next = curr + step;
+
+                        aheadLetterMultipliers[curr] = aheadLetterMultipliers[next];
+                        aheadExtraLetterMultipliers[curr] =
+                                aheadExtraLetterMultipliers[next];
+                        aheadWordMultipliers[curr] = aheadWordMultipliers[next];
+                        aheadTilePts[curr] = aheadTilePts[next] + tilePoints[letter];
+                        aheadCrossPts[curr] = aheadCrossPts[next];
+                        aheadCrossMultipliers[curr] = aheadCrossMultipliers[next];
+                        aheadCrossLetterMultipliers[curr] =
+                                aheadCrossLetterMultipliers[next];
+                        aheadWordLengths[curr] = Math.min
+                                (aheadWordLengths[next] + 1, NO_ROOM);
+                    }
+                    else if (level == 0) {
+                        // Without any tiles, the word ends at an empty square
+                        aheadLetterMultipliers[curr] = 0;
+                        aheadExtraLetterMultipliers[curr] = 0;
+                        aheadWordMultipliers[curr] = 1;
+                        aheadTilePts[curr] = 0;
+                        aheadCrossPts[curr] = 0;
+                        aheadCrossMultipliers[curr] = 0;
+                        aheadCrossLetterMultipliers[curr] = 0;
+                        aheadWordLengths[curr] = 0;
+                    }
+                    else {
+                        // A tile may be placed here, leaving one less tile
+                        // for the squares after it
+                        int next = curr - PackedBoard.NUM_SQUARES + step;
+                        int letterMultiplier = board.letterMultipliers[square];
+                        int wordMultiplier = board.wordMultipliers[square];
+
+                        aheadLetterMultipliers[curr] = Math.max
+                                (letterMultiplier, aheadLetterMultipliers[next]);
+                        aheadExtraLetterMultipliers[curr] = letterMultiplier - 1 +
+                                aheadExtraLetterMultipliers[next];
+                        aheadWordMultipliers[curr] =
+                                wordMultiplier * aheadWordMultipliers[next];
+                        aheadTilePts[curr] = aheadTilePts[next];
+                        aheadCrossPts[curr] = aheadCrossPts[next];
+                        aheadCrossMultipliers[curr] = aheadCrossMultipliers[next];
+                        aheadCrossLetterMultipliers[curr] =
+                                aheadCrossLetterMultipliers[next];
+                        aheadWordLengths[curr] = Math.min
+                                (aheadWordLengths[next] + 1, NO_ROOM);
+
+                        if (crossScores[square] >= 0) {
+                            int crossMultiplier = letterMultiplier * wordMultiplier;
+
+                            aheadCrossPts[curr] += crossScores[square] * wordMultiplier;
+                            aheadCrossMultipliers[curr] = Math.max
+                                    (crossMultiplier, aheadCrossMultipliers[curr]);
+                            aheadCrossLetterMultipliers[curr] += crossMultiplier;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds an upper bound on the points of any move that extends the word
+     * being built from a square onwards, using the tiles left in the rack.
+     *
+     * @param   node            the handle of the node in the lexicon storing
+     *                          the last letter added to the word being built
+     * @param   square          the square the word is extended from
+     * @param   wordPts         the points of the letters of the word so far
+     * @param   wordMultiplier  the word multiplier of the word so far
+     * @param   crossPts        the points of the cross words formed so far
+     * @return                  an upper bound on the points
+     */
+    private int calcBound (int node, int square, int wordPts,
+                           int wordMultiplier, int crossPts) {
+
+        // Find the most tiles that can be placed before the edge of the
+        // board or the end of the longest word in the lexicon
+        int maxSuffixLength = maxSuffixLengths[FlatLexicon.header(node)];
+        int level = Math.min(numTilesLeft, numAheadLevels - 1);
+        int curr = level * PackedBoard.NUM_SQUARES + square;
+
+        while (level > 0 && aheadWordLengths[curr] > maxSuffixLength) {
+            level--;
+            curr -= PackedBoard.NUM_SQUARES;
+        }
+
+        // The tiles placed from the rack score at most their points times
+        // the largest letter multiplier they can reach, and at most their
+        // points plus the highest tile points for each extra letter multiplier
+        int placedPts = Math.min(rackPts * aheadLetterMultipliers[curr],
+                rackPts + maxTilePts * aheadExtraLetterMultipliers[curr]);
+
+        // The same goes for the tiles placed on the squares with cross words
+        int placedCrossPts = Math.min(rackPts * aheadCrossMultipliers[curr],
+                maxTilePts * aheadCrossLetterMultipliers[curr]);
+
+        // Every word multiplier that can be reached is used
+        int bound = (wordPts + aheadTilePts[curr] + placedPts) *
+                wordMultiplier * aheadWordMultipliers[curr] +
+                crossPts + aheadCrossPts[curr] + placedCrossPts;
+
+        if (currSize + level >= 7) {
+            bound += 50;
+        }
+
+        return bound;
+    }
+
+    /**
+     * Sorts the first n elements of an Array from highest to lowest with an
+     * insertion sort, which does not create any objects.
+     *
+     * @param   keys    the Array to be sorted
+     * @param   n       the number of elements to sort
+     */
+    private static void sortDescending (long[] keys, int n) {
+
+        for (int i = 1; i < n; i++) {
+            long key = keys[i];
+            int j = i - 1;
+
+            while (j >= 0 && keys[j] < key) {
+                keys[j + 1] = keys[j];
+                j--;
+            }
+
+            keys[j + 1] = key;
+        }
+    }
+
+    /**
+     * @return  a new ScrabbleMove storing the best move of the last search
+     *          without a visitor
+     */
+    public ScrabbleMove getBestMove () {
+        return bestMoveVisitor.getBestMove();
+    }
+
+    /**
+     * Tells which of the best moves of two lines, searched on their own, a
+     * single MoveGenerator keeps. It keeps the first across move with the
+     * most points, then the first down move with as many points or more.
+     *
+     * @param   points      the points of the best move of a line
+     * @param   step        the direction of the line
+     * @param   line        the row or column of the line
+     * @param   otherPoints the points of the best move of another line
+     * @param   otherStep   the direction of the other line
+     * @param   otherLine   the row or column of the other line
+     * @return              true if the move is kept over the other move
+     */
+    static boolean isBetterLineMove (int points, int step, int line,
+                                     int otherPoints, int otherStep,
+                                     int otherLine) {
+
+        if (points != otherPoints) {
+            return points > otherPoints;
+        }
+        else if (step != otherStep) {
+            return step == PackedBoard.DOWN;
+        }
+        else {
+            return line < otherLine;
+        }
+    }
+
+    /**
+     * Same as ScrabbleEngine.extendRight(), but keeps the move being tried on
+     * the stack of tiles and the rest of its state in the fields.
+     *
+     * @param   node            the handle of the node in the lexicon storing
+     *                          the last letter added to the word being built
+     * @param   square          the index of the square on which a new tile
+     *                          may be placed
+     * @param   minWordLength   the minimum word length of the word to be
+     *                          created so that it connects with
+     *                          pre-existing words
+     * @param   rackMask        the letters that can be placed from the rack
+     *                          as bits, as returned by calcRackMask()
+     * @param   wordPts         the points of the letters of the word so far,
+     *                          without any word multipliers
+     * @param   wordMultiplier  the word multiplier of the squares on which
+     *                          tiles have been placed so far
+     * @param   crossPts        the points of the cross words formed so far
+     */
+    private void extendRight (int node, int square, int minWordLength,
+                              int rackMask, int wordPts, int wordMultiplier,
+                              int crossPts) {
+
+        int letter = board.letters[square];
+        numNodesVisited++;
+
+        // Reading the clock is much slower than visiting a node
+        if (searchHandle != null && --nodesUntilStopCheck < 0) {
+            nodesUntilStopCheck = STOP_CHECK_INTERVAL;
+
+            if (searchHandle.shouldStop()) {
+                isStopped = true;
+                return;
+            }
+        }
+
+        // The square is empty or outside the board
+        if (letter == PackedBoard.EMPTY) {
+
+            // Determine if a legal move has been found
+            if (FlatLexicon.isTerminal(node) && currSize >= minWordLength) {
+                int points = wordPts * wordMultiplier + crossPts;
+
+                // If you use 7 tiles in your move, you get a bingo of 50 points
+                if (currSize >= 7) {
+                    points += 50;
+                }
+
+                recordMove(points);
+            }
+
+            // A word that reaches the edge of the board cannot be extended
+            if (board.isOutside(square) || isStopped) {
+                return;
+            }
+
+            // Skip the words that start with the letters so far if none of
+            // them can be good enough. Deeper in the search, there are too few
+            // words left below each node for the bound to be worth finding.
+            if (usePruning && currSize < MAX_PRUNING_DEPTH &&
+                    calcBound(node, square, wordPts, wordMultiplier, crossPts)
+                            < pruningThreshold) {
+                numNodesPruned++;
+                return;
+            }
+
+            int childMask = lexicon.childMask(node);
+            int candidates = childMask & rackMask & crossChecks[square];
+            int letterMultiplier = board.letterMultipliers[square];
+            int squareWordMultiplier = board.wordMultipliers[square];
+            int crossScore = crossScores[square];
+
+            // Go through the letters one set bit at a time
+            while (candidates != 0) {
+
+                int childLetterIndex = Integer.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+
+                int child = lexicon.childInMask(node, childMask, childLetterIndex);
+                int nextRackMask = rackMask;
+                int rackIndex;
+                char tileLetter;
+                int letterPts = 0;
+
+                // Use a regular tile if it is in the rack
+                if (rack[childLetterIndex] > 0) {
+                    rackIndex = childLetterIndex;
+                    tileLetter = (char) ('A' + childLetterIndex);
+                    letterPts = tilePoints[tileLetter] * letterMultiplier;
+
+                    // The letter can no longer be placed if that was the
+                    // last one and there are no blank tiles
+                    if (rack[childLetterIndex] == 1 && rack[26] == 0) {
+                        nextRackMask &= ~(1 << childLetterIndex);
+                    }
+                }
+                // Otherwise use a blank tile
+                else {
+                    rackIndex = 26;
+                    tileLetter = (char) ('a' + childLetterIndex);
+                }
+
+                // Move the tile from the rack onto the stack
+                rack[rackIndex]--;
+                rackPts -= tilePoints[tileLetter];
+                numTilesLeft--;
+                leaveCode += leaveWeights[rackIndex];
+                currSquares[currSize] = square;
+                currLetters[currSize] = tileLetter;
+                currSize++;
+
+                // Only the regular tiles can be placed if that was the
+                // last blank tile
+                if (rackIndex == 26 && rack[26] == 0) {
+                    nextRackMask = engine.calcRackMask(rack);
+                }
+
+                // Add the points of the cross word, if there is one
+                int nextCrossPts = crossPts;
+
+                if (crossScore >= 0) {
+                    nextCrossPts += (crossScore + letterPts) * squareWordMultiplier;
+                }
+
+                extendRight(child, square + step, minWordLength, nextRackMask,
+                        wordPts + letterPts,
+                        wordMultiplier * squareWordMultiplier, nextCrossPts);
+
+                // Move the tile from the stack back into the rack
+                currSize--;
+                rack[rackIndex]++;
+                rackPts += tilePoints[tileLetter];
+                numTilesLeft++;
+                leaveCode -= leaveWeights[rackIndex];
+
+                if (isStopped) {
+                    return;
+                }
+            }
+        }
+        // The square contains a letter
+        else {
+            // Lowercase and uppercase letters have the same lowest 5 bits
+            int child = lexicon.child(node, (letter & 0x1F) - 1);
+
+            // Letters already on the board are not affected by multipliers
+            if (child != FlatLexicon.NO_CHILD) {
+                extendRight(child, square + step, minWordLength, rackMask,
+                        wordPts + tilePoints[letter], wordMultiplier, crossPts);
+            }
+        }
+    }
+
+    /**
+     * Passes the move on the stack to the visitor.
+     *
+     * @param   points  the points of the move
+     */
+    private void recordMove (int points) {
+
+        if (checkScores) {
+            checkScore(points);
+        }
+
+        currMoveView.size = currSize;
+        currMoveView.points = points;
+        currMoveView.step = step;
+        currMoveView.startOrder = currStartOrder;
+        currMoveView.leaveValue = (leaveTable == null) ? 0 :
+                rackLeaveValues[leaveCode];
+
+        if (!visitor.visitMove(currMoveView)) {
+            isStopped = true;
+        }
+
+        pruningThreshold = visitor.getMinPoints() - leavePruningOffset;
+    }
+
+    /**
+     * Checks the points added up during the search against the points found
+     * by scoring the move on the stack from scratch.
+     *
+     * @param   points  the points of the move on the stack
+     */
+    private void checkScore (int points) {
+
+        ScrabbleMove move = new ScrabbleMove();
+
+        for (int i = 0; i < currSize; i++) {
+            engine.addSqrToMove(currSquares[i] / PackedBoard.WIDTH,
+                    currSquares[i] % PackedBoard.WIDTH, currLetters[i], move);
+        }
+
+        engine.calcAcrossPts(board, step, move);
+        numScoresChecked++;
+
+        if (move.points != points) {
+            throw new IllegalStateException("Scored " + points + " instead of " +
+                    move.points + " for the move at square " + currSquares[0]);
+        }
+    }
+}
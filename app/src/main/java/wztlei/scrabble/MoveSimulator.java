@@ -0,0 +1,478 @@
+/*
+ * MoveSimulator.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Chooses between the top candidate moves by playing each of them
+ *          out two plies deep many times with random racks. In each
+ *          iteration, the opponent's rack is drawn from the unseen tiles,
+ *          which are the tiles of the set that are neither on the board nor
+ *          in our rack, and our rack is refilled from the tiles left after
+ *          that. The opponent then plays its best reply and we play our best
+ *          follow-up. The value of a candidate in an iteration is its points,
+ *          minus the points of the reply, plus the points of the follow-up
+ *          and the value of the leave after it.
+ *
+ *          Every candidate is played out with the same racks in an iteration,
+ *          so the differences between candidates are not hidden by the luck
+ *          of the draw. The racks of each iteration come from its own seed,
+ *          the results of a round of iterations are added up in order, and
+ *          the rounds have the same size on any number of threads, so a
+ *          simulation gives the same result on any number of threads.
+ *
+ *          The iterations are run in rounds on a fixed pool of threads, each
+ *          with its own board, racks and MoveGenerator. After each round, a
+ *          candidate whose confidence interval lies entirely below the
+ *          interval of the leading candidate is dropped, and the simulation
+ *          stops once only the leader is left.
+ *
+ *          When moves are chosen by points, each thread finds them with a
+ *          LineMoveCache. The opponent has the same rack for every candidate
+ *          of an iteration, and a candidate only changes a few lines of the
+ *          board, so most lines of the reply are looked up instead of
+ *          searched.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class MoveSimulator {
+
+    // The number of iterations per round, which does not depend on the
+    // number of threads, so that candidates are dropped after the same
+    // iterations on any number of threads
+    private static final int ITERATIONS_PER_ROUND = 16;
+
+    // The number of searches whose line results each thread remembers when
+    // moves are chosen by points
+    private static final int NUM_CACHED_SEARCHES = 8;
+
+    private final ScrabbleEngine engine;
+    private final LeaveTable leaveTable;
+    private final int numThreads;
+    private final ExecutorService pool;
+
+    // The state used by each thread of the pool
+    private final ThreadLocal<Playout> playouts;
+
+    // Finds the candidate moves on the thread that runs the simulation
+    private final MoveGenerator generator;
+
+    // The number of candidate moves to simulate
+    public int numCandidates = 10;
+
+    // The simulation runs at least minIterations iterations before any
+    // candidate is dropped, and stops after maxIterations iterations
+    public int minIterations = 32;
+    public int maxIterations = 1000;
+
+    // The number of standard errors on each side of a mean that make up its
+    // confidence interval, where 1.96 gives a 95% confidence interval
+    public double confidenceZ = 1.96;
+
+    // The seed of the racks drawn in every iteration
+    public long seed = 0;
+
+    // Constructor function with one thread per processor
+    public MoveSimulator (ScrabbleEngine engine, LeaveTable leaveTable) {
+        this(engine, leaveTable, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param   engine      the engine whose lexicon and tiles are used
+     * @param   leaveTable  the values of the leaves, used to choose the moves
+     *                      that are played and to value the last leave, or
+     *                      null to only use points
+     * @param   numThreads  the number of threads of the pool
+     */
+    public MoveSimulator (final ScrabbleEngine engine,
+                          final LeaveTable leaveTable, int numThreads) {
+        this.engine = engine;
+        this.leaveTable = leaveTable;
+        this.numThreads = numThreads;
+        this.pool = Executors.newFixedThreadPool(numThreads);
+        this.playouts = new ThreadLocal<Playout>() {
+            @Override
+            protected Playout initialValue () {
+                return new Playout();
+            }
+        };
+
+        generator = new MoveGenerator(engine);
+        generator.usePruning = true;
+        generator.leaveTable = leaveTable;
+    }
+
+    /**
+     * @return  the number of threads used by the simulation
+     */
+    public int getNumThreads () {
+        return numThreads;
+    }
+
+    /**
+     * Simulates the top candidate moves of a position. Only one simulation
+     * can be run at a time.
+     *
+     * @param   board   stores the state of the Scrabble board, which is
+     *                  left unchanged
+     * @param   rack    stores the number of each possible tile
+     * @return          the candidates and their simulated values
+     * @throws  InterruptedException    if the thread was interrupted while
+     *                                  waiting for a round of iterations
+     */
+    public synchronized SimulationResult simulate (DualBoard board, int[] rack)
+            throws InterruptedException {
+
+        long startTime = System.nanoTime();
+
+        final ArrayList<ScrabbleMove> candidates = generator.findTopMoves
+                (PackedBoard.fromDualBoard(board), rack, numCandidates);
+        final int numMoves = candidates.size();
+        final Position position = new Position(board, rack);
+
+        double[] sums = new double[numMoves];
+        double[] sumSquares = new double[numMoves];
+        int[] numSamples = new int[numMoves];
+        final boolean[] isActive = new boolean[numMoves];
+        int numActive = numMoves;
+
+        for (int i = 0; i < numMoves; i++) {
+            isActive[i] = true;
+        }
+
+        int numIterations = 0;
+
+        while (numIterations < maxIterations && numActive > 0) {
+
+            final int firstIteration = numIterations;
+            final int roundSize = Math.min(ITERATIONS_PER_ROUND,
+                    maxIterations - numIterations);
+            final double[][] values = new double[roundSize][numMoves];
+            final AtomicInteger nextIteration = new AtomicInteger(0);
+
+            // Each thread takes the next iteration of the round until none
+            // are left
+            ArrayList<Callable<Void>> tasks = new ArrayList<>();
+
+            for (int i = 0; i < numThreads; i++) {
+                tasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call () {
+                        Playout playout = playouts.get();
+                        int iteration;
+
+                        while ((iteration = nextIteration.getAndIncrement())
+                                < roundSize) {
+                            for (int c = 0; c < numMoves; c++) {
+                                if (isActive[c]) {
+                                    values[iteration][c] = playout.run(position,
+                                            candidates.get(c),
+                                            firstIteration + iteration);
+                                }
+                            }
+                        }
+
+                        return null;
+                    }
+                });
+            }
+
+            waitForAll(pool.invokeAll(tasks));
+
+            // Add up the values in the order of the iterations
+            for (int i = 0; i < roundSize; i++) {
+                for (int c = 0; c < numMoves; c++) {
+                    if (isActive[c]) {
+                        sums[c] += values[i][c];
+                        sumSquares[c] += values[i][c] * values[i][c];
+                        numSamples[c]++;
+                    }
+                }
+            }
+
+            numIterations += roundSize;
+
+            if (numIterations >= minIterations) {
+                numActive = dropCandidates(sums, sumSquares, numSamples, isActive);
+
+                if (numActive <= 1) {
+                    break;
+                }
+            }
+        }
+
+        double[] means = new double[numMoves];
+        double[] standardErrors = new double[numMoves];
+
+        for (int c = 0; c < numMoves; c++) {
+            means[c] = (numSamples[c] == 0) ? 0 : sums[c] / numSamples[c];
+            standardErrors[c] = calcStandardError(sums[c], sumSquares[c],
+                    numSamples[c]);
+        }
+
+        return new SimulationResult(candidates, means, standardErrors,
+                numSamples, numIterations, System.nanoTime() - startTime);
+    }
+
+    /**
+     * Stops the threads of the pool once the simulation that was started
+     * has finished.
+     */
+    public void shutdown () {
+        pool.shutdown();
+    }
+
+    /**
+     * Drops the candidates whose confidence intervals are entirely below the
+     * confidence interval of the candidate with the highest mean.
+     *
+     * @param   sums        the sum of the values of each candidate
+     * @param   sumSquares  the sum of the squares of the values
+     * @param   numSamples  the number of values of each candidate
+     * @param   isActive    whether each candidate is still simulated
+     * @return              the number of candidates still simulated
+     */
+    private int dropCandidates (double[] sums, double[] sumSquares,
+                                int[] numSamples, boolean[] isActive) {
+
+        int leader = -1;
+
+        for (int c = 0; c < isActive.length; c++) {
+            if (isActive[c] && (leader < 0 || sums[c] / numSamples[c] >
+                    sums[leader] / numSamples[leader])) {
+                leader = c;
+            }
+        }
+
+        if (leader < 0) {
+            return 0;
+        }
+
+        double leaderLow = sums[leader] / numSamples[leader] - confidenceZ *
+                calcStandardError(sums[leader], sumSquares[leader],
+                        numSamples[leader]);
+        int numActive = 0;
+
+        for (int c = 0; c < isActive.length; c++) {
+            if (!isActive[c]) {
+                continue;
+            }
+
+            double high = sums[c] / numSamples[c] + confidenceZ *
+                    calcStandardError(sums[c], sumSquares[c], numSamples[c]);
+
+            if (high < leaderLow) {
+                isActive[c] = false;
+            }
+            else {
+                numActive++;
+            }
+        }
+
+        return numActive;
+    }
+
+    /**
+     * @param   sum         the sum of some values
+     * @param   sumSquares  the sum of their squares
+     * @param   n           the number of values
+     * @return              the standard error of their mean
+     */
+    private static double calcStandardError (double sum, double sumSquares,
+                                             int n) {
+
+        if (n < 2) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        double variance = (sumSquares - sum * sum / n) / (n - 1);
+        return Math.sqrt(Math.max(variance, 0) / n);
+    }
+
+    /**
+     * Waits for every task of a round and passes on the first exception
+     * thrown by any of them.
+     *
+     * @param   futures     the futures of the tasks
+     */
+    private static void waitForAll (List<Future<Void>> futures)
+            throws InterruptedException {
+
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+    }
+
+    /**
+     * Mixes the seed of the simulation with the number of an iteration, so
+     * that the racks of nearby iterations are not alike.
+     *
+     * @param   iteration   the number of the iteration
+     * @return              the seed of its racks
+     */
+    private long iterationSeed (int iteration) {
+
+        long z = seed + (iteration + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // The position being simulated, which is shared by all the threads
+    private class Position {
+
+        final String boardString;
+        final Square[][] board;
+        final int[] rack;
+
+        // The number of each tile that is neither on the board nor in the rack
+        final int[] unseen;
+
+        Position (DualBoard dualBoard, int[] rack) {
+            this.boardString = engine.boardTilesToString(dualBoard.across);
+            this.board = dualBoard.across;
+            this.rack = rack.clone();
+            this.unseen = new int[27];
+
+            for (int i = 0; i < 27; i++) {
+                unseen[i] = engine.tiles[i].total - rack[i];
+            }
+
+            for (int i = 0; i < boardString.length(); i++) {
+                char letter = boardString.charAt(i);
+
+                if (Character.isUpperCase(letter)) {
+                    unseen[letter - 'A']--;
+                }
+                else if (Character.isLowerCase(letter)) {
+                    unseen[26]--;
+                }
+            }
+
+            // A position with more tiles than the set has leaves none unseen
+            for (int i = 0; i < 27; i++) {
+                unseen[i] = Math.max(unseen[i], 0);
+            }
+        }
+    }
+
+    // The board, racks and MoveGenerator of one thread
+    private class Playout {
+
+        private DualBoard board;
+        private final MoveGenerator playoutGenerator;
+
+        // Finds the moves when there is no leave table, or is null
+        private final LineMoveCache lineMoveCache;
+        private final Random random;
+        private final int[] bag;
+        private final int[] ourRack;
+        private final int[] opponentRack;
+
+        Playout () {
+            playoutGenerator = new MoveGenerator(engine);
+            playoutGenerator.usePruning = true;
+            playoutGenerator.leaveTable = leaveTable;
+
+            if (leaveTable == null) {
+                lineMoveCache = new LineMoveCache(engine,
+                        NUM_CACHED_SEARCHES * 2 * engine.numBoardRows);
+                lineMoveCache.usePruning = true;
+            }
+            else {
+                lineMoveCache = null;
+            }
+
+            random = new Random();
+            bag = new int[27];
+            ourRack = new int[27];
+            opponentRack = new int[27];
+        }
+
+        /**
+         * Plays out a candidate two plies deep.
+         *
+         * @param   position    the position being simulated
+         * @param   candidate   the move to play out
+         * @param   iteration   the number of the iteration, which gives the
+         *                      seed of the racks
+         * @return              the value of the candidate in this iteration
+         */
+        double run (Position position, ScrabbleMove candidate, int iteration) {
+
+            // Only the letters that changed since the last playout are updated
+            if (board == null) {
+                board = new DualBoard(engine, engine.copyBoard(position.board));
+            }
+            else {
+                board.fillWithString(position.boardString);
+            }
+
+            random.setSeed(iterationSeed(iteration));
+            System.arraycopy(position.unseen, 0, bag, 0, 27);
+            System.arraycopy(position.rack, 0, ourRack, 0, 27);
+            Racks.removeTiles(candidate, ourRack);
+            board.addMove(candidate);
+
+            // The opponent draws before we refill our rack
+            for (int i = 0; i < 27; i++) {
+                opponentRack[i] = 0;
+            }
+
+            Racks.drawTiles(bag, opponentRack, engine.numRackTiles, random);
+            Racks.drawTiles(bag, ourRack, engine.numRackTiles, random);
+
+            ScrabbleMove reply = findMove(opponentRack);
+            board.addMove(reply);
+
+            ScrabbleMove followUp = findMove(ourRack);
+            Racks.removeTiles(followUp, ourRack);
+
+            double value = candidate.points - reply.points + followUp.points;
+
+            if (leaveTable != null) {
+                value += leaveTable.valueOf(ourRack);
+            }
+
+            return value;
+        }
+
+        /**
+         * @param   rack    stores the number of each possible tile
+         * @return          the move with the highest equity, or the most
+         *                  points if there is no leave table
+         */
+        private ScrabbleMove findMove (int[] rack) {
+
+            PackedBoard packedBoard = PackedBoard.fromDualBoard(board);
+
+            return (leaveTable != null) ?
+                    playoutGenerator.findBestEquityMove(packedBoard, rack) :
+                    lineMoveCache.findBestMove(packedBoard, rack);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * MoveView.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: A read-only view of the move that MoveGenerator has just found,
+ *          which is passed to a MoveVisitor. The view reads the tiles straight
+ *          from the stack of the search, so no objects are created per move.
+ *
+ *          Within one direction, the moves are found in the order of their
+ *          start squares and then of the letters of their tiles, which is the
+ *          order used to break ties between moves with the same points.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+/**
+ *
+ * @author  William Lei
+ */
+public final class MoveView {
+
+    // The stack of tiles of the search, which belongs to the MoveGenerator
+    private final int[] squares;
+    private final char[] letters;
+
+    // Set by the MoveGenerator before each move is visited
+    int size;
+    int points;
+    int step;
+    int startOrder;
+    float leaveValue;
+
+    // Constructor function
+    MoveView (int[] squares, char[] letters) {
+        this.squares = squares;
+        this.letters = letters;
+    }
+
+    /**
+     * @return  the number of tiles placed by the move
+     */
+    public int size () {
+        return size;
+    }
+
+    /**
+     * @param   i   the index of a tile, from 0 to size() - 1
+     * @return      the index of its square on the PackedBoard
+     */
+    public int getSquare (int i) {
+        return squares[i];
+    }
+
+    /**
+     * @param   i   the index of a tile, from 0 to size() - 1
+     * @return      the row of its square
+     */
+    public int getRow (int i) {
+        return squares[i] / PackedBoard.WIDTH;
+    }
+
+    /**
+     * @param   i   the index of a tile, from 0 to size() - 1
+     * @return      the column of its square
+     */
+    public int getCol (int i) {
+        return squares[i] % PackedBoard.WIDTH;
+    }
+
+    /**
+     * @param   i   the index of a tile, from 0 to size() - 1
+     * @return      its letter, which is lowercase for a blank tile
+     */
+    public char getLetter (int i) {
+        return letters[i];
+    }
+
+    /**
+     * @return  the points scored by the move
+     */
+    public int getPoints () {
+        return points;
+    }
+
+    /**
+     * @return  the value of the tiles left in the rack, or 0 if the
+     *          MoveGenerator has no LeaveTable
+     */
+    public float getLeaveValue () {
+        return leaveValue;
+    }
+
+    /**
+     * @return  the points of the move plus the value of its leave
+     */
+    public float getEquity () {
+        return points + leaveValue;
+    }
+
+    /**
+     * @return  PackedBoard.ACROSS or PackedBoard.DOWN
+     */
+    public int getStep () {
+        return step;
+    }
+
+    /**
+     * @return  the position of the start square of the move in the order
+     *          in which the start squares of its direction are searched
+     */
+    public int getStartOrder () {
+        return startOrder;
+    }
+
+    /**
+     * @return  a new ScrabbleMove with the same tiles and points
+     */
+    public ScrabbleMove toScrabbleMove () {
+
+        ScrabbleMove move = new ScrabbleMove();
+
+        for (int i = 0; i < size; i++) {
+            Square sqr = new Square();
+            sqr.row = getRow(i);
+            sqr.col = getCol(i);
+            sqr.letter = letters[i];
+            move.add(sqr);
+        }
+
+        move.points = points;
+        return move;
+    }
+}
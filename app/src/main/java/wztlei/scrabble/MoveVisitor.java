@@ -0,0 +1,40 @@
+/*
+ * MoveVisitor.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Receives every legal move found by MoveGenerator.visitMoves(), one
+ *          at a time, without the moves being collected into lists. Keeping
+ *          the best move, keeping the top few moves and counting moves for
+ *          statistics are all done by visitors.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+/**
+ *
+ * @author  William Lei
+ */
+public interface MoveVisitor {
+
+    /**
+     * Called for every legal move found by the search. When pruning, the
+     * moves that score less than getMinPoints() may be skipped.
+     *
+     * @param   move    the tiles and points of the move, which are reused for
+     *                  the next move, so they are only valid during the call
+     * @return          true to keep searching, or false to stop the search
+     */
+    boolean visitMove (MoveView move);
+
+    /**
+     * Called after each move is visited, so the result may go up as better
+     * moves are found.
+     *
+     * @return  the points a move needs to be of any use to the visitor,
+     *          which is 0 to visit every move
+     */
+    int getMinPoints ();
+}
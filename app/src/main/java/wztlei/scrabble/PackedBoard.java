@@ -0,0 +1,277 @@
+/*
+ * PackedBoard.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Stores a Scrabble board in a few flat arrays of primitives
+ *          instead of a 2D Array of Square objects, so that the search reads
+ *          each property of a square from one array without following any
+ *          pointers.
+ *
+ *          Every array has one element per square, including the outside
+ *          squares around the board, at the index row * WIDTH + col. Moving
+ *          one square across adds ACROSS to an index and moving one square
+ *          down adds DOWN, so the same code can search in both directions.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class PackedBoard {
+
+    // The number of squares in a row, including the 2 outside squares
+    public static final int WIDTH = 17;
+    public static final int NUM_SQUARES = WIDTH * WIDTH;
+
+    // The steps between the indexes of neighbouring squares
+    public static final int ACROSS = 1;
+    public static final int DOWN = WIDTH;
+
+    // The letter of an empty square
+    public static final byte EMPTY = 0;
+
+    // The letter on each square as an ASCII character, using uppercase letters
+    // for regular tiles, lowercase letters for blank tiles and EMPTY otherwise
+    public final byte[] letters;
+
+    // The letter and word multipliers of each square
+    // Outside squares have a word multiplier of 0
+    public final byte[] letterMultipliers;
+    public final byte[] wordMultipliers;
+
+    // The letters that can be placed on each empty square for across moves,
+    // which is the downCrossCheck of the board, and for down moves,
+    // which is the downCrossCheck of the inverted board
+    public final int[] downCrossChecks;
+    public final int[] acrossCrossChecks;
+
+    // The downCrossScore of each empty square for across moves, and of the
+    // inverted board for down moves, which are -1 if no cross word is formed
+    public final int[] downCrossScores;
+    public final int[] acrossCrossScores;
+
+    // The minAcrossWordLength of each square for across moves,
+    // and of the inverted board for down moves
+    public final byte[] acrossMinLengths;
+    public final byte[] downMinLengths;
+
+    // Constructor function for an empty board
+    public PackedBoard () {
+        letters = new byte[NUM_SQUARES];
+        letterMultipliers = new byte[NUM_SQUARES];
+        wordMultipliers = new byte[NUM_SQUARES];
+        downCrossChecks = new int[NUM_SQUARES];
+        acrossCrossChecks = new int[NUM_SQUARES];
+        downCrossScores = new int[NUM_SQUARES];
+        acrossCrossScores = new int[NUM_SQUARES];
+        acrossMinLengths = new byte[NUM_SQUARES];
+        downMinLengths = new byte[NUM_SQUARES];
+    }
+
+    /**
+     * @param   row     the row of a square
+     * @param   col     the column of a square
+     * @return          the index of the square in the arrays
+     */
+    public static int index (int row, int col) {
+        return row * WIDTH + col;
+    }
+
+    /**
+     * @param   square  the index of a square
+     * @return          true if the square is outside the board
+     */
+    public boolean isOutside (int square) {
+        return wordMultipliers[square] == 0;
+    }
+
+    /**
+     * @return  true if there are no tiles on the board
+     */
+    public boolean isEmpty () {
+
+        for (int square = 0; square < NUM_SQUARES; square++) {
+            if (letters[square] != EMPTY) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param   step    ACROSS or DOWN
+     * @return          the cross-checks of the empty squares for moves
+     *                  going in the direction of step
+     */
+    public int[] crossChecks (int step) {
+        return (step == ACROSS) ? downCrossChecks : acrossCrossChecks;
+    }
+
+    /**
+     * @param   step    ACROSS or DOWN
+     * @return          the points of the tiles of the cross words of the
+     *                  empty squares for moves going in the direction of step
+     */
+    public int[] crossScores (int step) {
+        return (step == ACROSS) ? downCrossScores : acrossCrossScores;
+    }
+
+    /**
+     * @param   step    ACROSS or DOWN
+     * @return          the minimum word lengths of the squares for moves
+     *                  going in the direction of step
+     */
+    public byte[] minLengths (int step) {
+        return (step == ACROSS) ? acrossMinLengths : downMinLengths;
+    }
+
+    /**
+     * Packs a board together with its inverted board.
+     *
+     * @param   board           a board whose properties are up to date
+     * @param   invertedBoard   the inverted board, as returned by
+     *                          ScrabbleEngine.invertBoard()
+     * @return                  a PackedBoard storing both boards
+     */
+    public static PackedBoard fromSquares (Square[][] board,
+                                           Square[][] invertedBoard) {
+
+        PackedBoard packedBoard = new PackedBoard();
+
+        for (int row = 0; row < WIDTH; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                packedBoard.packSquare(board, invertedBoard, row, col);
+            }
+        }
+
+        return packedBoard;
+    }
+
+    /**
+     * Packs the squares of some rows and columns of a board again, after
+     * their properties have changed.
+     *
+     * @param   board           a board whose properties are up to date
+     * @param   invertedBoard   the inverted board
+     * @param   rowsToUpdate    bit i is set if row i needs to be packed
+     * @param   colsToUpdate    bit i is set if column i needs to be packed
+     */
+    public void packLines (Square[][] board, Square[][] invertedBoard,
+                           int rowsToUpdate, int colsToUpdate) {
+
+        for (int row = 0; row < WIDTH; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                if ((rowsToUpdate & (1 << row)) != 0 ||
+                        (colsToUpdate & (1 << col)) != 0) {
+                    packSquare(board, invertedBoard, row, col);
+                }
+            }
+        }
+    }
+
+    /**
+     * Copies the properties of one square of a board and of the same square
+     * of the inverted board into the arrays.
+     *
+     * @param   board           a board whose properties are up to date
+     * @param   invertedBoard   the inverted board
+     * @param   row             the row of the square on board
+     * @param   col             the column of the square on board
+     */
+    private void packSquare (Square[][] board, Square[][] invertedBoard,
+                             int row, int col) {
+
+        int square = index(row, col);
+        Square sqr = board[row][col];
+
+        letters[square] = (sqr.letter == '.') ? EMPTY : (byte) sqr.letter;
+        downCrossChecks[square] = sqr.downCrossCheck;
+        downCrossScores[square] = sqr.downCrossScore;
+        acrossMinLengths[square] = (byte) sqr.minAcrossWordLength;
+        acrossCrossChecks[square] = invertedBoard[col][row].downCrossCheck;
+        acrossCrossScores[square] = invertedBoard[col][row].downCrossScore;
+        downMinLengths[square] =
+                (byte) invertedBoard[col][row].minAcrossWordLength;
+
+        // Assign the multipliers of the square type
+        byte letterMultiplier = 1;
+        byte wordMultiplier = 1;
+
+        switch (sqr.type) {
+            case TRIPLE_WORD:   wordMultiplier = 3;   break;
+            case DOUBLE_WORD:   wordMultiplier = 2;   break;
+            case TRIPLE_LETTER: letterMultiplier = 3; break;
+            case DOUBLE_LETTER: letterMultiplier = 2; break;
+            case OUTSIDE:       wordMultiplier = 0;   break;
+            default:                                  break;
+        }
+
+        letterMultipliers[square] = letterMultiplier;
+        wordMultipliers[square] = wordMultiplier;
+    }
+
+    /**
+     * @return  a copy of the board that can be changed without changing
+     *          this one
+     */
+    public PackedBoard copy () {
+
+        PackedBoard copy = new PackedBoard();
+
+        System.arraycopy(letters, 0, copy.letters, 0, NUM_SQUARES);
+        System.arraycopy(letterMultipliers, 0, copy.letterMultipliers, 0,
+                NUM_SQUARES);
+        System.arraycopy(wordMultipliers, 0, copy.wordMultipliers, 0,
+                NUM_SQUARES);
+        System.arraycopy(downCrossChecks, 0, copy.downCrossChecks, 0,
+                NUM_SQUARES);
+        System.arraycopy(acrossCrossChecks, 0, copy.acrossCrossChecks, 0,
+                NUM_SQUARES);
+        System.arraycopy(downCrossScores, 0, copy.downCrossScores, 0,
+                NUM_SQUARES);
+        System.arraycopy(acrossCrossScores, 0, copy.acrossCrossScores, 0,
+                NUM_SQUARES);
+        System.arraycopy(acrossMinLengths, 0, copy.acrossMinLengths, 0,
+                NUM_SQUARES);
+        System.arraycopy(downMinLengths, 0, copy.downMinLengths, 0,
+                NUM_SQUARES);
+
+        return copy;
+    }
+
+    /**
+     * @param   dualBoard   a board kept together with its inverted board
+     * @return              a PackedBoard storing both boards
+     */
+    public static PackedBoard fromDualBoard (DualBoard dualBoard) {
+        return fromSquares(dualBoard.across, dualBoard.down);
+    }
+
+    /**
+     * Copies the letters, the downCrossCheck, the downCrossScore and the
+     * minAcrossWordLength of every square back onto a board of Squares.
+     *
+     * @param   board   a board with the same square types
+     */
+    public void toSquares (Square[][] board) {
+
+        for (int row = 0; row < WIDTH; row++) {
+            for (int col = 0; col < WIDTH; col++) {
+                int square = index(row, col);
+                Square sqr = board[row][col];
+
+                sqr.letter = (letters[square] == EMPTY) ? '.' :
+                        (char) letters[square];
+                sqr.downCrossCheck = downCrossChecks[square];
+                sqr.downCrossScore = downCrossScores[square];
+                sqr.minAcrossWordLength = acrossMinLengths[square];
+            }
+        }
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * ParallelDawgBuilder.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Builds the same minimized dawg as DawgBuilder on several threads.
+ *          The sorted words are split into runs of about the same size, only
+ *          between words that start with different two letters, and each
+ *          thread builds the dawg of one run at a time with a DawgBuilder.
+ *
+ *          The DawgBuilders share one register, so each node is minimized
+ *          against the nodes of every run as soon as it is finished, and a
+ *          suffix such as "ING" is stored once no matter how many runs end
+ *          with it. The first letter nodes of the runs are then joined under
+ *          a single root, which gives the same dawg as a single DawgBuilder.
+ *
+ *          A run only needs to insert its words into a DawgBuilder, so the
+ *          runs of WordListReader are slices of the bytes of the word list,
+ *          each decoded by the thread that builds it.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class ParallelDawgBuilder {
+
+    // The number of runs given to each thread, so that a thread that is
+    // given a short run can take another one
+    static final int RUNS_PER_THREAD = 4;
+
+    // The words of a run, which are in alphabetical order and come after
+    // the words of the runs before it. No two runs have words that start
+    // with the same two letters.
+    interface Run {
+
+        /**
+         * @param   dawgBuilder     receives each word of the run in order
+         */
+        void insertInto (DawgBuilder dawgBuilder);
+    }
+
+    // Not instantiable
+    private ParallelDawgBuilder () {}
+
+    /**
+     * Builds a minimized dawg of the words on numThreads threads, which are
+     * stopped before returning.
+     *
+     * @param   sortedWords     the Strings of uppercase letters to be
+     *                          inserted, in ascending alphabetical order
+     * @param   numThreads      the number of threads to build the dawg on
+     * @return                  a TrieNode that is the root of the dawg
+     * @throws  InterruptedException    if the thread was interrupted while
+     *                                  waiting for the other threads
+     */
+    public static TrieNode build (List<String> sortedWords, int numThreads)
+            throws InterruptedException {
+
+        ArrayList<Run> runs = new ArrayList<>();
+
+        for (final List<String> words : splitIntoRuns(sortedWords,
+                numThreads * RUNS_PER_THREAD)) {
+            runs.add(new Run() {
+                @Override
+                public void insertInto (DawgBuilder dawgBuilder) {
+                    for (String word : words) {
+                        dawgBuilder.insert(word);
+                    }
+                }
+            });
+        }
+
+        return buildRuns(runs, numThreads);
+    }
+
+    /**
+     * Same as build(), but for words that are already split into runs.
+     *
+     * @param   runs        the runs in alphabetical order
+     * @param   numThreads  the number of threads to build the dawg on
+     * @return              a TrieNode that is the root of the dawg
+     * @throws  InterruptedException    if the thread was interrupted while
+     *                                  waiting for the other threads
+     */
+    static TrieNode buildRuns (List<Run> runs, int numThreads)
+            throws InterruptedException {
+
+        final ConcurrentHashMap<DawgBuilder.NodeSignature, TrieNode> register =
+                new ConcurrentHashMap<>();
+        ArrayList<Callable<List<TrieNode>>> tasks = new ArrayList<>();
+
+        for (final Run run : runs) {
+            tasks.add(new Callable<List<TrieNode>>() {
+                @Override
+                public List<TrieNode> call () {
+                    return buildRun(run, register);
+                }
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+        List<Future<List<TrieNode>>> futures;
+
+        try {
+            futures = pool.invokeAll(tasks);
+        } finally {
+            pool.shutdown();
+        }
+
+        // The first letter nodes of the runs, in alphabetical order
+        ArrayList<TrieNode> firstNodes = new ArrayList<>();
+
+        for (Future<List<TrieNode>> future : futures) {
+            try {
+                firstNodes.addAll(future.get());
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+
+        return joinRuns(firstNodes, register);
+    }
+
+    /**
+     * Splits the words into about numRuns runs of the same size. Words that
+     * start with the same two letters are always in the same run.
+     *
+     * @param   sortedWords     the words in ascending alphabetical order
+     * @param   numRuns         the number of runs to aim for
+     * @return                  the runs in alphabetical order
+     */
+    static ArrayList<List<String>> splitIntoRuns (List<String> sortedWords,
+                                                  int numRuns) {
+
+        ArrayList<List<String>> runs = new ArrayList<>();
+        int runSize = Math.max(1, (sortedWords.size() + numRuns - 1) / numRuns);
+        int start = 0;
+
+        for (int i = 1; i <= sortedWords.size(); i++) {
+
+            if (i == sortedWords.size() || (i - start >= runSize &&
+                    !sortedWords.get(i).regionMatches(0, sortedWords.get(i - 1), 0, 2))) {
+                runs.add(sortedWords.subList(start, i));
+                start = i;
+            }
+        }
+
+        return runs;
+    }
+
+    /**
+     * Builds the dawg of a run, merging its nodes with the nodes of the
+     * other runs as they are minimized.
+     *
+     * @param   run         the words of the run
+     * @param   register    the nodes minimized so far by all the threads
+     * @return              the first letter nodes of the dawg of the run
+     */
+    private static List<TrieNode> buildRun (Run run,
+            ConcurrentHashMap<DawgBuilder.NodeSignature, TrieNode> register) {
+
+        DawgBuilder dawgBuilder = new DawgBuilder(26, register);
+        run.insertInto(dawgBuilder);
+        return dawgBuilder.finish().children;
+    }
+
+    /**
+     * @param   node        a node whose children are all in the register
+     * @param   register    the nodes minimized by all the threads
+     * @return              the node in the register that is equivalent to
+     *                      the node, which is node itself if it is the first
+     *                      of its kind
+     */
+    private static TrieNode register (TrieNode node,
+            ConcurrentHashMap<DawgBuilder.NodeSignature, TrieNode> register) {
+
+        TrieNode equivalentNode = register.putIfAbsent
+                (new DawgBuilder.NodeSignature(node), node);
+
+        return (equivalentNode != null) ? equivalentNode : node;
+    }
+
+    /**
+     * Puts the first letter nodes of the runs under a single root. Runs that
+     * start with the same letter have their first letter nodes joined into
+     * one node, whose children come from different runs and never share a
+     * letter.
+     *
+     * @param   firstNodes  the first letter nodes in alphabetical order
+     * @param   register    the nodes minimized by all the threads
+     * @return              a TrieNode that is the root of the dawg
+     */
+    private static TrieNode joinRuns (List<TrieNode> firstNodes,
+            ConcurrentHashMap<DawgBuilder.NodeSignature, TrieNode> register) {
+
+        TrieNode root = new TrieNode();
+        root.letter = '*';
+        root.isTerminalNode = false;
+
+        int i = 0;
+
+        while (i < firstNodes.size()) {
+            TrieNode firstNode = firstNodes.get(i);
+            int end = i + 1;
+
+            while (end < firstNodes.size() &&
+                    firstNodes.get(end).letter == firstNode.letter) {
+                end++;
+            }
+
+            // The nodes of the runs are in the register and may be shared,
+            // so they are joined into a new node instead of being changed
+            if (end - i > 1) {
+                TrieNode joinedNode = new TrieNode();
+                joinedNode.letter = firstNode.letter;
+                joinedNode.isTerminalNode = false;
+
+                for (int j = i; j < end; j++) {
+                    joinedNode.isTerminalNode |= firstNodes.get(j).isTerminalNode;
+
+                    for (TrieNode child : firstNodes.get(j).children) {
+                        addChild(joinedNode, child);
+                    }
+                }
+
+                firstNode = register(joinedNode, register);
+            }
+
+            addChild(root, firstNode);
+            i = end;
+        }
+
+        return root;
+    }
+
+    /**
+     * @param   parent  the node that the child is added to
+     * @param   child   a node whose letter comes after the letters of the
+     *                  other children of parent
+     */
+    private static void addChild (TrieNode parent, TrieNode child) {
+
+        int letterIndex = child.letter - 'A';
+
+        parent.children.add(child);
+        parent.letterIndexes[letterIndex] = parent.children.size() - 1;
+        parent.childMask |= 1 << letterIndex;
+    }
+}
@@ -0,0 +1,264 @@
+/*
+ * ParallelMoveGenerator.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Finds the best move on several threads by splitting the search
+ *          into one task for each line of the board in each direction, which
+ *          are run by a ForkJoinPool. Each thread searches with its own
+ *          MoveGenerator and each task with its own copy of the rack.
+ *
+ *          The best moves of the tasks are compared by points, and ties are
+ *          broken in the order in which a single MoveGenerator would have
+ *          found them, so the same move is found no matter how the tasks
+ *          are scheduled. With a leaveTable, they are compared by equity
+ *          first, as by MoveGenerator.findBestEquityMove().
+ *
+ *          ForkJoinPool is only available from Android 5.0 (API level 21).
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class ParallelMoveGenerator {
+
+    private final ScrabbleEngine engine;
+    private final ForkJoinPool pool;
+
+    // The MoveGenerator and the visitor ranking moves by equity used by each
+    // thread of the pool
+    private final ThreadLocal<MoveGenerator> generators;
+    private final ThreadLocal<BestMoveVisitor> equityVisitors;
+
+    // If true, each MoveGenerator skips the moves that cannot beat the best
+    // move found so far by any task
+    public boolean usePruning;
+
+    // The values of the leaves used to rank moves by equity, or null to rank
+    // them by points
+    public LeaveTable leaveTable;
+
+    // Constructor function with one thread per processor
+    public ParallelMoveGenerator (ScrabbleEngine engine) {
+        this(engine, Runtime.getRuntime().availableProcessors());
+    }
+
+    // Constructor function for a given number of threads
+    public ParallelMoveGenerator (final ScrabbleEngine engine, int parallelism) {
+        this.engine = engine;
+        this.pool = new ForkJoinPool(parallelism);
+        this.generators = new ThreadLocal<MoveGenerator>() {
+            @Override
+            protected MoveGenerator initialValue () {
+                return new MoveGenerator(engine);
+            }
+        };
+        this.equityVisitors = new ThreadLocal<BestMoveVisitor>() {
+            @Override
+            protected BestMoveVisitor initialValue () {
+                return new BestMoveVisitor(true);
+            }
+        };
+    }
+
+    /**
+     * @return  the number of threads used by the search
+     */
+    public int getParallelism () {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Find the highest scoring possible move and the points obtained based on
+     * board and rack. Returns the same move as MoveGenerator.findBestMove(),
+     * or as MoveGenerator.findBestEquityMove() if there is a leaveTable.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile
+     * @return          the highest scoring move, or the move with the
+     *                  highest equity if there is a leaveTable
+     */
+    public ScrabbleMove findBestMove (PackedBoard board, int[] rack) {
+        return findBestMove(board, rack, null);
+    }
+
+    /**
+     * Same as findBestMove(), but every thread stops searching once the
+     * handle is cancelled or past its deadline, returning the best move
+     * found by then. The best move of each line is reported to the handle
+     * once the line is searched.
+     *
+     * @param   board           stores the state of the Scrabble board
+     * @param   rack            stores the number of each possible tile
+     * @param   searchHandle    stops the search, or null to search every move
+     * @return                  the highest scoring move found
+     */
+    public ScrabbleMove findBestMove (PackedBoard board, int[] rack,
+                                      SearchHandle searchHandle) {
+
+        // The starting move is only found across
+        int numLines = engine.numBoardRows;
+        int numTasks = board.isEmpty() ? numLines : 2 * numLines;
+
+        // Moves of any equity are kept, including those with a negative one
+        int minValue = (leaveTable == null) ? 0 : Integer.MIN_VALUE;
+        LineResult bestResult = pool.invoke(new LineTask(board, rack, 0,
+                numTasks, new AtomicInteger(minValue), searchHandle));
+
+        return (bestResult == null) ? new ScrabbleMove() : bestResult.move;
+    }
+
+    /**
+     * Stops the threads of the pool once the searches that were started
+     * have finished.
+     */
+    public void shutdown () {
+        pool.shutdown();
+    }
+
+    // The best move found on one line of the board
+    private static class LineResult {
+
+        final int step;
+        final int line;
+        final ScrabbleMove move;
+
+        // The equity of the move, or 0 when ranking moves by points
+        final float equity;
+
+        LineResult (int step, int line, ScrabbleMove move, float equity) {
+            this.step = step;
+            this.line = line;
+            this.move = move;
+            this.equity = equity;
+        }
+
+        /**
+         * @param   other   the best move found on another line
+         * @return          true if this move is chosen over the other move
+         */
+        boolean isBetterThan (LineResult other) {
+
+            if (equity != other.equity) {
+                return equity > other.equity;
+            }
+
+            return MoveGenerator.isBetterLineMove(move.points, step, line,
+                    other.move.points, other.step, other.line);
+        }
+    }
+
+    // Searches the tasks from firstTask up to but not including lastTask,
+    // where task i stands for line i % numBoardRows + 1 across for the
+    // first numBoardRows tasks and down for the rest
+    private class LineTask extends RecursiveTask<LineResult> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final PackedBoard board;
+        private final int[] rack;
+        private final int firstTask;
+        private final int lastTask;
+
+        // The points of the best move found so far by any task, or its
+        // equity rounded down when ranking moves by equity
+        private final AtomicInteger bestValue;
+
+        private final SearchHandle searchHandle;
+
+        LineTask (PackedBoard board, int[] rack, int firstTask, int lastTask,
+                  AtomicInteger bestValue, SearchHandle searchHandle) {
+            this.board = board;
+            this.rack = rack;
+            this.firstTask = firstTask;
+            this.lastTask = lastTask;
+            this.bestValue = bestValue;
+            this.searchHandle = searchHandle;
+        }
+
+        @Override
+        protected LineResult compute () {
+
+            if (lastTask - firstTask > 1) {
+                // Split the tasks in half, searching one half on this thread
+                // while the other half may be stolen by another thread
+                int midTask = (firstTask + lastTask) / 2;
+                LineTask firstHalf = new LineTask(board, rack, firstTask,
+                        midTask, bestValue, searchHandle);
+                LineTask secondHalf = new LineTask(board, rack, midTask,
+                        lastTask, bestValue, searchHandle);
+
+                firstHalf.fork();
+                LineResult secondResult = secondHalf.compute();
+                LineResult firstResult = firstHalf.join();
+
+                if (firstResult == null) {
+                    return secondResult;
+                }
+                else if (secondResult == null ||
+                        firstResult.isBetterThan(secondResult)) {
+                    return firstResult;
+                }
+                else {
+                    return secondResult;
+                }
+            }
+
+            int numLines = engine.numBoardRows;
+            int step = (firstTask < numLines) ? PackedBoard.ACROSS : PackedBoard.DOWN;
+            int line = firstTask % numLines + 1;
+
+            // Moves worth less than a move on another line are not needed
+            MoveGenerator generator = generators.get();
+            generator.usePruning = usePruning;
+            generator.leaveTable = leaveTable;
+            generator.searchHandle = searchHandle;
+            LineResult result;
+            int value;
+
+            if (leaveTable == null) {
+                value = generator.search(board, rack.clone(), step, line, line,
+                        bestValue.get());
+                result = (value == 0) ? null :
+                        new LineResult(step, line, generator.getBestMove(), 0);
+            }
+            else {
+                BestMoveVisitor visitor = equityVisitors.get();
+                visitor.reset(0, bestValue.get());
+                generator.search(board, rack.clone(), step, line, line, visitor);
+                value = (int) Math.floor(visitor.getEquity());
+                result = (visitor.getPoints() == 0) ? null : new LineResult
+                        (step, line, visitor.getBestMove(), visitor.getEquity());
+            }
+
+            generator.searchHandle = null;
+
+            if (result == null) {
+                return null;
+            }
+
+            // Raise the best value of all the tasks if this move beats them
+            int oldValue = bestValue.get();
+
+            while (value > oldValue && !bestValue.compareAndSet(oldValue, value)) {
+                oldValue = bestValue.get();
+            }
+
+            if (searchHandle != null) {
+                searchHandle.reportBetterMove(result.move, (leaveTable == null)
+                        ? result.move.points : result.equity);
+            }
+
+            return result;
+        }
+    }
+}
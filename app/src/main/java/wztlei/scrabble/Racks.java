@@ -0,0 +1,79 @@
+/*
+ * Racks.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Draws tiles from a bag into a rack and removes the tiles of a move
+ *          from a rack, for the games played out by MoveSimulator and
+ *          SelfPlayRunner. A bag and a rack both store the number of each of
+ *          the 27 types of tiles, where index 26 stands for blank tiles.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.Random;
+
+/**
+ *
+ * @author  William Lei
+ */
+final class Racks {
+
+    // Not instantiable
+    private Racks () {}
+
+    /**
+     * Fills up a rack with tiles drawn at random from the bag.
+     *
+     * @param   bag             the number of each tile left in the bag
+     * @param   rack            the rack to be filled up
+     * @param   numRackTiles    the number of tiles in a full rack
+     * @param   random          draws the tiles
+     */
+    static void drawTiles (int[] bag, int[] rack, int numRackTiles,
+                           Random random) {
+
+        int bagSize = 0;
+        int rackSize = 0;
+
+        for (int i = 0; i < 27; i++) {
+            bagSize += bag[i];
+            rackSize += rack[i];
+        }
+
+        while (rackSize < numRackTiles && bagSize > 0) {
+            int draw = random.nextInt(bagSize);
+            int tile = 0;
+
+            while (draw >= bag[tile]) {
+                draw -= bag[tile];
+                tile++;
+            }
+
+            bag[tile]--;
+            rack[tile]++;
+            bagSize--;
+            rackSize++;
+        }
+    }
+
+    /**
+     * @param   move    the tiles to be removed
+     * @param   rack    stores the number of each possible tile
+     */
+    static void removeTiles (ScrabbleMove move, int[] rack) {
+
+        for (int i = 0; i < move.size(); i++) {
+            char letter = move.get(i).letter;
+
+            if (Character.isUpperCase(letter)) {
+                rack[letter - 'A']--;
+            }
+            else {
+                rack[26]--;
+            }
+        }
+    }
+}
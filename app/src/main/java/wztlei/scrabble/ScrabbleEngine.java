@@ -5,9 +5,10 @@
  *
  * Purpose: I created this project for the IB English Scrabble tournament.
  *          It uses a variant of Appel and Jacobson's algorithm to create a
- *          computer program that can play scrabble. The algorithm is
- *          simplified since it uses a trie rather than a dawg. This Java
- *          program was translated from its original version in C++.
+ *          computer program that can play scrabble. The words are stored
+ *          in a minimized dawg which is packed into a FlatLexicon for the
+ *          search. This Java program was translated from its original
+ *          version in C++.
  *
  * References: https://pdfs.semanticscholar.org/da31/
  *                  cb24574f7c881a5dbf008e52aac7048c9d9c.pdf
@@ -20,14 +21,13 @@
 
 package wztlei.scrabble;
 
-import android.content.Context;
-import android.view.View;
-
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Scanner;
 
@@ -39,14 +39,24 @@ import java.util.Scanner;
 public class ScrabbleEngine {
 
     // Define properties of the ScrabbleProgram class
+    // words is only set if the engine was created from a HashMap, and
+    // trieRoot is null if the engine was created from a lexicon
     public HashMap <String, Integer> words;
     public TrieNode trieRoot;
+    public FlatLexicon lexicon;
     public Tile[] tiles;
 
+    // The points of each letter indexed by its ASCII character, which are 0
+    // for lowercase letters (blank tiles) and PackedBoard.EMPTY
+    final int[] tilePoints;
+
     final int numBoardRows;
     final int numBoardCols;
     final int numRackTiles;
 
+    // The number of calls to extendRight() since the counter was last reset
+    public long numNodesVisited;
+
     // Constructor function for the main class
     public ScrabbleEngine (HashMap <String, Integer> words, Tile[] tiles) {
 
@@ -56,8 +66,56 @@ public class ScrabbleEngine {
 
         // Get the data for the tiles and words
         this.words = words;
-        this.trieRoot = createWordTrie();
+        this.trieRoot = createWordDawg();
+        this.lexicon = FlatLexicon.fromTrie(trieRoot);
+        this.tiles = tiles;
+        this.tilePoints = calcTilePoints(tiles);
+    }
+
+    // Constructor function for a dawg that has already been built, such as
+    // one read by WordListReader
+    public ScrabbleEngine (TrieNode dawgRoot, Tile[] tiles) {
+
+        numBoardRows = 15;
+        numBoardCols = 15;
+        numRackTiles = 7;
+
+        this.words = null;
+        this.trieRoot = dawgRoot;
+        this.lexicon = FlatLexicon.fromTrie(dawgRoot);
         this.tiles = tiles;
+        this.tilePoints = calcTilePoints(tiles);
+    }
+
+    // Constructor function for a lexicon that has already been built,
+    // such as one loaded from a binary lexicon file
+    public ScrabbleEngine (FlatLexicon lexicon, Tile[] tiles) {
+
+        numBoardRows = 15;
+        numBoardCols = 15;
+        numRackTiles = 7;
+
+        this.words = null;
+        this.trieRoot = null;
+        this.lexicon = lexicon;
+        this.tiles = tiles;
+        this.tilePoints = calcTilePoints(tiles);
+    }
+
+    /**
+     * @param   tiles   the data for the 27 types of tiles
+     * @return          the points of each letter indexed by its ASCII
+     *                  character
+     */
+    private static int[] calcTilePoints (Tile[] tiles) {
+
+        int[] tilePoints = new int[128];
+
+        for (int i = 0; i < 26; i++) {
+            tilePoints['A' + i] = tiles[i].points;
+        }
+
+        return tilePoints;
     }
 
 
@@ -72,7 +130,7 @@ public class ScrabbleEngine {
         // Add every word in the words HashMap
         for (String word : words.keySet()) {
 
-            if (word.length() >= 2 && word.matches("[A-Z]+")) {
+            if (WordListReader.isWord(word)) {
                 insertIntoTrie(root, word);
             }
         }
@@ -80,6 +138,54 @@ public class ScrabbleEngine {
         return root;
     }
 
+    /**
+     * Builds a minimized dawg containing the same words as createWordTrie().
+     * Suffixes shared between words are only stored once, so the dawg uses a
+     * fraction of the nodes of the trie while extendRight() can search it
+     * exactly the same way.
+     *
+     * @return  a TrieNode that is the root of the dawg
+     */
+    public TrieNode createWordDawg () {
+
+        // The dawg must be built from words in alphabetical order
+        ArrayList<String> sortedWords = new ArrayList<>(words.keySet());
+        Collections.sort(sortedWords);
+
+        DawgBuilder dawgBuilder = new DawgBuilder();
+
+        for (String word : sortedWords) {
+
+            if (WordListReader.isWord(word)) {
+                dawgBuilder.insert(word);
+            }
+        }
+
+        return dawgBuilder.finish();
+    }
+
+    /**
+     * Builds the same dawg as createWordDawg() on several threads.
+     *
+     * @param   numThreads  the number of threads to build the dawg on
+     * @return              a TrieNode that is the root of the dawg
+     * @throws  InterruptedException    if the thread was interrupted while
+     *                                  waiting for the other threads
+     */
+    public TrieNode createWordDawg (int numThreads) throws InterruptedException {
+
+        ArrayList<String> sortedWords = new ArrayList<>();
+
+        for (String word : words.keySet()) {
+            if (WordListReader.isWord(word)) {
+                sortedWords.add(word);
+            }
+        }
+
+        Collections.sort(sortedWords);
+        return ParallelDawgBuilder.build(sortedWords, numThreads);
+    }
+
     /**
      * Inserts TrieNodes into the trie to store the word in the data structure.
      *
@@ -116,6 +222,9 @@ public class ScrabbleEngine {
                 // since the node was just added
                 currNode.letterIndexes[letterIndex] =
                         currNode.children.size() - 1;
+
+                // Add the letter to the letters of the children
+                currNode.childMask |= 1 << letterIndex;
             }
 
             // Go to the child of currNode that contains the letter in the word
@@ -155,13 +264,128 @@ public class ScrabbleEngine {
 
     /**
      * Updates the downCrossCheck property of each square in the board
-     * Ex. board[row][col].downCrossCheck[3] == true indicates that the
-     *     letter 'D' (since 'D' - 'A' == 3) can be placed at board[row][col]
+     * Ex. (board[row][col].downCrossCheck & (1 << 3)) != 0 indicates that
+     *     the letter 'D' (since 'D' - 'A' == 3) can be placed at
+     *     board[row][col]
      *
      * @param   board   a SquareGrid containing the data for the state of the
      *                  game
      */
     public void updateDownCrossChecks (Square[][] board) {
+        // Go through all the squares in the board where tiles can be placed
+        for (int row = 1; row <= numBoardRows; row++) {
+            for (int col = 1; col <= numBoardCols; col++) {
+
+                // Only check squares on which tiles can be placed
+                if (board[row][col].letter == '.') {
+                    updateDownCrossCheck(board, row, col);
+                }
+            }
+        }
+    }
+
+    /**
+     * Updates the downCrossCheck and downCrossScore properties of an empty
+     * square.
+     *
+     * @param   board   a SquareGrid containing the data for the state of the
+     *                  game
+     * @param   row     the row of an empty square
+     * @param   col     the column of an empty square
+     */
+    public void updateDownCrossCheck (Square[][] board, int row, int col) {
+
+        board[row][col].downCrossCheck = calcDownCrossCheck(board, row, col);
+
+        // Add up the points of the tiles above and below the square
+        // No down word is formed if there are none
+        if (board[row-1][col].letter == '.' && board[row+1][col].letter == '.') {
+            board[row][col].downCrossScore = -1;
+        }
+        else {
+            board[row][col].downCrossScore = calcColCrossPts(board, row, col);
+        }
+    }
+
+    /**
+     * Finds the letters that can be placed on an empty square without
+     * forming an invalid down word. Instead of looking up 26 Strings, it
+     * walks the lexicon along the letters above the square once, and then
+     * only follows the children of that node along the letters below the
+     * square. No objects are created.
+     *
+     * @param   board   a SquareGrid containing the data for the state of the
+     *                  game
+     * @param   row     the row of an empty square
+     * @param   col     the column of an empty square
+     * @return          the downCrossCheck mask of the square
+     */
+    public int calcDownCrossCheck (Square[][] board, int row, int col) {
+
+        // Find the top of the letters above the square
+        int topRow = row;
+
+        while (board[topRow-1][col].letter != '.') {
+            topRow--;
+        }
+
+        // Any letter can be placed if there are blank squares
+        // above and below
+        if (topRow == row && board[row+1][col].letter == '.') {
+            return Square.ALL_LETTERS;
+        }
+
+        // Walk the lexicon along the letters above the square
+        int node = lexicon.root();
+
+        for (int checkRow = topRow; checkRow < row; checkRow++) {
+            node = lexicon.child(node,
+                    Character.toUpperCase(board[checkRow][col].letter) - 'A');
+
+            // No word starts with the letters above the square
+            if (node == FlatLexicon.NO_CHILD) {
+                return 0;
+            }
+        }
+
+        int crossCheck = 0;
+        int childMask = lexicon.childMask(node);
+        int letters = childMask;
+
+        // Try every letter that can follow the letters above the square
+        while (letters != 0) {
+            int letterIndex = Integer.numberOfTrailingZeros(letters);
+            letters &= letters - 1;
+
+            int child = lexicon.childInMask(node, childMask, letterIndex);
+            int checkRow = row + 1;
+
+            // Walk the lexicon along the letters below the square
+            while (child != FlatLexicon.NO_CHILD &&
+                    board[checkRow][col].letter != '.') {
+                child = lexicon.child(child,
+                        Character.toUpperCase(board[checkRow][col].letter) - 'A');
+                checkRow++;
+            }
+
+            // The letter forms a word with the letters above and below
+            if (child != FlatLexicon.NO_CHILD && FlatLexicon.isTerminal(child)) {
+                crossCheck |= 1 << letterIndex;
+            }
+        }
+
+        return crossCheck;
+    }
+
+    /**
+     * Same as updateDownCrossChecks(), but builds the 26 possible down words
+     * of each square as Strings and looks each of them up in the lexicon.
+     * It is slower, but is kept to check and to benchmark the faster version.
+     *
+     * @param   board   a SquareGrid containing the data for the state of the
+     *                  game
+     */
+    public void updateDownCrossChecksByLookup (Square[][] board) {
         // Go through all the squares in the board where tiles can be placed
         for (int row = 1; row <= numBoardRows; row++) {
             for (int col = 1; col <= numBoardCols; col++) {
@@ -192,13 +416,14 @@ public class ScrabbleEngine {
                         checkRow++;
                     }
 
-                    // No need to update if there are blank squares
+                    // Any letter can be placed if there are blank squares
                     // above and below
                     if (aboveSquare.equals("") && belowSquare.equals("")) {
+                        board[row][col].downCrossCheck = Square.ALL_LETTERS;
                         continue;
                     }
 
-                    board[row][col].downCrossCheck = new boolean[27];
+                    board[row][col].downCrossCheck = 0;
 
                     // Go through all 26 of the letters that could possibly
                     // occupy board[row][col]
@@ -206,11 +431,14 @@ public class ScrabbleEngine {
                          testLetter++) {
                         String testWord = aboveSquare + (char)(testLetter)
                                 + belowSquare;
-                            // Find in the words HashTable
-                            // If it is found, then make that letter true
-                            // (or valid) in the downCrossCheck property
-                            board[row][col].downCrossCheck
-                                    [testLetter - 'A'] = words.containsKey(testWord);
+
+                        // Find in the lexicon
+                        // If it is found, then set the bit of that letter
+                        // in the downCrossCheck property
+                        if (lexicon.contains(testWord)) {
+                            board[row][col].downCrossCheck |=
+                                    1 << (testLetter - 'A');
+                        }
                     }
                 }
             }
@@ -234,45 +462,58 @@ public class ScrabbleEngine {
 
         // Go through all the rows
         for (int row = 1; row <= numBoardRows; row++) {
-            // Set the minimum word length as -1 to signify
-            // squares rightward of any adjacent square
-            // These squares cannot be used as the leftmost square from which
-            // to extend rightwards
-            int minWordLength = -1;
-
-            // Go through all the squares in the row from right to left
-            for (int col = numBoardCols; col >= 1; col--) {
-                // If the square to its immediate left is occupied with a
-                // letter, then the square at board[row][col] cannot be the
-                // left-most square. Thus, minAcrossWordLength == -1
-                if (board[row][col-1].letter != '.') {
-                    board[row][col].minAcrossWordLength = -1;
-                }
-                // Check to see if there are tiles above, below,
-                // right, or on the square
-                // If so, then set the minAcrossWordLength to 1
-                else if (board[row-1][col].letter != '.' ||
-                        board[row+1][col].letter != '.' ||
-                        board[row][col+1].letter != '.' ||
-                        board[row][col].letter   != '.' ) {
-                    board[row][col].minAcrossWordLength = 1;
-                    minWordLength = 1;
-                }
-                // For squares on the extreme right which cannot be used to
-                // build a word since there are no squares to the right from
-                // which tiles can be added.
-                // Ie. Extending right from this square will always create a
-                // word that is separated from the rest of the words already
-                // on the board.
-                else if (minWordLength == -1) {
-                    board[row][col].minAcrossWordLength = -1;
-                }
-                // These squares are not adjacent to any square, but extending
-                // right will eventually reach a square
-                else {
-                    minWordLength++;
-                    board[row][col].minAcrossWordLength = minWordLength;
-                }
+            updateMinAcrossWordLength(board, row);
+        }
+    }
+
+    /**
+     * Updates the minAcrossWordLength property of every square in one row.
+     * It only depends on the tiles in that row and the rows above and below.
+     *
+     * @param   board   a SquareGrid containing the data for the state of the
+     *                  game
+     * @param   row     the row to be updated
+     */
+    public void updateMinAcrossWordLength (Square[][] board, int row) {
+
+        // Set the minimum word length as -1 to signify
+        // squares rightward of any adjacent square
+        // These squares cannot be used as the leftmost square from which
+        // to extend rightwards
+        int minWordLength = -1;
+
+        // Go through all the squares in the row from right to left
+        for (int col = numBoardCols; col >= 1; col--) {
+            // If the square to its immediate left is occupied with a
+            // letter, then the square at board[row][col] cannot be the
+            // left-most square. Thus, minAcrossWordLength == -1
+            if (board[row][col-1].letter != '.') {
+                board[row][col].minAcrossWordLength = -1;
+            }
+            // Check to see if there are tiles above, below,
+            // right, or on the square
+            // If so, then set the minAcrossWordLength to 1
+            else if (board[row-1][col].letter != '.' ||
+                    board[row+1][col].letter != '.' ||
+                    board[row][col+1].letter != '.' ||
+                    board[row][col].letter   != '.' ) {
+                board[row][col].minAcrossWordLength = 1;
+                minWordLength = 1;
+            }
+            // For squares on the extreme right which cannot be used to
+            // build a word since there are no squares to the right from
+            // which tiles can be added.
+            // Ie. Extending right from this square will always create a
+            // word that is separated from the rest of the words already
+            // on the board.
+            else if (minWordLength == -1) {
+                board[row][col].minAcrossWordLength = -1;
+            }
+            // These squares are not adjacent to any square, but extending
+            // right will eventually reach a square
+            else {
+                minWordLength++;
+                board[row][col].minAcrossWordLength = minWordLength;
             }
         }
     }
@@ -386,14 +627,45 @@ public class ScrabbleEngine {
             // pre-existing words AND it is possible to connect to pre-existing
             // words to the right of the square
             if (minWordLength <= numRackTiles && minWordLength != -1) {
-                extendRight(board, rack, trieRoot, sqr,
-                        minWordLength, currMove, bestMove);
+                extendRight(board, rack, calcRackMask(rack), lexicon.root(),
+                        sqr, minWordLength, currMove, bestMove);
             }
         }
 
+        // Restore the middle row, since boards are only updated around the
+        // squares that change from now on
+        updateMinAcrossWordLength(board, midRow);
+
         return bestMove;
     }
 
+    /**
+     * Same as findBestMove(), but finds the down moves on the inverted board
+     * kept by the DualBoard instead of inverting the board.
+     *
+     * @param   board   stores the state of the Scrabble board in both
+     *                  orientations
+     * @param   rack    stores the number of each possible tile
+     * @return          the highest scoring move
+     */
+    ScrabbleMove findBestMove (DualBoard board, int[] rack) {
+
+        // The starting move is only found across
+        if (board.isEmpty()) {
+            return findBestMove(board.across, rack);
+        }
+
+        ScrabbleMove bestAcrossMove = findBestAcrossMove(board.across, rack);
+        ScrabbleMove bestDownMove = findBestDownMove(board, rack);
+
+        if (bestAcrossMove.points > bestDownMove.points) {
+            return bestAcrossMove;
+        }
+        else {
+            return bestDownMove;
+        }
+    }
+
     /**
      * Returns a vector of Squares that is the move that scores the most possible
      * points by placing tiles horizontally for a given Scrabble board and a rack.
@@ -422,8 +694,9 @@ public class ScrabbleEngine {
                 // pre-existing words AND it is possible to connect to pre-existing
                 // words to the right of the square
                 if (minWordLength <= numRackTiles && minWordLength != -1) {
-                    extendRight(board, rack, trieRoot, sqr,
-                            minWordLength, currMove, bestMove);
+                    extendRight(board, rack, calcRackMask(rack),
+                            lexicon.root(), sqr, minWordLength,
+                            currMove, bestMove);
                 }
             }
         }
@@ -450,15 +723,162 @@ public class ScrabbleEngine {
         return invertMove(bestDownMove);
     }
 
+    /**
+     * Same as findBestDownMove(), but reads the inverted board kept by the
+     * DualBoard instead of creating one.
+     *
+     * @param   board   stores the state of the Scrabble board in both
+     *                  orientations
+     * @param   rack    stores the number of each possible tile
+     * @return          a vector of Squares storing the highest scoring move
+     *                  involving tiles placed vertically
+     */
+    ScrabbleMove findBestDownMove (DualBoard board, int[] rack) {
+        ScrabbleMove bestDownMove = findBestAcrossMove(board.down, rack);
+        return invertMove(bestDownMove);
+    }
+
+    /**
+     * Same as findBestMove(), but searches a PackedBoard. Down moves are
+     * found by stepping down the board instead of inverting it.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile
+     * @return          the highest scoring move
+     */
+    ScrabbleMove findBestMove (PackedBoard board, int[] rack) {
+
+        ScrabbleMove bestAcrossMove = findBestMove(board, rack,
+                PackedBoard.ACROSS);
+
+        // The starting move is only found across
+        if (packedBoardIsEmpty(board)) {
+            return bestAcrossMove;
+        }
+
+        ScrabbleMove bestDownMove = findBestMove(board, rack, PackedBoard.DOWN);
+
+        if (bestAcrossMove.points > bestDownMove.points) {
+            return bestAcrossMove;
+        }
+        else {
+            return bestDownMove;
+        }
+    }
+
+    /**
+     * Returns the move that scores the most possible points by placing tiles
+     * in one direction on a PackedBoard.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   rack    stores the number of each possible tile
+     * @param   step    PackedBoard.ACROSS or PackedBoard.DOWN
+     * @return          the highest scoring move in that direction
+     */
+    ScrabbleMove findBestMove (PackedBoard board, int[] rack, int step) {
+
+        ScrabbleMove bestMove = new ScrabbleMove();
+        ScrabbleMove currMove = new ScrabbleMove();
+        int[] crossChecks = board.crossChecks(step);
+        byte[] minLengths = board.minLengths(step);
+        int rackMask = calcRackMask(rack);
+
+        // On an empty board, the first word must cover the center square
+        // and place at least 2 tiles, so it is started from the squares
+        // left of and including the center square
+        if (packedBoardIsEmpty(board)) {
+            int midRow = numBoardRows/2 + 1;
+            int midCol = numBoardCols/2 + 1;
+
+            for (int col = 1; col <= midCol; col++) {
+                int minWordLength = Math.max(midCol - col + 1, 2);
+
+                if (minWordLength <= numRackTiles) {
+                    extendRight(board, step, crossChecks, rack, rackMask,
+                            lexicon.root(), PackedBoard.index(midRow, col),
+                            minWordLength, currMove, bestMove);
+                }
+            }
+
+            return bestMove;
+        }
+
+        // Go through all the squares in the board
+        // The rows and columns are swapped for down moves so that the
+        // squares are started from in the same order as findBestDownMove()
+        for (int line = 1; line <= numBoardRows; line++) {
+            for (int pos = 1; pos <= numBoardCols; pos++) {
+
+                int square = (step == PackedBoard.ACROSS) ?
+                        PackedBoard.index(line, pos) :
+                        PackedBoard.index(pos, line);
+                int minWordLength = minLengths[square];
+
+                // Only call extendRight when necessary
+                if (minWordLength <= numRackTiles && minWordLength != -1) {
+                    extendRight(board, step, crossChecks, rack, rackMask,
+                            lexicon.root(), square, minWordLength,
+                            currMove, bestMove);
+                }
+            }
+        }
+
+        return bestMove;
+    }
+
+    /**
+     * @param   board   stores the state of the Scrabble board
+     * @return          true if there are no tiles on the board
+     */
+    private boolean packedBoardIsEmpty (PackedBoard board) {
+
+        for (int row = 1; row <= numBoardRows; row++) {
+            for (int col = 1; col <= numBoardCols; col++) {
+                if (board.letters[PackedBoard.index(row, col)] !=
+                        PackedBoard.EMPTY) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the letters that can be placed from a rack as bits.
+     *
+     * @param   rack    an Array of 27 integers storing the number of each tile
+     * @return          a mask where bit i is set if the letter 'A' + i can be
+     *                  placed, which is every letter if there is a blank tile
+     */
+    int calcRackMask (int[] rack) {
+
+        if (rack[26] > 0) {
+            return Square.ALL_LETTERS;
+        }
+
+        int rackMask = 0;
+
+        for (int i = 0; i < 26; i++) {
+            if (rack[i] > 0) {
+                rackMask |= 1 << i;
+            }
+        }
+
+        return rackMask;
+    }
+
     /**
      * Finds the best move by extending rightwards from a given square
      *
      * @param   board           Array storing the state of the board
      * @param   rack            an Array of integers storing the number of
      *                          each type of tile
-     * @param   node            the node in the trie storing the last
-     *                          letter added to the word being built and
-     *                          the next possible letters
+     * @param   rackMask        the letters that can be placed from the rack
+     *                          as bits, as returned by calcRackMask()
+     * @param   node            the handle of the node in the lexicon storing
+     *                          the last letter added to the word being
+     *                          built and the next possible letters
      * @param   currSquare      the square on which a new tile may be placed
      *                          for the current move
      * @param   minWordLength   the minimum word length of the word to be
@@ -469,21 +889,21 @@ public class ScrabbleEngine {
      * @param   bestMove        the best possible move thus far represented
      *                          by a Array of squares
      */
-    public void extendRight (Square[][] board, int[] rack, TrieNode node,
-                             Square currSquare, int minWordLength,
+    public void extendRight (Square[][] board, int[] rack, int rackMask,
+                             int node, Square currSquare, int minWordLength,
                              ScrabbleMove currMove, ScrabbleMove bestMove) {
 
         Square sqr = board[currSquare.row][currSquare.col];
+        numNodesVisited++;
 
-        // If the square is empty then simply do nothing
-        if (sqr.type == SquareType.OUTSIDE) {
-        }
-        // If the current square is empty
-        else if (sqr.letter == '.')
+        // If the current square is empty or outside the board
+        // (outside squares are always empty)
+        if (sqr.letter == '.')
         {
             // Determine if a legal move has been found ie. a word is created and
             // the word is long enough so that it can connect with pre-existing tiles
-            if (node.isTerminalNode && currMove.size() >= minWordLength) {
+            if (FlatLexicon.isTerminal(node) &&
+                    currMove.size() >= minWordLength) {
 
                 calcAcrossPts(board, currMove);
 
@@ -494,28 +914,46 @@ public class ScrabbleEngine {
                 }
             }
 
-            // Go through all the children of the node
-            for (int i = 0; i < node.children.size(); i++) {
+            // A word that reaches the edge of the board cannot be extended
+            if (sqr.type == SquareType.OUTSIDE) {
+                return;
+            }
 
-                char childLetter = node.children.get(i).letter ;
-                int childLetterIndex = childLetter - 'A';
+            // Only letters that are children of the node AND can be placed
+            // from our rack AND are in the downCrossCheck set of the square
+            // need to be tried
+            int childMask = lexicon.childMask(node);
+            int candidates = childMask & rackMask & sqr.downCrossCheck;
+            Square nextSquare = board[sqr.row][sqr.col+1];
 
-                // Check to see if the letter of the child is in our rack AND
-                // it is in the downCrossCheck set of the square
-                if (rack[childLetterIndex] > 0 &&
-                        sqr.downCrossCheck[childLetterIndex]) {
+            // Go through the letters one set bit at a time
+            while (candidates != 0) {
+
+                int childLetterIndex = Integer.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+
+                int child = lexicon.childInMask(node, childMask, childLetterIndex);
+                char childLetter = (char) ('A' + childLetterIndex);
+
+                // Check to see if the letter of the child is in our rack
+                if (rack[childLetterIndex] > 0) {
 
                     // Remove the tile from the rack
                     rack[childLetterIndex]--;
 
+                    // The letter can no longer be placed if that was the
+                    // last one and there are no blank tiles
+                    int nextRackMask = rackMask;
+
+                    if (rack[childLetterIndex] == 0 && rack[26] == 0) {
+                        nextRackMask &= ~(1 << childLetterIndex);
+                    }
+
                     // Add the square onto the current move
                     addSqrToMove(sqr.row, sqr.col, childLetter, currMove);
 
-                    // Move rightwards to the next square
-                    Square nextSquare = board[sqr.row][sqr.col+1];
-
                     // Recursively call itself to continued extending right
-                    extendRight(board, rack, node.children.get(i), nextSquare,
+                    extendRight(board, rack, nextRackMask, child, nextSquare,
                             minWordLength, currMove, bestMove);
 
                     // Remove the square from the current move
@@ -524,21 +962,26 @@ public class ScrabbleEngine {
                     // Place tile back in the rack
                     rack[childLetterIndex]++;
                 }
-                // Otherwise try using a blank tile
-                else if (rack[26] > 0 && sqr.downCrossCheck[childLetterIndex]) {
+                // Otherwise use a blank tile
+                else {
                     // Remove the tile from the rack
                     rack[26]--;
 
+                    // Only the regular tiles can be placed if that was the
+                    // last blank tile
+                    int nextRackMask = rackMask;
+
+                    if (rack[26] == 0) {
+                        nextRackMask = calcRackMask(rack);
+                    }
+
                     // Add the square onto the current move
                     addSqrToMove(sqr.row, sqr.col,
                             Character.toLowerCase(childLetter),
                             currMove);
 
-                    // Move rightwards to the next square
-                    Square nextSquare = board[sqr.row][sqr.col+1];
-
                     // Recursively call itself to continued extending right
-                    extendRight(board, rack, node.children.get(i), nextSquare,
+                    extendRight(board, rack, nextRackMask, child, nextSquare,
                             minWordLength, currMove, bestMove);
 
                     // Remove the square from the current move
@@ -552,21 +995,127 @@ public class ScrabbleEngine {
         // The square contains a letter
         else {
             int sqrLetterIndex = Character.toUpperCase(sqr.letter) - 'A';
-            int childIndex = node.letterIndexes[sqrLetterIndex];
+            int child = lexicon.child(node, sqrLetterIndex);
 
             // Check to see if node has a child with the letter occupying the square
-            if (childIndex != -1)
+            if (child != FlatLexicon.NO_CHILD)
             {
                 // Move rightwards to the next square
                 Square nextSquare = board[sqr.row][sqr.col+1];
 
                 // Recursively call itself to continued extending right
-                extendRight(board, rack, node.children.get(childIndex),
+                extendRight(board, rack, rackMask, child,
                         nextSquare, minWordLength, currMove, bestMove);
             }
         }
     }
 
+    /**
+     * Same as extendRight(), but extends a word across or down a PackedBoard.
+     *
+     * @param   board           stores the state of the Scrabble board
+     * @param   step            PackedBoard.ACROSS or PackedBoard.DOWN
+     * @param   crossChecks     the cross-checks of the board for step
+     * @param   rack            an Array of integers storing the number of
+     *                          each type of tile
+     * @param   rackMask        the letters that can be placed from the rack
+     *                          as bits, as returned by calcRackMask()
+     * @param   node            the handle of the node in the lexicon storing
+     *                          the last letter added to the word being built
+     * @param   square          the index of the square on which a new tile
+     *                          may be placed
+     * @param   minWordLength   the minimum word length of the word to be
+     *                          created so that it connects with
+     *                          pre-existing words
+     * @param   currMove        the Squares on which tiles have been placed
+     *                          of the current move that is being attempted
+     * @param   bestMove        the best possible move thus far
+     */
+    public void extendRight (PackedBoard board, int step, int[] crossChecks,
+                             int[] rack, int rackMask, int node, int square,
+                             int minWordLength, ScrabbleMove currMove,
+                             ScrabbleMove bestMove) {
+
+        int letter = board.letters[square];
+        numNodesVisited++;
+
+        // The square is empty or outside the board
+        if (letter == PackedBoard.EMPTY) {
+
+            // Determine if a legal move has been found
+            if (FlatLexicon.isTerminal(node) &&
+                    currMove.size() >= minWordLength) {
+
+                calcAcrossPts(board, step, currMove);
+
+                if (currMove.points > bestMove.points) {
+                    bestMove.clear();
+                    bestMove.addAll(currMove);
+                    bestMove.points = currMove.points;
+                }
+            }
+
+            // A word that reaches the edge of the board cannot be extended
+            if (board.isOutside(square)) {
+                return;
+            }
+
+            int childMask = lexicon.childMask(node);
+            int candidates = childMask & rackMask & crossChecks[square];
+            int row = square / PackedBoard.WIDTH;
+            int col = square % PackedBoard.WIDTH;
+
+            // Go through the letters one set bit at a time
+            while (candidates != 0) {
+
+                int childLetterIndex = Integer.numberOfTrailingZeros(candidates);
+                candidates &= candidates - 1;
+
+                int child = lexicon.childInMask(node, childMask, childLetterIndex);
+                char childLetter = (char) ('A' + childLetterIndex);
+                int nextRackMask = rackMask;
+                int rackIndex;
+
+                // Use a regular tile if it is in the rack
+                if (rack[childLetterIndex] > 0) {
+                    rackIndex = childLetterIndex;
+
+                    if (rack[childLetterIndex] == 1 && rack[26] == 0) {
+                        nextRackMask &= ~(1 << childLetterIndex);
+                    }
+                }
+                // Otherwise use a blank tile
+                else {
+                    rackIndex = 26;
+                    childLetter = Character.toLowerCase(childLetter);
+                }
+
+                rack[rackIndex]--;
+
+                if (rack[26] == 0 && rackIndex == 26) {
+                    nextRackMask = calcRackMask(rack);
+                }
+
+                addSqrToMove(row, col, childLetter, currMove);
+                extendRight(board, step, crossChecks, rack, nextRackMask,
+                        child, square + step, minWordLength, currMove, bestMove);
+                currMove.remove(currMove.size() - 1);
+
+                rack[rackIndex]++;
+            }
+        }
+        // The square contains a letter
+        else {
+            // Lowercase and uppercase letters have the same lowest 5 bits
+            int child = lexicon.child(node, (letter & 0x1F) - 1);
+
+            if (child != FlatLexicon.NO_CHILD) {
+                extendRight(board, step, crossChecks, rack, rackMask, child,
+                        square + step, minWordLength, currMove, bestMove);
+            }
+        }
+    }
+
     /**
      * Adds the square, on which a tile has just been placed,
      * onto the current move.
@@ -795,6 +1344,105 @@ public class ScrabbleEngine {
         return colCrossPts;
     }
 
+    /**
+     * Same as calcAcrossPts(), but for a move on a PackedBoard that goes in
+     * the direction of step. The cross words go in the other direction.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @param   step    PackedBoard.ACROSS or PackedBoard.DOWN
+     * @param   move    the squares on which a tile has been placed, in the
+     *                  order of step
+     */
+    public void calcAcrossPts (PackedBoard board, int step, ScrabbleMove move) {
+
+        // If no squares are in the current move, then no points are awards
+        if (move.isEmpty()) {
+            move.points = 0;
+            return;
+        }
+
+        byte[] letters = board.letters;
+        int crossStep = PackedBoard.ACROSS + PackedBoard.DOWN - step;
+        int wordPts = 0;
+        int totalCrossPts = 0;
+        int wordMultiplier = 1;
+
+        // Go through all the squares in the current move
+        for (int i = 0; i < move.size(); i++) {
+
+            Square sqr = move.get(i);
+            int square = PackedBoard.index(sqr.row, sqr.col);
+            int letterPts = tilePoints[sqr.letter] *
+                    board.letterMultipliers[square];
+            int squareWordMultiplier = board.wordMultipliers[square];
+
+            wordPts += letterPts;
+            wordMultiplier *= squareWordMultiplier;
+
+            // Add the points of the cross word, if there is one
+            if (letters[square - crossStep] != PackedBoard.EMPTY ||
+                    letters[square + crossStep] != PackedBoard.EMPTY) {
+                totalCrossPts += squareWordMultiplier * (letterPts +
+                        calcColCrossPts(board, square, crossStep));
+            }
+        }
+
+        int firstSquare = PackedBoard.index(move.get(0).row, move.get(0).col);
+        int lastSquare = PackedBoard.index(move.get(move.size()-1).row,
+                move.get(move.size()-1).col);
+
+        // Add the points of the tiles before, in between and after the
+        // tiles of the move that are part of the word
+        for (int square = firstSquare - step;
+             letters[square] != PackedBoard.EMPTY; square -= step) {
+            wordPts += tilePoints[letters[square]];
+        }
+
+        for (int square = firstSquare; square <= lastSquare; square += step) {
+            wordPts += tilePoints[letters[square]];
+        }
+
+        for (int square = lastSquare + step;
+             letters[square] != PackedBoard.EMPTY; square += step) {
+            wordPts += tilePoints[letters[square]];
+        }
+
+        move.points = wordPts * wordMultiplier + totalCrossPts;
+
+        // If you use 7 tiles in your move, you get a bingo of 50 points
+        if (move.size() >= 7) {
+            move.points += 50;
+        }
+    }
+
+    /**
+     * Same as calcColCrossPts(), but adds the points of the tiles on both
+     * sides of a square of a PackedBoard in the direction of crossStep.
+     *
+     * @param   board       stores the state of the Scrabble board
+     * @param   square      the index of the square
+     * @param   crossStep   PackedBoard.ACROSS or PackedBoard.DOWN
+     * @return              the number of points obtained from tiles
+     *                      directly on both sides of the square
+     */
+    public int calcColCrossPts (PackedBoard board, int square, int crossStep) {
+
+        byte[] letters = board.letters;
+        int colCrossPts = 0;
+
+        for (int i = square - crossStep; letters[i] != PackedBoard.EMPTY;
+             i -= crossStep) {
+            colCrossPts += tilePoints[letters[i]];
+        }
+
+        for (int i = square + crossStep; letters[i] != PackedBoard.EMPTY;
+             i += crossStep) {
+            colCrossPts += tilePoints[letters[i]];
+        }
+
+        return colCrossPts;
+    }
+
     /**
      * Inverts a board so that for each board[row][col] == invertedBoard[col][row].
      * In other words, it swaps rows and columns.
@@ -818,7 +1466,7 @@ public class ScrabbleEngine {
                 invertedBoard[row][col].letter = board[col][row].letter;
                 invertedBoard[row][col].row = row;
                 invertedBoard[row][col].col = col;
-                invertedBoard[row][col].downCrossCheck = new boolean[26];
+                invertedBoard[row][col].downCrossCheck = 0;
                 invertedBoard[row][col].minAcrossWordLength = 0;
             }
         }
@@ -842,7 +1490,7 @@ public class ScrabbleEngine {
                 boardCopy[row][col].letter = board[row][col].letter;
                 boardCopy[row][col].row = row;
                 boardCopy[row][col].col = col;
-                boardCopy[row][col].downCrossCheck = new boolean[26];
+                boardCopy[row][col].downCrossCheck = 0;
                 boardCopy[row][col].minAcrossWordLength = 0;
             }
         }
@@ -868,9 +1516,12 @@ public class ScrabbleEngine {
 
         ScrabbleMove downMove = acrossMove;
 
+        // The move is inverted in place, so the row must be saved before
+        // it is overwritten
         for (int i = 0; i < downMove.size(); i++) {
-            downMove.get(i).row = acrossMove.get(i).col;
-            downMove.get(i).col = acrossMove.get(i).row;
+            int row = downMove.get(i).row;
+            downMove.get(i).row = downMove.get(i).col;
+            downMove.get(i).col = row;
         }
 
         return downMove;
@@ -890,8 +1541,67 @@ public class ScrabbleEngine {
             board[move.get(i).row][move.get(i).col].letter = move.get(i).letter;
         }
 
-        updateDownCrossChecks(board);
-        updateMinAcrossWordLength(board);
+        updateChangedSquares(board, move);
+    }
+
+    /**
+     * Updates the downCrossCheck and minAcrossWordLength properties after
+     * tiles have been placed on or removed from some squares, without going
+     * through the whole board.
+     * A change to a square can only affect the cross-check of the square
+     * itself and of the first empty squares above and below it, since the
+     * letters in between are the ones that form a down word with them.
+     * It can only affect the minAcrossWordLength of its own row and of the
+     * rows above and below it.
+     *
+     * @param   board           the state of the Scrabble board, which must
+     *                          have been up to date before the change
+     * @param   changedSquares  the squares whose letters have changed
+     */
+    public void updateChangedSquares (Square[][] board,
+                                      ArrayList<Square> changedSquares) {
+
+        // Bit i is set if row i needs to be updated
+        int rowsToUpdate = 0;
+
+        for (int i = 0; i < changedSquares.size(); i++) {
+            int row = changedSquares.get(i).row;
+            int col = changedSquares.get(i).col;
+
+            if (board[row][col].letter == '.') {
+                updateDownCrossCheck(board, row, col);
+            }
+
+            // Find the first empty square above the square
+            int checkRow = row - 1;
+
+            while (board[checkRow][col].letter != '.') {
+                checkRow--;
+            }
+
+            if (board[checkRow][col].type != SquareType.OUTSIDE) {
+                updateDownCrossCheck(board, checkRow, col);
+            }
+
+            // Find the first empty square below the square
+            checkRow = row + 1;
+
+            while (board[checkRow][col].letter != '.') {
+                checkRow++;
+            }
+
+            if (board[checkRow][col].type != SquareType.OUTSIDE) {
+                updateDownCrossCheck(board, checkRow, col);
+            }
+
+            rowsToUpdate |= 7 << (row - 1);
+        }
+
+        for (int row = 1; row <= numBoardRows; row++) {
+            if ((rowsToUpdate & (1 << row)) != 0) {
+                updateMinAcrossWordLength(board, row);
+            }
+        }
     }
 
     /**
@@ -976,12 +1686,20 @@ public class ScrabbleEngine {
     }
 
     public void fillBoardWithString (Square[][] board, String boardString) {
+
+        ArrayList<Square> changedSquares = new ArrayList<>();
+
         for (int i = 0; i < boardString.length(); i++) {
-            board[i/15 + 1][i%15 + 1].letter = boardString.charAt(i);
+            Square sqr = board[i/15 + 1][i%15 + 1];
+
+            if (sqr.letter != boardString.charAt(i)) {
+                sqr.letter = boardString.charAt(i);
+                changedSquares.add(sqr);
+            }
         }
 
-        updateMinAcrossWordLength(board);
-        updateDownCrossChecks(board);
+        // Only the squares around the changed tiles need to be updated
+        updateChangedSquares(board, changedSquares);
     }
 
     public void extendRightTestWrapper (Square[][] board, int[] rack, Square currSquare) {
@@ -1051,8 +1769,10 @@ public class ScrabbleEngine {
 
                 // Check to see if the letter of the child is in our rack AND
                 // it is in the downCrossCheck set of the square
-                if (rack[childLetterIndex] > 0 &&
-                        sqr.downCrossCheck[childLetterIndex]) {
+                boolean isInCrossCheck =
+                        (sqr.downCrossCheck & (1 << childLetterIndex)) != 0;
+
+                if (rack[childLetterIndex] > 0 && isInCrossCheck) {
 
                     // Remove the tile from the rack
                     rack[childLetterIndex]--;
@@ -1075,7 +1795,7 @@ public class ScrabbleEngine {
                     rack[childLetterIndex]++;
                 }
                 // Otherwise try using a blank tile
-                else if (rack[26] > 0 && sqr.downCrossCheck[childLetterIndex]) {
+                else if (rack[26] > 0 && isInCrossCheck) {
                     // Remove the tile from the rack
                     rack[26]--;
 
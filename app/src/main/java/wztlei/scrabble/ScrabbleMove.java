@@ -24,4 +24,22 @@ public class ScrabbleMove extends ArrayList<Square> {
     ScrabbleMove() {
         points = 0;
     }
+
+    // Returns a copy with new Squares, for moves that are kept, since a
+    // ScrabbleMove can be changed by whoever holds it
+    ScrabbleMove copy() {
+
+        ScrabbleMove copy = new ScrabbleMove();
+
+        for (int i = 0; i < size(); i++) {
+            Square sqr = new Square();
+            sqr.row = get(i).row;
+            sqr.col = get(i).col;
+            sqr.letter = get(i).letter;
+            copy.add(sqr);
+        }
+
+        copy.points = points;
+        return copy;
+    }
 }
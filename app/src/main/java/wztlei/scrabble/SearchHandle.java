@@ -0,0 +1,225 @@
+/*
+ * SearchHandle.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Controls a search started by AsyncMoveGenerator, which runs on
+ *          another thread. The search can be cancelled and may have a
+ *          deadline, which the MoveGenerator checks every few thousand nodes.
+ *          A search that is stopped early still returns the best move it had
+ *          found, marked as not proven to be the best.
+ *
+ *          While the search runs, the same checks tell the listener about
+ *          each better move it finds, at most once per progress interval,
+ *          such as once per frame of the display.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class SearchHandle {
+
+    // The value of System.nanoTime() at which the search stops, if it has
+    // a deadline
+    private final boolean hasDeadline;
+    private final long deadline;
+
+    // Told about the result unless the search is cancelled, or null
+    private final SearchListener listener;
+
+    // The visitor keeping the best move of the search, whose moves are
+    // reported to the listener at most once every progressInterval
+    // nanoseconds, or null if the search does not report its progress
+    private BestMoveVisitor progressVisitor;
+    private final long progressInterval;
+    private long lastProgressTime;
+    private int numReportedMoves;
+
+    // The points or equity of the last move reported by reportBetterMove()
+    private float reportedValue = Float.NEGATIVE_INFINITY;
+
+    private volatile boolean isCancelled;
+
+    // Set once the search has been stopped by cancel() or by the deadline
+    private volatile boolean isStopped;
+
+    // Set by the search thread before finished is counted down
+    private final CountDownLatch finished;
+    private SearchResult result;
+    private Throwable error;
+
+    // Constructor function for a search with a deadline after timeout, or
+    // without a deadline if timeout is 0
+    SearchHandle (long timeout, TimeUnit unit, SearchListener listener,
+                  long progressIntervalNanos) {
+        this.hasDeadline = timeout > 0;
+        this.deadline = System.nanoTime() + unit.toNanos(timeout);
+        this.listener = listener;
+        this.progressInterval = progressIntervalNanos;
+        this.lastProgressTime = System.nanoTime() - progressIntervalNanos;
+        this.finished = new CountDownLatch(1);
+    }
+
+    /**
+     * Stops the search within a few thousand nodes. The listener is not told
+     * about the result, but get() still returns the best move found so far.
+     */
+    public void cancel () {
+        isCancelled = true;
+    }
+
+    /**
+     * @return  true if cancel() has been called
+     */
+    public boolean isCancelled () {
+        return isCancelled;
+    }
+
+    /**
+     * @return  true if the search has finished, whether or not it was
+     *          stopped early
+     */
+    public boolean isDone () {
+        return finished.getCount() == 0;
+    }
+
+    /**
+     * Waits for the search to finish.
+     *
+     * @return  the result of the search
+     * @throws  InterruptedException    if the thread was interrupted while
+     *                                  waiting
+     * @throws  ExecutionException      if the search threw an exception
+     */
+    public SearchResult get () throws InterruptedException, ExecutionException {
+
+        finished.await();
+
+        if (error != null) {
+            throw new ExecutionException(error);
+        }
+
+        return result;
+    }
+
+    /**
+     * Reports the best moves kept by a visitor to the listener as the search
+     * finds them. It must be called on the thread of the search, before the
+     * search starts.
+     *
+     * @param   visitor     the visitor passed to the MoveGenerator
+     */
+    void reportProgressOf (BestMoveVisitor visitor) {
+        progressVisitor = visitor;
+        numReportedMoves = visitor.getNumBestMoves();
+        lastProgressTime = System.nanoTime() - progressInterval;
+    }
+
+    /**
+     * Reports a move found by one of the threads of a parallel search to the
+     * listener, if it beats every move reported before and the last report
+     * was at least one progress interval ago. It may be called on any thread
+     * of the search.
+     *
+     * @param   move    the best move of part of the search
+     * @param   value   the points of the move, or its equity when ranking
+     *                  moves by equity
+     */
+    synchronized void reportBetterMove (ScrabbleMove move, float value) {
+
+        if (listener == null || isCancelled || value <= reportedValue) {
+            return;
+        }
+
+        long time = System.nanoTime();
+
+        if (time - lastProgressTime >= progressInterval) {
+            reportedValue = value;
+            lastProgressTime = time;
+            listener.onBetterMove(this, move);
+        }
+    }
+
+    /**
+     * Called by the MoveGenerator every few thousand nodes, since reading
+     * the clock every node would slow down the search. If the search reports
+     * its progress, it also tells the listener about a better move.
+     *
+     * @return  true if the search has been cancelled or is past its deadline
+     */
+    boolean shouldStop () {
+
+        if (isStopped) {
+            return true;
+        }
+
+        boolean reportsProgress = progressVisitor != null && listener != null;
+        long time = (hasDeadline || reportsProgress) ? System.nanoTime() : 0;
+
+        if (isCancelled || (hasDeadline && time - deadline >= 0)) {
+            isStopped = true;
+            return true;
+        }
+
+        if (reportsProgress &&
+                progressVisitor.getNumBestMoves() != numReportedMoves &&
+                time - lastProgressTime >= progressInterval) {
+            numReportedMoves = progressVisitor.getNumBestMoves();
+            lastProgressTime = time;
+            listener.onBetterMove(this, progressVisitor.getBestMove());
+        }
+
+        return false;
+    }
+
+    /**
+     * @return  true if the search was stopped before it had tried every move
+     */
+    boolean wasStopped () {
+        return isStopped;
+    }
+
+    /**
+     * Stores the result of the search and tells the listener about it,
+     * which happens on the thread of the search.
+     *
+     * @param   result  the result of the search
+     */
+    void finish (SearchResult result) {
+
+        this.progressVisitor = null;
+        this.result = result;
+        finished.countDown();
+
+        if (listener != null && !isCancelled) {
+            listener.onSearchFinished(this, result);
+        }
+    }
+
+    /**
+     * Stores the exception thrown by the search, which is thrown again by
+     * get() wrapped in an ExecutionException, and tells the listener about
+     * it, which happens on the thread of the search.
+     *
+     * @param   error   the exception thrown by the search
+     */
+    void fail (Throwable error) {
+
+        this.progressVisitor = null;
+        this.error = error;
+        finished.countDown();
+
+        if (listener != null && !isCancelled) {
+            listener.onSearchFailed(this, error);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * SearchListener.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Is told about the better moves found by a search started by
+ *          AsyncMoveGenerator while it runs, and about its result or the
+ *          error it threw once the search finishes.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+/**
+ *
+ * @author  William Lei
+ */
+public interface SearchListener {
+
+    /**
+     * Called on a thread of the search when it has found a better move than
+     * the last one reported, at most once per progress interval, while the
+     * search keeps looking for better moves. A parallel search makes the
+     * calls from its threads one at a time.
+     *
+     * @param   handle  the handle returned when the search was started
+     * @param   move    the best move found so far
+     */
+    void onBetterMove (SearchHandle handle, ScrabbleMove move);
+
+    /**
+     * Called on the thread of the search, unless the search was cancelled.
+     *
+     * @param   handle  the handle returned when the search was started
+     * @param   result  the best move found and whether it is proven to be
+     *                  the best
+     */
+    void onSearchFinished (SearchHandle handle, SearchResult result);
+
+    /**
+     * Called on the thread of the search if it threw an exception or an
+     * error instead of finishing, unless the search was cancelled.
+     *
+     * @param   handle  the handle returned when the search was started
+     * @param   error   what the search threw, which get() also throws
+     *                  wrapped in an ExecutionException
+     */
+    void onSearchFailed (SearchHandle handle, Throwable error);
+}
@@ -0,0 +1,53 @@
+/*
+ * SearchResult.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Stores the best move found by a search started by
+ *          AsyncMoveGenerator and whether the search tried every move, in
+ *          which case the move is proven to be the best.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class SearchResult {
+
+    private final ScrabbleMove move;
+    private final boolean isProvenOptimal;
+    private final long elapsedNanos;
+
+    // Constructor function
+    SearchResult (ScrabbleMove move, boolean isProvenOptimal, long elapsedNanos) {
+        this.move = move;
+        this.isProvenOptimal = isProvenOptimal;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return  the best move found, which is empty if none was found
+     */
+    public ScrabbleMove getMove () {
+        return move;
+    }
+
+    /**
+     * @return  false if the search was cancelled or ran out of time, so a
+     *          better move may have been missed
+     */
+    public boolean isProvenOptimal () {
+        return isProvenOptimal;
+    }
+
+    /**
+     * @return  the number of nanoseconds the search ran for
+     */
+    public long getElapsedNanos () {
+        return elapsedNanos;
+    }
+}
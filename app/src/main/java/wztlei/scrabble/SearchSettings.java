@@ -0,0 +1,18 @@
+package wztlei.scrabble;
+
+public class SearchSettings {
+    // The number of threads used to find the best move, or 0 for one thread
+    // per processor, which needs Android 5.0 (API level 21) to be more than 1
+    final int numSearchThreads = 0;
+    final boolean usePruning = true;
+    // The number of positions whose best moves are remembered
+    final int numCachedMoves = 64;
+    // If true, moves are ranked by equity, their points plus the value of
+    // the tiles they leave in the rack, instead of by points alone. Off until
+    // there are leave values trained from games, since the estimated ones
+    // are only a rough guess.
+    final boolean useLeaveValues = false;
+    // The time after which a search shows the best move found so far,
+    // or 0 to always search every move
+    final long searchTimeoutMillis = 3000;
+}
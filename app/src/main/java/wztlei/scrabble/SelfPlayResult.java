@@ -0,0 +1,219 @@
+/*
+ * SelfPlayResult.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Stores the final scores of the games played by SelfPlayRunner
+ *          and the time taken by each move, and sums them up as throughput,
+ *          move latencies and score distributions.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.Arrays;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class SelfPlayResult {
+
+    // The final score of each player in each game
+    private final int[][] scores;
+
+    // The time taken to find each move, in the order of the games, and the
+    // same times sorted from shortest to longest
+    private final long[] moveNanos;
+    private final long[] sortedMoveNanos;
+
+    private final long elapsedNanos;
+
+    // Constructor function
+    SelfPlayResult (int[][] scores, long[] moveNanos, long elapsedNanos) {
+        this.scores = scores;
+        this.moveNanos = moveNanos;
+        this.sortedMoveNanos = moveNanos.clone();
+        this.elapsedNanos = elapsedNanos;
+
+        Arrays.sort(sortedMoveNanos);
+    }
+
+    /**
+     * @return  the number of games played
+     */
+    public int getNumGames () {
+        return scores.length;
+    }
+
+    /**
+     * @return  the number of moves searched for, including passes
+     */
+    public int getNumMoves () {
+        return moveNanos.length;
+    }
+
+    /**
+     * @param   game    the index of a game
+     * @param   player  0 for the player who moved first, otherwise 1
+     * @return          the final score of the player
+     */
+    public int getScore (int game, int player) {
+        return scores[game][player];
+    }
+
+    /**
+     * @return  the time taken to play all the games in nanoseconds
+     */
+    public long getElapsedNanos () {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return  the number of games played per second
+     */
+    public double getGamesPerSecond () {
+        return (elapsedNanos == 0) ? 0 : getNumGames() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return  the number of moves searched for per second
+     */
+    public double getMovesPerSecond () {
+        return (elapsedNanos == 0) ? 0 : getNumMoves() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * @return  the mean time taken to find a move in nanoseconds
+     */
+    public double getMeanMoveNanos () {
+
+        if (moveNanos.length == 0) {
+            return 0;
+        }
+
+        double sum = 0;
+
+        for (long nanos : moveNanos) {
+            sum += nanos;
+        }
+
+        return sum / moveNanos.length;
+    }
+
+    /**
+     * @param   percentile  a number from 0 to 100, such as 99
+     * @return              the time within which that percent of the moves
+     *                      were found, in nanoseconds
+     */
+    public long getMoveNanosPercentile (double percentile) {
+        return (sortedMoveNanos.length == 0) ? 0 :
+                sortedMoveNanos[percentileIndex(percentile, sortedMoveNanos.length)];
+    }
+
+    /**
+     * @param   percentile  a number from 0 to 100, such as 50
+     * @return              the score that that percent of the final scores of
+     *                      all the players are at most
+     */
+    public int getScorePercentile (double percentile) {
+
+        int[] allScores = new int[2 * scores.length];
+
+        for (int game = 0; game < scores.length; game++) {
+            allScores[2 * game] = scores[game][0];
+            allScores[2 * game + 1] = scores[game][1];
+        }
+
+        Arrays.sort(allScores);
+        return (allScores.length == 0) ? 0 :
+                allScores[percentileIndex(percentile, allScores.length)];
+    }
+
+    /**
+     * @param   player  0 for the player who moved first, otherwise 1
+     * @return          the mean final score of the player
+     */
+    public double getMeanScore (int player) {
+
+        if (scores.length == 0) {
+            return 0;
+        }
+
+        double sum = 0;
+
+        for (int[] gameScores : scores) {
+            sum += gameScores[player];
+        }
+
+        return sum / scores.length;
+    }
+
+    /**
+     * @return  the standard deviation of the final scores of all the players
+     */
+    public double getScoreStandardDeviation () {
+
+        int n = 2 * scores.length;
+
+        if (n < 2) {
+            return 0;
+        }
+
+        double mean = (getMeanScore(0) + getMeanScore(1)) / 2;
+        double sumSquares = 0;
+
+        for (int[] gameScores : scores) {
+            for (int score : gameScores) {
+                sumSquares += (score - mean) * (score - mean);
+            }
+        }
+
+        return Math.sqrt(sumSquares / (n - 1));
+    }
+
+    /**
+     * @param   player  0 for the player who moved first, otherwise 1
+     * @return          the number of games won by the player
+     */
+    public int getNumWins (int player) {
+
+        int numWins = 0;
+
+        for (int[] gameScores : scores) {
+            if (gameScores[player] > gameScores[1 - player]) {
+                numWins++;
+            }
+        }
+
+        return numWins;
+    }
+
+    /**
+     * @param   percentile  a number from 0 to 100
+     * @param   n           the number of sorted values
+     * @return              the index of the value at the percentile, using
+     *                      the nearest rank
+     */
+    private static int percentileIndex (double percentile, int n) {
+        int rank = (int) Math.ceil(percentile / 100 * n);
+        return Math.min(Math.max(rank, 1), n) - 1;
+    }
+
+    /**
+     * @return  a summary of the throughput, move latencies and scores
+     */
+    @Override
+    public String toString () {
+        return String.format("%d games, %d moves: %.2f games/s, %.1f moves/s, " +
+                        "move latency mean %.3f ms p99 %.3f ms, " +
+                        "scores mean %.1f / %.1f sd %.1f p10 %d p50 %d p90 %d",
+                getNumGames(), getNumMoves(), getGamesPerSecond(),
+                getMovesPerSecond(), getMeanMoveNanos() / 1e6,
+                getMoveNanosPercentile(99) / 1e6, getMeanScore(0),
+                getMeanScore(1), getScoreStandardDeviation(),
+                getScorePercentile(10), getScorePercentile(50),
+                getScorePercentile(90));
+    }
+}
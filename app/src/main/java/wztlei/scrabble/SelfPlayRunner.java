@@ -0,0 +1,276 @@
+/*
+ * SelfPlayRunner.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Plays whole games between two engine players without the Android
+ *          UI, so that changes to the engine can be measured over realistic
+ *          sequences of positions. Each game has its own bag, filled from the
+ *          totals of the tiles, and its own board. The players take turns
+ *          playing their best moves and refilling their racks until one of
+ *          them goes out with the bag empty or neither can move.
+ *
+ *          The games are run in parallel on a fixed pool of threads, one game
+ *          per thread at a time, and each thread searches with its own
+ *          MoveGenerator. Every game draws its tiles from its own seed, so the
+ *          same games are played on any number of threads.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class SelfPlayRunner {
+
+    private final ScrabbleEngine engine;
+    private final Square[][] emptyBoard;
+    private final int numThreads;
+    private final ExecutorService pool;
+
+    // The MoveGenerator used by each thread of the pool
+    private final ThreadLocal<MoveGenerator> generators;
+
+    // If true, the players search with pruning
+    public boolean usePruning = true;
+
+    // If set, the players choose the move with the highest equity instead of
+    // the most points
+    public LeaveTable leaveTable;
+
+    // The seed of the tiles drawn in every game
+    public long seed = 0;
+
+    // Constructor function with one thread per processor
+    public SelfPlayRunner (ScrabbleEngine engine, Square[][] emptyBoard) {
+        this(engine, emptyBoard, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param   engine      the engine whose lexicon and tiles are used
+     * @param   emptyBoard  a board with no tiles, which is copied for
+     *                      every game
+     * @param   numThreads  the number of games played at the same time
+     */
+    public SelfPlayRunner (final ScrabbleEngine engine, Square[][] emptyBoard,
+                           int numThreads) {
+        this.engine = engine;
+        this.emptyBoard = engine.copyBoard(emptyBoard);
+        this.numThreads = numThreads;
+        this.pool = Executors.newFixedThreadPool(numThreads);
+        this.generators = new ThreadLocal<MoveGenerator>() {
+            @Override
+            protected MoveGenerator initialValue () {
+                return new MoveGenerator(engine);
+            }
+        };
+    }
+
+    /**
+     * @return  the number of games played at the same time
+     */
+    public int getNumThreads () {
+        return numThreads;
+    }
+
+    /**
+     * Plays a number of games and measures how quickly they were played.
+     *
+     * @param   numGames    the number of games to play
+     * @return              the scores of the games and the time of each move
+     * @throws  InterruptedException    if the thread was interrupted while
+     *                                  waiting for the games
+     */
+    public SelfPlayResult run (int numGames) throws InterruptedException {
+
+        long startTime = System.nanoTime();
+        ArrayList<Callable<GameRecord>> tasks = new ArrayList<>();
+
+        for (int game = 0; game < numGames; game++) {
+            final int gameIndex = game;
+
+            tasks.add(new Callable<GameRecord>() {
+                @Override
+                public GameRecord call () {
+                    return playGame(gameIndex);
+                }
+            });
+        }
+
+        List<Future<GameRecord>> futures = pool.invokeAll(tasks);
+        GameRecord[] records = new GameRecord[numGames];
+        int numMoves = 0;
+
+        for (int game = 0; game < numGames; game++) {
+            try {
+                records[game] = futures.get(game).get();
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) ex.getCause();
+                }
+
+                throw new IllegalStateException(ex.getCause());
+            }
+
+            numMoves += records[game].numMoves;
+        }
+
+        // Join the scores and the times of the moves in the order of the games
+        int[][] scores = new int[numGames][];
+        long[] moveNanos = new long[numMoves];
+        int numCopied = 0;
+
+        for (int game = 0; game < numGames; game++) {
+            scores[game] = records[game].scores;
+            System.arraycopy(records[game].moveNanos, 0, moveNanos, numCopied,
+                    records[game].numMoves);
+            numCopied += records[game].numMoves;
+        }
+
+        return new SelfPlayResult(scores, moveNanos,
+                System.nanoTime() - startTime);
+    }
+
+    /**
+     * Stops the threads of the pool once the games that were started have
+     * finished.
+     */
+    public void shutdown () {
+        pool.shutdown();
+    }
+
+    /**
+     * Plays one game on the current thread.
+     *
+     * @param   gameIndex   the number of the game, which gives its seed
+     * @return              the scores and the times of the moves
+     */
+    private GameRecord playGame (int gameIndex) {
+
+        MoveGenerator generator = generators.get();
+        generator.usePruning = usePruning;
+        generator.leaveTable = leaveTable;
+
+        Random random = new Random(seed * 1000003 + gameIndex);
+        DualBoard board = new DualBoard(engine, engine.copyBoard(emptyBoard));
+        int[] bag = new int[27];
+        int[][] racks = new int[2][27];
+        int[] scores = new int[2];
+        GameRecord record = new GameRecord();
+
+        for (int i = 0; i < 27; i++) {
+            bag[i] = engine.tiles[i].total;
+        }
+
+        Racks.drawTiles(bag, racks[0], engine.numRackTiles, random);
+        Racks.drawTiles(bag, racks[1], engine.numRackTiles, random);
+
+        int player = 0;
+        int numPasses = 0;
+
+        // The game ends when both players pass in a row or when a player
+        // uses up all their tiles with the bag empty
+        while (numPasses < 2) {
+            long moveStartTime = System.nanoTime();
+            PackedBoard packedBoard = PackedBoard.fromDualBoard(board);
+            ScrabbleMove move = (leaveTable != null) ?
+                    generator.findBestEquityMove(packedBoard, racks[player]) :
+                    generator.findBestMove(packedBoard, racks[player]);
+            record.addMoveNanos(System.nanoTime() - moveStartTime);
+
+            if (move.isEmpty()) {
+                numPasses++;
+            }
+            else {
+                numPasses = 0;
+                scores[player] += move.points;
+                Racks.removeTiles(move, racks[player]);
+                board.addMove(move);
+                Racks.drawTiles(bag, racks[player], engine.numRackTiles, random);
+
+                if (isEmpty(racks[player])) {
+                    break;
+                }
+            }
+
+            player = 1 - player;
+        }
+
+        // Each player loses the points of the tiles left in their rack, and
+        // a player who went out gains the points left in the other rack
+        int[] rackPts = {calcRackPts(racks[0]), calcRackPts(racks[1])};
+
+        for (int i = 0; i < 2; i++) {
+            scores[i] -= rackPts[i];
+
+            if (isEmpty(racks[i])) {
+                scores[i] += rackPts[1 - i];
+            }
+        }
+
+        record.scores = scores;
+        return record;
+    }
+
+    /**
+     * @param   rack    stores the number of each possible tile
+     * @return          the points of the tiles in the rack
+     */
+    private int calcRackPts (int[] rack) {
+
+        int points = 0;
+
+        for (int i = 0; i < 26; i++) {
+            points += rack[i] * engine.tilePoints['A' + i];
+        }
+
+        return points;
+    }
+
+    /**
+     * @param   rack    stores the number of each possible tile
+     * @return          true if there are no tiles in the rack
+     */
+    private static boolean isEmpty (int[] rack) {
+
+        for (int i = 0; i < 27; i++) {
+            if (rack[i] > 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    // The scores of one game and the time taken by each of its moves
+    private static class GameRecord {
+
+        int[] scores;
+        long[] moveNanos = new long[64];
+        int numMoves;
+
+        void addMoveNanos (long nanos) {
+
+            if (numMoves == moveNanos.length) {
+                long[] newMoveNanos = new long[2 * numMoves];
+                System.arraycopy(moveNanos, 0, newMoveNanos, 0, numMoves);
+                moveNanos = newMoveNanos;
+            }
+
+            moveNanos[numMoves] = nanos;
+            numMoves++;
+        }
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * SimulationResult.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Stores the candidate moves of a simulation run by MoveSimulator,
+ *          the mean value of each one over the iterations in which it was
+ *          played out, and how quickly the iterations were run.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class SimulationResult {
+
+    private final ArrayList<ScrabbleMove> candidates;
+    private final double[] means;
+    private final double[] standardErrors;
+    private final int[] numSamples;
+    private final int numIterations;
+    private final long elapsedNanos;
+
+    // Constructor function
+    SimulationResult (ArrayList<ScrabbleMove> candidates, double[] means,
+                      double[] standardErrors, int[] numSamples,
+                      int numIterations, long elapsedNanos) {
+        this.candidates = candidates;
+        this.means = means;
+        this.standardErrors = standardErrors;
+        this.numSamples = numSamples;
+        this.numIterations = numIterations;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return  the number of candidate moves
+     */
+    public int size () {
+        return candidates.size();
+    }
+
+    /**
+     * @param   i   the index of a candidate, from 0 to size() - 1, in the
+     *              order in which they were ranked before the simulation
+     * @return      the candidate move
+     */
+    public ScrabbleMove getCandidate (int i) {
+        return candidates.get(i);
+    }
+
+    /**
+     * @param   i   the index of a candidate
+     * @return      the mean of its points, minus the points of the reply,
+     *              plus the points of the follow-up move and the value of
+     *              the leave after it
+     */
+    public double getMean (int i) {
+        return means[i];
+    }
+
+    /**
+     * @param   i   the index of a candidate
+     * @return      the standard error of its mean
+     */
+    public double getStandardError (int i) {
+        return standardErrors[i];
+    }
+
+    /**
+     * @param   i   the index of a candidate
+     * @return      the number of iterations in which it was played out, which
+     *              is fewer than getNumIterations() if it was dropped early
+     */
+    public int getNumSamples (int i) {
+        return numSamples[i];
+    }
+
+    /**
+     * @return  the index of the candidate with the highest mean, or -1 if
+     *          there are no candidates
+     */
+    public int getBestIndex () {
+
+        int bestIndex = -1;
+
+        for (int i = 0; i < candidates.size(); i++) {
+            if (bestIndex < 0 || means[i] > means[bestIndex]) {
+                bestIndex = i;
+            }
+        }
+
+        return bestIndex;
+    }
+
+    /**
+     * @return  the candidate with the highest mean, or an empty move if
+     *          there are no candidates
+     */
+    public ScrabbleMove getBestMove () {
+        int bestIndex = getBestIndex();
+        return (bestIndex < 0) ? new ScrabbleMove() : candidates.get(bestIndex);
+    }
+
+    /**
+     * @return  the number of iterations run, each of which draws one set of
+     *          racks and plays out every candidate that is left
+     */
+    public int getNumIterations () {
+        return numIterations;
+    }
+
+    /**
+     * @return  the number of candidates played out over all the iterations
+     */
+    public long getNumPlayouts () {
+
+        long numPlayouts = 0;
+
+        for (int samples : numSamples) {
+            numPlayouts += samples;
+        }
+
+        return numPlayouts;
+    }
+
+    /**
+     * @return  the time taken by the simulation in nanoseconds
+     */
+    public long getElapsedNanos () {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return  the number of iterations run per second
+     */
+    public double getIterationsPerSecond () {
+        return (elapsedNanos == 0) ? 0 : numIterations * 1e9 / elapsedNanos;
+    }
+}
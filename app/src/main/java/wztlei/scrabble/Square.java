@@ -14,8 +14,14 @@ package wztlei.scrabble;
  */
 public class Square {
 
+    // A cross-check that allows every letter to be placed on the square
+    public static final int ALL_LETTERS = (1 << 26) - 1;
+
     public SquareType type;
-    public boolean[] downCrossCheck;
+    public int downCrossCheck;  // Bit i is set if the letter 'A' + i can be
+                                // placed without forming an invalid down word
+    public int downCrossScore;  // The points of the tiles above and below the
+                                // square, or -1 if there are none
     public char letter; // Special values: '.' = empty square and
                         //                 lowercase letter = blank tile
     public int row;
@@ -3,6 +3,7 @@ package wztlei.scrabble;
 public class TextFileNames {
     final String tilesFileName = "tiles.txt";
     final String wordsFileName = "common_1000_words.txt";
+    final String lexiconFileName = "common_1000_words.lex";
     final String boardFileName = "board.txt";
     final String gameFileName = "test_game_across.txt";
 }
@@ -0,0 +1,275 @@
+/*
+ * TopMovesVisitor.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: A MoveVisitor that keeps the k highest scoring moves in a min-heap,
+ *          with the worst of them on top. Their tiles are stored in flat
+ *          arrays of primitives, with one slot per move, and the heap only
+ *          moves the indexes of the slots around. Once the heap is full, the
+ *          worst of the kept moves is the one to beat, which lets the search
+ *          prune the moves that cannot be kept.
+ *
+ *          A move that places a single tile is only kept once, even though
+ *          it is found both across and down. Moves with the same points are
+ *          ordered the way BestMoveVisitor chooses between them, so the first
+ *          move is the best move.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class TopMovesVisitor implements MoveVisitor {
+
+    private static final int MAX_TILES = MoveGenerator.MAX_TILES;
+
+    // The number of moves to keep
+    private final int numTopMoves;
+
+    // The points, direction, start order, number of tiles, squares and
+    // letters of the move stored in each slot, where the tiles of slot i
+    // start at i * MAX_TILES
+    private final int[] topPoints;
+    private final int[] topSteps;
+    private final int[] topStartOrders;
+    private final byte[] topSizes;
+    private final short[] topSquares;
+    private final byte[] topLetters;
+
+    // The slots of the kept moves as a min-heap, with the worst move at
+    // index 0, and the free slot into which the next move is copied
+    private final int[] topHeap;
+    private int topHeapSize;
+    private int freeSlot;
+
+    /**
+     * @param   k   the number of moves to keep
+     */
+    public TopMovesVisitor (int k) {
+
+        if (k < 1) {
+            throw new IllegalArgumentException("Invalid number of moves: " + k);
+        }
+
+        numTopMoves = k;
+
+        // One more slot than the number of moves is needed for the free slot
+        topPoints = new int[k + 1];
+        topSteps = new int[k + 1];
+        topStartOrders = new int[k + 1];
+        topSizes = new byte[k + 1];
+        topSquares = new short[(k + 1) * MAX_TILES];
+        topLetters = new byte[(k + 1) * MAX_TILES];
+        topHeap = new int[k];
+
+        reset();
+    }
+
+    /**
+     * Forgets the kept moves so that the visitor can be used again.
+     */
+    public void reset () {
+        topHeapSize = 0;
+        freeSlot = 0;
+    }
+
+    /**
+     * Keeps the move if it is one of the best numTopMoves moves visited so
+     * far. If the same single tile move is already kept from the other
+     * direction, only the one that comes first is kept.
+     *
+     * @param   move    the move being visited
+     * @return          true, since every move has to be visited
+     */
+    @Override
+    public boolean visitMove (MoveView move) {
+
+        // Copy the move into the free slot so that it can be compared
+        int slot = freeSlot;
+        int size = move.size();
+        topPoints[slot] = move.getPoints();
+        topSteps[slot] = move.getStep();
+        topStartOrders[slot] = move.getStartOrder();
+        topSizes[slot] = (byte) size;
+
+        for (int i = 0; i < size; i++) {
+            topSquares[slot * MAX_TILES + i] = (short) move.getSquare(i);
+            topLetters[slot * MAX_TILES + i] = (byte) move.getLetter(i);
+        }
+
+        if (size == 1) {
+            for (int i = 0; i < topHeapSize; i++) {
+                int other = topHeap[i];
+
+                if (topSizes[other] == 1 &&
+                        topSquares[other * MAX_TILES] == topSquares[slot * MAX_TILES] &&
+                        topLetters[other * MAX_TILES] == topLetters[slot * MAX_TILES]) {
+
+                    // Both moves have the same points, so the better one can
+                    // only move towards the bottom of the heap
+                    if (isBetterSlot(slot, other)) {
+                        topHeap[i] = slot;
+                        freeSlot = other;
+                        siftDown(i);
+                    }
+
+                    return true;
+                }
+            }
+        }
+
+        if (topHeapSize < numTopMoves) {
+            // Until the heap is full, slots 0 to topHeapSize are in use
+            topHeap[topHeapSize] = slot;
+            siftUp(topHeapSize);
+            topHeapSize++;
+            freeSlot = topHeapSize;
+        }
+        else if (isBetterSlot(slot, topHeap[0])) {
+            // Replace the worst move
+            freeSlot = topHeap[0];
+            topHeap[0] = slot;
+            siftDown(0);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return  the lowest points a move needs to be kept
+     */
+    @Override
+    public int getMinPoints () {
+        return (topHeapSize < numTopMoves) ? 0 : topPoints[topHeap[0]];
+    }
+
+    /**
+     * Takes the kept moves out of the visitor, which is left empty.
+     *
+     * @return  up to k moves, from the highest scoring to the lowest
+     */
+    public ArrayList<ScrabbleMove> removeTopMoves () {
+
+        // Take the worst move off the heap until it is empty
+        ScrabbleMove[] topMoves = new ScrabbleMove[topHeapSize];
+
+        while (topHeapSize > 0) {
+            int slot = topHeap[0];
+            ScrabbleMove move = new ScrabbleMove();
+
+            for (int i = 0; i < topSizes[slot]; i++) {
+                Square sqr = new Square();
+                int square = topSquares[slot * MAX_TILES + i];
+                sqr.row = square / PackedBoard.WIDTH;
+                sqr.col = square % PackedBoard.WIDTH;
+                sqr.letter = (char) topLetters[slot * MAX_TILES + i];
+                move.add(sqr);
+            }
+
+            move.points = topPoints[slot];
+            topHeapSize--;
+            topMoves[topHeapSize] = move;
+            topHeap[0] = topHeap[topHeapSize];
+            siftDown(0);
+        }
+
+        reset();
+        return new ArrayList<>(Arrays.asList(topMoves));
+    }
+
+    /**
+     * @param   slot    a slot storing a move
+     * @param   other   a slot storing another move
+     * @return          true if the move in slot comes before the move in other
+     */
+    private boolean isBetterSlot (int slot, int other) {
+
+        if (topPoints[slot] != topPoints[other]) {
+            return topPoints[slot] > topPoints[other];
+        }
+
+        // findBestMove() chooses a down move over an across move
+        if (topSteps[slot] != topSteps[other]) {
+            return topSteps[slot] == PackedBoard.DOWN;
+        }
+
+        if (topStartOrders[slot] != topStartOrders[other]) {
+            return topStartOrders[slot] < topStartOrders[other];
+        }
+
+        int size = topSizes[slot];
+        int otherSize = topSizes[other];
+
+        for (int i = 0; i < size && i < otherSize; i++) {
+            int letterIndex = topLetters[slot * MAX_TILES + i] & 0x1F;
+            int otherLetterIndex = topLetters[other * MAX_TILES + i] & 0x1F;
+
+            if (letterIndex != otherLetterIndex) {
+                return letterIndex < otherLetterIndex;
+            }
+        }
+
+        return size < otherSize;
+    }
+
+    /**
+     * Moves the slot at an index of the heap up until its parent is worse.
+     *
+     * @param   index   the index of the slot in the heap
+     */
+    private void siftUp (int index) {
+
+        int slot = topHeap[index];
+
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+
+            if (isBetterSlot(slot, topHeap[parent])) {
+                break;
+            }
+
+            topHeap[index] = topHeap[parent];
+            index = parent;
+        }
+
+        topHeap[index] = slot;
+    }
+
+    /**
+     * Moves the slot at an index of the heap down until its children are
+     * better.
+     *
+     * @param   index   the index of the slot in the heap
+     */
+    private void siftDown (int index) {
+
+        int slot = topHeap[index];
+
+        while (2 * index + 1 < topHeapSize) {
+            int child = 2 * index + 1;
+
+            // Compare with the worse of the children
+            if (child + 1 < topHeapSize &&
+                    isBetterSlot(topHeap[child], topHeap[child + 1])) {
+                child++;
+            }
+
+            if (isBetterSlot(topHeap[child], slot)) {
+                break;
+            }
+
+            topHeap[index] = topHeap[child];
+            index = child;
+        }
+
+        topHeap[index] = slot;
+    }
+}
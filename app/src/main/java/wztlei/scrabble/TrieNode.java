@@ -21,6 +21,11 @@ public class TrieNode {
     public boolean isTerminalNode;       // Stores if node completes a word
     public ArrayList<TrieNode> children; // Stores the possible next letters
 
+    // Stores the letters of the children as bits
+    // Ex. If the children have the letters 'A' and 'C',
+    //     then childMask == (1 << 0) | (1 << 2) == 5
+    public int childMask;
+
     // Stores the index of each letter of each children node
     // Ex. If a child has a letter 'C' at children [1],
     //     then letterIndexes['C'-'A'] == letterIndexes[2] == 1
@@ -28,8 +33,14 @@ public class TrieNode {
 
     // Constructor function
     public TrieNode() {
+        this(26);
+    }
+
+    // Constructor function for nodes which can have children with symbols
+    // other than the 26 letters, such as the separator in a gaddag
+    public TrieNode(int numSymbols) {
         children = new ArrayList<TrieNode>();
-        letterIndexes = new int[26];
+        letterIndexes = new int[numSymbols];
         Arrays.fill(letterIndexes, -1);
     }
 }
@@ -0,0 +1,543 @@
+/*
+ * WordListReader.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Reads a word list, one word per line, straight from the bytes of
+ *          the file into a DawgBuilder. Reading the lines with a Scanner into
+ *          a HashMap and checking each word with a regular expression took
+ *          most of the time needed to build the dawg of a large word list.
+ *
+ *          The bytes are parsed as they are read from the stream, a buffer
+ *          at a time, so the whole file is never held in memory. A word is
+ *          kept if it has at least 2 letters, all of them from A to Z, so
+ *          lines with lowercase letters or other bytes are skipped. Lines may
+ *          end with "\n" or "\r\n".
+ *
+ *          The words of a sorted list are inserted as they are read. If a
+ *          word is out of order, the words inserted so far are read back out
+ *          of the dawg and sorted together with the rest of the list.
+ *
+ *          The dawg can also be built by ParallelDawgBuilder. The bytes of a
+ *          sorted list are then split into runs at line breaks, and each
+ *          thread decodes the words of its own runs, so the words are never
+ *          collected into one list.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class WordListReader {
+
+    // True for the bytes of the letters from A to Z, which are the only
+    // bytes that a word may contain
+    private static final boolean[] IS_LETTER = new boolean[256];
+
+    static {
+        for (int c = 'A'; c <= 'Z'; c++) {
+            IS_LETTER[c] = true;
+        }
+    }
+
+    private static final Charset LATIN_1 = Charset.forName("ISO-8859-1");
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    // The stream that the buffer is refilled from, or null if the buffer
+    // already holds every byte to be read
+    private final InputStream inputStream;
+
+    // The bytes read from the stream but not parsed yet are buffer[pos] to
+    // buffer[end - 1], where pos is the start of the next line
+    private byte[] buffer;
+    private int pos;
+    private int end;
+
+    // The number of lines read so far, including those that are not words
+    private int numLines;
+
+    // The last word found is buffer[wordStart] to buffer[wordEnd - 1], and
+    // wordStart is also the start of its line
+    private int wordStart;
+    private int wordEnd;
+
+    // Constructor function for reading a stream
+    private WordListReader (InputStream inputStream) {
+        this.inputStream = inputStream;
+        this.buffer = new byte[BUFFER_SIZE];
+        this.pos = 0;
+        this.end = 0;
+    }
+
+    // Constructor function for reading the bytes from start up to but not
+    // including end
+    private WordListReader (byte[] bytes, int start, int end) {
+        this.inputStream = null;
+        this.buffer = bytes;
+        this.pos = start;
+        this.end = end;
+    }
+
+    /**
+     * Reads a word list and builds a minimized dawg out of its words. The
+     * input stream is read to the end but is not closed.
+     *
+     * @param   inputStream     the word list, one word per line
+     * @return                  a TrieNode that is the root of the dawg
+     * @throws  IOException     if the word list could not be read
+     */
+    public static TrieNode readDawg (InputStream inputStream) throws IOException {
+
+        WordListReader reader = new WordListReader(inputStream);
+        DawgBuilder dawgBuilder = new DawgBuilder();
+        String previousWord = "";
+        String word;
+
+        // Insert the words as they are read, as long as they are in order
+        while ((word = reader.nextWord()) != null) {
+
+            if (word.compareTo(previousWord) < 0) {
+                return readUnsortedDawg(dawgBuilder.finish(), word, reader);
+            }
+
+            dawgBuilder.insert(word);
+            previousWord = word;
+        }
+
+        return dawgBuilder.finish();
+    }
+
+    /**
+     * Same as readDawg(), but the dawg is built by ParallelDawgBuilder.
+     *
+     * @param   inputStream     the word list, one word per line
+     * @param   numThreads      the number of threads to build the dawg on
+     * @return                  a TrieNode that is the root of the dawg
+     * @throws  IOException             if the word list could not be read
+     * @throws  InterruptedException    if the thread was interrupted while
+     *                                  waiting for the other threads
+     */
+    public static TrieNode readDawg (InputStream inputStream, int numThreads)
+            throws IOException, InterruptedException {
+
+        byte[] bytes = readBytes(inputStream);
+
+        // Only the words of a sorted list can be split into runs as they are
+        if (!isSorted(bytes)) {
+            WordListReader reader = new WordListReader(bytes, 0, bytes.length);
+            ArrayList<String> words = new ArrayList<>();
+            String word;
+
+            while ((word = reader.nextWord()) != null) {
+                words.add(word);
+            }
+
+            Collections.sort(words);
+            return ParallelDawgBuilder.build(words, numThreads);
+        }
+
+        int[] runStarts = findRunStarts(bytes,
+                numThreads * ParallelDawgBuilder.RUNS_PER_THREAD);
+        ArrayList<ParallelDawgBuilder.Run> runs = new ArrayList<>();
+
+        for (int i = 0; i < runStarts.length - 1; i++) {
+            runs.add(new SliceRun(bytes, runStarts[i], runStarts[i + 1]));
+        }
+
+        return ParallelDawgBuilder.buildRuns(runs, numThreads);
+    }
+
+    /**
+     * Reads the words of a word list, in the order of the list. The input
+     * stream is read to the end but is not closed.
+     *
+     * @param   inputStream     the word list, one word per line
+     * @param   words           receives the words of the list
+     * @return                  the number of lines of the list, including
+     *                          the lines that are not words
+     * @throws  IOException     if the word list could not be read
+     */
+    static int readWords (InputStream inputStream, Collection<String> words)
+            throws IOException {
+
+        WordListReader reader = new WordListReader(inputStream);
+        String word;
+
+        while ((word = reader.nextWord()) != null) {
+            words.add(word);
+        }
+
+        return reader.numLines;
+    }
+
+    /**
+     * @param   word    the String to be checked
+     * @return          true if word has at least 2 letters, all of them
+     *                  from A to Z
+     */
+    public static boolean isWord (String word) {
+
+        if (word.length() < 2) {
+            return false;
+        }
+
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+
+            if (c >= IS_LETTER.length || !IS_LETTER[c]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks that the words of a word list are in order without creating a
+     * String for each of them.
+     *
+     * @param   bytes   the bytes of the word list
+     * @return          true if every word comes after or is the same as the
+     *                  word before it
+     * @throws  IOException     never, since no stream is read
+     */
+    private static boolean isSorted (byte[] bytes) throws IOException {
+
+        WordListReader reader = new WordListReader(bytes, 0, bytes.length);
+        int previousStart = 0;
+        int previousEnd = 0;
+
+        while (reader.findNextWord()) {
+
+            if (compareWords(bytes, reader.wordStart, reader.wordEnd,
+                    previousStart, previousEnd) < 0) {
+                return false;
+            }
+
+            previousStart = reader.wordStart;
+            previousEnd = reader.wordEnd;
+        }
+
+        return true;
+    }
+
+    /**
+     * @param   bytes       the bytes of the word list
+     * @param   start       the index of the first letter of a word
+     * @param   end         the index after the last letter of the word
+     * @param   otherStart  the index of the first letter of another word
+     * @param   otherEnd    the index after the last letter of the other word
+     * @return              a negative number, zero or a positive number if the
+     *                      word comes before, is the same as or comes after
+     *                      the other word, as for String.compareTo()
+     */
+    private static int compareWords (byte[] bytes, int start, int end,
+                                     int otherStart, int otherEnd) {
+
+        int length = end - start;
+        int otherLength = otherEnd - otherStart;
+
+        for (int i = 0; i < length && i < otherLength; i++) {
+            if (bytes[start + i] != bytes[otherStart + i]) {
+                return bytes[start + i] - bytes[otherStart + i];
+            }
+        }
+
+        return length - otherLength;
+    }
+
+    /**
+     * Splits a sorted word list into about numRuns runs of the same number
+     * of bytes. A run starts at the start of a line, and words that start
+     * with the same two letters are always in the same run.
+     *
+     * @param   bytes   the bytes of a sorted word list
+     * @param   numRuns the number of runs to aim for
+     * @return          the index of the first byte of each run, followed by
+     *                  the number of bytes
+     * @throws  IOException     never, since no stream is read
+     */
+    private static int[] findRunStarts (byte[] bytes, int numRuns)
+            throws IOException {
+
+        int[] runStarts = new int[numRuns + 1];
+        int numStarts = 1;
+
+        for (int i = 1; i < numRuns; i++) {
+            int target = (int) ((long) bytes.length * i / numRuns);
+
+            // Start at the next line that starts at or after the target
+            while (target > 0 && target < bytes.length &&
+                    bytes[target - 1] != '\n') {
+                target++;
+            }
+
+            // Move past the words that start with the same two letters as
+            // the first word after the target
+            WordListReader reader = new WordListReader(bytes, target, bytes.length);
+
+            if (!reader.findNextWord()) {
+                break;
+            }
+
+            int prefixStart = reader.wordStart;
+            int runStart = -1;
+
+            while (reader.findNextWord()) {
+                if (bytes[reader.wordStart] != bytes[prefixStart] ||
+                        bytes[reader.wordStart + 1] != bytes[prefixStart + 1]) {
+                    runStart = reader.wordStart;
+                    break;
+                }
+            }
+
+            if (runStart < 0) {
+                break;
+            }
+
+            if (runStart > runStarts[numStarts - 1]) {
+                runStarts[numStarts++] = runStart;
+            }
+        }
+
+        runStarts[numStarts++] = bytes.length;
+        return Arrays.copyOf(runStarts, numStarts);
+    }
+
+    /**
+     * Builds the dawg of a word list that is not in alphabetical order by
+     * sorting its words, starting with those already in the partial dawg.
+     *
+     * @param   partialRoot     the root of the dawg of the words read before
+     *                          the first word that is out of order
+     * @param   word            the first word that is out of order
+     * @param   reader          reads the rest of the words
+     * @return                  a TrieNode that is the root of the dawg
+     * @throws  IOException     if the word list could not be read
+     */
+    private static TrieNode readUnsortedDawg (TrieNode partialRoot, String word,
+                                              WordListReader reader)
+            throws IOException {
+
+        ArrayList<String> words = new ArrayList<>();
+        addWords(partialRoot, new StringBuilder(), words);
+
+        do {
+            words.add(word);
+        } while ((word = reader.nextWord()) != null);
+
+        Collections.sort(words);
+        DawgBuilder dawgBuilder = new DawgBuilder();
+
+        for (String sortedWord : words) {
+            dawgBuilder.insert(sortedWord);
+        }
+
+        return dawgBuilder.finish();
+    }
+
+    /**
+     * Adds the words below a node of a dawg in alphabetical order.
+     *
+     * @param   node    a node of the dawg
+     * @param   prefix  the letters on the path from the root to the node
+     * @param   words   receives each word that starts with prefix
+     */
+    private static void addWords (TrieNode node, StringBuilder prefix,
+                                  ArrayList<String> words) {
+
+        for (TrieNode child : node.children) {
+            prefix.append(child.letter);
+
+            if (child.isTerminalNode) {
+                words.add(prefix.toString());
+            }
+
+            addWords(child, prefix, words);
+            prefix.setLength(prefix.length() - 1);
+        }
+    }
+
+    /**
+     * Skips the lines that are not words.
+     *
+     * @return  the word on the next line that is a word, or null if there
+     *          are no more words
+     * @throws  IOException     if the stream could not be read
+     */
+    private String nextWord () throws IOException {
+
+        if (!findNextWord()) {
+            return null;
+        }
+
+        return new String(buffer, wordStart, wordEnd - wordStart, LATIN_1);
+    }
+
+    /**
+     * Same as nextWord(), but only finds where the word is in the buffer,
+     * which is until the next word is found.
+     *
+     * @return  false if there are no more words
+     * @throws  IOException     if the stream could not be read
+     */
+    private boolean findNextWord () throws IOException {
+
+        while (true) {
+            int lineEnd = pos;
+
+            // Read more of the stream while the line goes on past the bytes
+            // in the buffer
+            while (true) {
+                byte[] bytes = buffer;
+                int bytesEnd = end;
+
+                while (lineEnd < bytesEnd && bytes[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+
+                if (lineEnd < bytesEnd) {
+                    break;
+                }
+
+                int oldPos = pos;
+                boolean isMoreRead = readMore();
+                lineEnd -= oldPos - pos;
+
+                if (!isMoreRead) {
+                    break;
+                }
+            }
+
+            // Nothing is left after the last line break
+            if (lineEnd == pos && pos == end) {
+                return false;
+            }
+
+            int start = pos;
+            pos = Math.min(lineEnd + 1, end);
+            numLines++;
+
+            if (lineEnd > start && buffer[lineEnd - 1] == '\r') {
+                lineEnd--;
+            }
+
+            if (lineEnd - start >= 2 && isWord(start, lineEnd)) {
+                wordStart = start;
+                wordEnd = lineEnd;
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Moves the bytes not parsed yet to the start of the buffer, growing it
+     * if a single line fills it, and reads as many bytes after them as fit.
+     *
+     * @return  false if there was nothing more to read
+     * @throws  IOException     if the stream could not be read
+     */
+    private boolean readMore () throws IOException {
+
+        if (inputStream == null) {
+            return false;
+        }
+
+        int numKept = end - pos;
+        byte[] newBuffer = (numKept == buffer.length) ?
+                new byte[2 * buffer.length] : buffer;
+
+        System.arraycopy(buffer, pos, newBuffer, 0, numKept);
+        buffer = newBuffer;
+        pos = 0;
+        end = numKept;
+
+        int numBytes = inputStream.read(buffer, end, buffer.length - end);
+
+        if (numBytes <= 0) {
+            return false;
+        }
+
+        end += numBytes;
+        return true;
+    }
+
+    /**
+     * @param   start   the index of the first byte of the line
+     * @param   end     the index after the last byte of the line
+     * @return          true if every byte of the line is a letter from A to Z
+     */
+    private boolean isWord (int start, int end) {
+
+        for (int i = start; i < end; i++) {
+            if (!IS_LETTER[buffer[i] & 0xFF]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @param   inputStream     the stream to be read to the end
+     * @return                  all the bytes of the stream
+     * @throws  IOException     if the stream could not be read
+     */
+    private static byte[] readBytes (InputStream inputStream) throws IOException {
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream
+                (Math.max(inputStream.available(), BUFFER_SIZE));
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int numBytes;
+
+        while ((numBytes = inputStream.read(buffer)) != -1) {
+            outputStream.write(buffer, 0, numBytes);
+        }
+
+        return outputStream.toByteArray();
+    }
+
+    // The words of the lines of a sorted word list from start up to but not
+    // including end, which are decoded by the thread that builds the run
+    private static class SliceRun implements ParallelDawgBuilder.Run {
+
+        private final byte[] bytes;
+        private final int start;
+        private final int end;
+
+        SliceRun (byte[] bytes, int start, int end) {
+            this.bytes = bytes;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public void insertInto (DawgBuilder dawgBuilder) {
+
+            WordListReader reader = new WordListReader(bytes, start, end);
+            String word;
+
+            try {
+                while ((word = reader.nextWord()) != null) {
+                    dawgBuilder.insert(word);
+                }
+            } catch (IOException ex) {
+                // Only a reader of a stream can fail
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+}
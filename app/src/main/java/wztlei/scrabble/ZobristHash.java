@@ -0,0 +1,121 @@
+/*
+ * ZobristHash.java
+ *
+ * This code is the property of its creator William Lei.
+ *
+ * Purpose: Hashes the letters on a board and the tiles in a rack into 64-bit
+ *          numbers that can be used to look up positions that were already
+ *          searched.
+ *
+ *          The board hash is the XOR of one random key for each letter on each
+ *          square, so placing or removing a tile only takes one XOR with the
+ *          key of its square and letter. The rack hash is the XOR of one
+ *          random key for each type of tile and the number of those tiles,
+ *          so it does not depend on the order of the tiles.
+ *
+ *          The keys come from a fixed seed so that hashes are the same every
+ *          time the app runs.
+ *
+ * Contact Email: leiw9425@gmail.com
+ */
+
+package wztlei.scrabble;
+
+import java.util.Random;
+
+/**
+ *
+ * @author  William Lei
+ */
+public class ZobristHash {
+
+    // The number of keys per square, one for each letter & 0x3F, which
+    // keeps uppercase and lowercase letters apart
+    private static final int NUM_LETTER_KEYS = 64;
+
+    // The number of keys per type of tile, one for each count up to 15
+    private static final int NUM_COUNT_KEYS = 16;
+
+    private static final long SEED = 0x5CAB81E5L;
+
+    // The key of each letter on each square, at
+    // square * NUM_LETTER_KEYS + (letter & 0x3F)
+    private static final long[] SQUARE_KEYS;
+
+    // The key of each type of tile and count, at
+    // type * NUM_COUNT_KEYS + count
+    private static final long[] RACK_KEYS;
+
+    static {
+        Random random = new Random(SEED);
+
+        SQUARE_KEYS = new long[PackedBoard.NUM_SQUARES * NUM_LETTER_KEYS];
+        RACK_KEYS = new long[27 * NUM_COUNT_KEYS];
+
+        for (int i = 0; i < SQUARE_KEYS.length; i++) {
+            SQUARE_KEYS[i] = random.nextLong();
+        }
+
+        for (int i = 0; i < RACK_KEYS.length; i++) {
+            RACK_KEYS[i] = random.nextLong();
+        }
+    }
+
+    // The hash of an empty board and of an empty rack
+    public static final long EMPTY = 0;
+
+    /**
+     * @param   row     the row of a square
+     * @param   col     the column of a square
+     * @param   letter  a letter on the square, or '.' if it is empty
+     * @return          the key to XOR into the hash of the board to place or
+     *                  remove the letter, which is 0 for an empty square
+     */
+    public static long squareKey (int row, int col, char letter) {
+
+        if (letter == '.') {
+            return 0;
+        }
+
+        return SQUARE_KEYS[PackedBoard.index(row, col) * NUM_LETTER_KEYS +
+                (letter & 0x3F)];
+    }
+
+    /**
+     * Hashes a whole board, which is only needed once, since the hash can
+     * be updated with squareKey() as tiles are placed.
+     *
+     * @param   board   stores the state of the Scrabble board
+     * @return          the hash of the letters on the board
+     */
+    public static long hashBoard (Square[][] board) {
+
+        long hash = EMPTY;
+
+        for (int row = 0; row < board.length; row++) {
+            for (int col = 0; col < board[row].length; col++) {
+                hash ^= squareKey(row, col, board[row][col].letter);
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * @param   rack    stores the number of each possible tile
+     * @return          the hash of the tiles in the rack
+     */
+    public static long hashRack (int[] rack) {
+
+        long hash = EMPTY;
+
+        for (int i = 0; i < 27; i++) {
+            if (rack[i] > 0) {
+                hash ^= RACK_KEYS[i * NUM_COUNT_KEYS +
+                        Math.min(rack[i], NUM_COUNT_KEYS - 1)];
+            }
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,396 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the AsyncMoveGenerator finds the same moves as a MoveGenerator,
+ * that the better moves it reports while searching lead up to the best move,
+ * also in the parallel search set up by default, and that cancelled searches
+ * and searches past their deadlines stop with moves that are not marked as
+ * proven to be the best, and that a search that throws still tells the
+ * listener.
+ */
+public class AsyncMoveGeneratorTest {
+
+    private static ScrabbleEngine engine;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+    }
+
+    @Test
+    public void wholeGames_sameBestMoves () throws Exception {
+        checkWholeGames(null, 2028);
+    }
+
+    @Test
+    public void wholeGames_sameBestEquityMoves () throws Exception {
+        checkWholeGames(LeaveTable.estimate(engine.tiles), 2029);
+    }
+
+    @Test
+    public void expiredDeadline_moveNotProvenOptimal () throws Exception {
+        checkExpiredDeadline(null);
+    }
+
+    @Test
+    public void expiredDeadline_parallelMoveNotProvenOptimal () throws Exception {
+        ParallelMoveGenerator parallelGenerator = new ParallelMoveGenerator(engine, 2);
+
+        try {
+            checkExpiredDeadline(parallelGenerator);
+        } finally {
+            parallelGenerator.shutdown();
+        }
+    }
+
+    @Test
+    public void betterMoves_leadUpToBestMove () throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+        PackedBoard packedBoard = PackedBoard.fromDualBoard(new DualBoard(engine, board));
+        int[] rack = engine.fillRack("AEIRST*");
+
+        AsyncMoveGenerator asyncGenerator = new AsyncMoveGenerator
+                (new MoveGenerator(engine), null);
+        asyncGenerator.progressIntervalMillis = 0;
+        final ArrayList<ScrabbleMove> betterMoves = new ArrayList<>();
+
+        SearchListener listener = new SearchListener() {
+            @Override
+            public void onBetterMove (SearchHandle handle, ScrabbleMove move) {
+                betterMoves.add(move);
+            }
+
+            @Override
+            public void onSearchFinished (SearchHandle handle, SearchResult result) {
+            }
+
+            @Override
+            public void onSearchFailed (SearchHandle handle, Throwable error) {
+            }
+        };
+
+        try {
+            SearchResult result = asyncGenerator.findBestMove(packedBoard, rack,
+                    0, TimeUnit.MILLISECONDS, listener).get();
+
+            assertTrue(result.isProvenOptimal());
+            assertFalse(betterMoves.isEmpty());
+
+            // A move can beat the last one by breaking a tie in points
+            int lastPoints = 0;
+
+            for (ScrabbleMove move : betterMoves) {
+                assertTrue(move.points >= lastPoints);
+                assertTrue(move.points <= result.getMove().points);
+                lastPoints = move.points;
+            }
+        } finally {
+            asyncGenerator.shutdown();
+        }
+    }
+
+    @Test
+    public void defaultSettings_betterMovesBeforeResult () throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+        PackedBoard packedBoard = PackedBoard.fromDualBoard(new DualBoard(engine, board));
+        int[] rack = engine.fillRack("AEIRST*");
+
+        // Built the same way as by MainActivity on Android 5.0 and later
+        SearchSettings searchSettings = new SearchSettings();
+        MoveGenerator generator = new MoveGenerator(engine);
+        generator.usePruning = searchSettings.usePruning;
+        generator.leaveTable = searchSettings.useLeaveValues ?
+                LeaveTable.estimate(engine.tiles) : null;
+        ParallelMoveGenerator parallelGenerator = new ParallelMoveGenerator(engine);
+        parallelGenerator.usePruning = searchSettings.usePruning;
+        AsyncMoveGenerator asyncGenerator = new AsyncMoveGenerator
+                (generator, parallelGenerator);
+        asyncGenerator.progressIntervalMillis = 0;
+
+        final List<ScrabbleMove> betterMoves =
+                Collections.synchronizedList(new ArrayList<ScrabbleMove>());
+        final AtomicInteger numBetterMovesBeforeResult = new AtomicInteger(-1);
+        final CountDownLatch searchFinished = new CountDownLatch(1);
+
+        SearchListener listener = new SearchListener() {
+            @Override
+            public void onBetterMove (SearchHandle handle, ScrabbleMove move) {
+                betterMoves.add(move);
+            }
+
+            @Override
+            public void onSearchFinished (SearchHandle handle, SearchResult result) {
+                numBetterMovesBeforeResult.set(betterMoves.size());
+                searchFinished.countDown();
+            }
+
+            @Override
+            public void onSearchFailed (SearchHandle handle, Throwable error) {
+            }
+        };
+
+        try {
+            SearchResult result = asyncGenerator.findBestMove(packedBoard, rack,
+                    0, TimeUnit.MILLISECONDS, listener).get();
+            searchFinished.await();
+
+            assertTrue(result.isProvenOptimal());
+            assertTrue(numBetterMovesBeforeResult.get() > 0);
+
+            for (ScrabbleMove move : betterMoves) {
+                assertTrue(move.points <= result.getMove().points);
+            }
+        } finally {
+            asyncGenerator.shutdown();
+            parallelGenerator.shutdown();
+        }
+    }
+
+    @Test
+    public void searchThrowsError_listenerToldAndNextSearchRuns () throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+        PackedBoard packedBoard = PackedBoard.fromDualBoard(new DualBoard(engine, board));
+        int[] rack = engine.fillRack("AEIRST*");
+
+        // Only the first search throws
+        final AtomicInteger numSearches = new AtomicInteger(0);
+        MoveGenerator throwingGenerator = new MoveGenerator(engine) {
+            @Override
+            public boolean visitMoves (PackedBoard board, int[] rack,
+                                       MoveVisitor visitor) {
+                if (numSearches.getAndIncrement() == 0) {
+                    throw new StackOverflowError();
+                }
+
+                return super.visitMoves(board, rack, visitor);
+            }
+        };
+
+        AsyncMoveGenerator asyncGenerator = new AsyncMoveGenerator
+                (throwingGenerator, null);
+        final ArrayList<Throwable> errors = new ArrayList<>();
+        final AtomicInteger numResults = new AtomicInteger(0);
+        final CountDownLatch searchFailed = new CountDownLatch(1);
+
+        SearchListener listener = new SearchListener() {
+            @Override
+            public void onBetterMove (SearchHandle handle, ScrabbleMove move) {
+            }
+
+            @Override
+            public void onSearchFinished (SearchHandle handle, SearchResult result) {
+                numResults.incrementAndGet();
+            }
+
+            @Override
+            public void onSearchFailed (SearchHandle handle, Throwable error) {
+                errors.add(error);
+                searchFailed.countDown();
+            }
+        };
+
+        try {
+            SearchHandle handle = asyncGenerator.findBestMove(packedBoard, rack,
+                    0, TimeUnit.MILLISECONDS, listener);
+
+            try {
+                handle.get();
+                fail("The search should have thrown");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof StackOverflowError);
+            }
+
+            searchFailed.await();
+
+            assertTrue(handle.isDone());
+            assertEquals(1, errors.size());
+            assertTrue(errors.get(0) instanceof StackOverflowError);
+            assertEquals(0, numResults.get());
+
+            // The background thread still runs the next search
+            SearchResult result = asyncGenerator.findBestMove(packedBoard,
+                    rack, 0, TimeUnit.MILLISECONDS, null).get();
+
+            assertTrue(result.isProvenOptimal());
+            assertTrue(result.getMove().points > 0);
+        } finally {
+            asyncGenerator.shutdown();
+        }
+    }
+
+    @Test
+    public void cancel_listenerNotCalled () throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+        PackedBoard packedBoard = PackedBoard.fromDualBoard(new DualBoard(engine, board));
+        int[] rack = engine.fillRack("AEIRST*");
+
+        AsyncMoveGenerator asyncGenerator = new AsyncMoveGenerator
+                (new MoveGenerator(engine), null);
+        final CountDownLatch firstSearchFinished = new CountDownLatch(1);
+        final CountDownLatch secondSearchCancelled = new CountDownLatch(1);
+        final AtomicInteger numResults = new AtomicInteger(0);
+
+        SearchListener blockingListener = new SearchListener() {
+            @Override
+            public void onBetterMove (SearchHandle handle, ScrabbleMove move) {
+            }
+
+            @Override
+            public void onSearchFinished (SearchHandle handle, SearchResult result) {
+                firstSearchFinished.countDown();
+
+                // Hold up the background thread until the second search
+                // has been cancelled
+                try {
+                    secondSearchCancelled.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void onSearchFailed (SearchHandle handle, Throwable error) {
+            }
+        };
+
+        SearchListener countingListener = new SearchListener() {
+            @Override
+            public void onBetterMove (SearchHandle handle, ScrabbleMove move) {
+            }
+
+            @Override
+            public void onSearchFinished (SearchHandle handle, SearchResult result) {
+                numResults.incrementAndGet();
+            }
+
+            @Override
+            public void onSearchFailed (SearchHandle handle, Throwable error) {
+            }
+        };
+
+        try {
+            asyncGenerator.findBestMove(packedBoard, rack, 0,
+                    TimeUnit.MILLISECONDS, blockingListener);
+            firstSearchFinished.await();
+
+            SearchHandle handle = asyncGenerator.findBestMove(packedBoard, rack,
+                    0, TimeUnit.MILLISECONDS, countingListener);
+            handle.cancel();
+            secondSearchCancelled.countDown();
+
+            SearchResult result = handle.get();
+
+            assertTrue(handle.isCancelled());
+            assertFalse(result.isProvenOptimal());
+            assertEquals(0, numResults.get());
+        } finally {
+            asyncGenerator.shutdown();
+        }
+    }
+
+    private static void checkExpiredDeadline (ParallelMoveGenerator parallelGenerator)
+            throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+        PackedBoard packedBoard = PackedBoard.fromDualBoard(new DualBoard(engine, board));
+        int[] rack = engine.fillRack("AEIRST*");
+
+        AsyncMoveGenerator asyncGenerator = new AsyncMoveGenerator
+                (new MoveGenerator(engine), parallelGenerator);
+
+        try {
+            // The deadline has passed by the time the search starts
+            SearchHandle handle = asyncGenerator.findBestMove(packedBoard,
+                    rack, 1, TimeUnit.NANOSECONDS, null);
+            SearchResult result = handle.get();
+
+            assertTrue(handle.isDone());
+            assertFalse(result.isProvenOptimal());
+
+            // Without a deadline, the same search tries every move
+            SearchResult fullResult = asyncGenerator.findBestMove(packedBoard,
+                    rack, 0, TimeUnit.MILLISECONDS, null).get();
+
+            assertTrue(fullResult.isProvenOptimal());
+            assertTrue(fullResult.getMove().points > 0);
+            assertTrue(result.getMove().points <= fullResult.getMove().points);
+        } finally {
+            asyncGenerator.shutdown();
+        }
+    }
+
+    private static void checkWholeGames (LeaveTable leaveTable, long seed)
+            throws Exception {
+        MoveGenerator generator = new MoveGenerator(engine);
+        generator.leaveTable = leaveTable;
+        generator.usePruning = true;
+
+        MoveGenerator asyncSearchGenerator = new MoveGenerator(engine);
+        asyncSearchGenerator.leaveTable = leaveTable;
+        asyncSearchGenerator.usePruning = true;
+        AsyncMoveGenerator asyncGenerator = new AsyncMoveGenerator
+                (asyncSearchGenerator, null);
+        Random random = new Random(seed);
+
+        try {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+                ScrabbleMove bestMove = (leaveTable != null) ?
+                        generator.findBestEquityMove(packedBoard, rack) :
+                        generator.findBestMove(packedBoard, rack);
+                SearchResult result = asyncGenerator.findBestMove(packedBoard,
+                        rack, 0, TimeUnit.MILLISECONDS, null).get();
+
+                assertTrue(result.isProvenOptimal());
+                assertSameMove(bestMove, result.getMove());
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                dualBoard.addMove(bestMove);
+            }
+        } finally {
+            asyncGenerator.shutdown();
+        }
+    }
+
+    private static void assertSameMove (ScrabbleMove expected,
+                                        ScrabbleMove actual) {
+        assertEquals(expected.points, actual.points);
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).row, actual.get(i).row);
+            assertEquals(expected.get(i).col, actual.get(i).col);
+            assertEquals(expected.get(i).letter, actual.get(i).letter);
+        }
+    }
+}
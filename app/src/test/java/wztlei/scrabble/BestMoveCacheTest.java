@@ -0,0 +1,71 @@
+package wztlei.scrabble;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a BestMoveCache forgets the least recently used positions,
+ * counts its hits and misses and hands out copies of its moves.
+ */
+public class BestMoveCacheTest {
+
+    @Test
+    public void get_findsRecentPositions () {
+        BestMoveCache cache = new BestMoveCache(2);
+        int[] rack = new int[27];
+        rack[0] = 2;
+        rack[26] = 1;
+
+        cache.put(1, rack, newMove(10));
+        cache.put(2, rack, newMove(20));
+
+        // Using position 1 makes position 2 the least recently used one
+        assertEquals(10, cache.get(1, rack).points);
+        cache.put(3, rack, newMove(30));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(2, rack));
+        assertEquals(30, cache.get(3, rack).points);
+
+        // The same tiles in a different rack are the same position
+        int[] otherRack = new int[27];
+        otherRack[26] = 1;
+        otherRack[0] = 2;
+        assertEquals(10, cache.get(1, otherRack).points);
+
+        otherRack[0] = 1;
+        assertNull(cache.get(1, otherRack));
+
+        assertEquals(3, cache.getNumHits());
+        assertEquals(2, cache.getNumMisses());
+    }
+
+    @Test
+    public void get_returnsCopies () {
+        BestMoveCache cache = new BestMoveCache(1);
+        int[] rack = new int[27];
+        ScrabbleMove move = newMove(10);
+
+        cache.put(0, rack, move);
+        move.get(0).letter = 'Z';
+        move.points = 0;
+
+        ScrabbleMove cachedMove = cache.get(0, rack);
+        cachedMove.get(0).letter = 'Y';
+
+        assertEquals(10, cache.get(0, rack).points);
+        assertEquals('A', cache.get(0, rack).get(0).letter);
+    }
+
+    private static ScrabbleMove newMove (int points) {
+        ScrabbleMove move = new ScrabbleMove();
+        Square sqr = new Square();
+        sqr.row = 8;
+        sqr.col = 8;
+        sqr.letter = 'A';
+        move.add(sqr);
+        move.points = points;
+        return move;
+    }
+}
@@ -0,0 +1,63 @@
+package wztlei.scrabble;
+
+import java.util.HashMap;
+
+/**
+ * Times updateDownCrossChecks() against updateDownCrossChecksByLookup() on
+ * the example game board. Run it from the directory of the app module with
+ * the name of a word list in the assets, such as collins_2015_words.txt.
+ */
+public class CrossCheckBenchmark {
+
+    private static final int NUM_WARMUP_ROUNDS = 2000;
+    private static final int NUM_ROUNDS = 5000;
+
+    public static void main (String[] args) throws Exception {
+
+        String fileName = args.length > 0 ? args[0] : "collins_2015_words.txt";
+        HashMap<String, Integer> words = TestData.readWords(fileName);
+        ScrabbleEngine engine = new ScrabbleEngine(words, TestData.readTiles());
+
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+
+        // Alternate between the two methods so that both are warmed up
+        for (int round = 0; round < 3; round++) {
+            long lookupNanos = time(engine, board, true);
+            long walkNanos = time(engine, board, false);
+
+            System.out.printf("lookup %.1f us, lexicon walk %.1f us, %.1fx%n",
+                    lookupNanos / 1000.0, walkNanos / 1000.0,
+                    (double) lookupNanos / walkNanos);
+        }
+    }
+
+    /**
+     * @return  the mean number of nanoseconds taken to update the board
+     */
+    private static long time (ScrabbleEngine engine, Square[][] board,
+                              boolean byLookup) {
+
+        for (int i = 0; i < NUM_WARMUP_ROUNDS; i++) {
+            update(engine, board, byLookup);
+        }
+
+        long startTime = System.nanoTime();
+
+        for (int i = 0; i < NUM_ROUNDS; i++) {
+            update(engine, board, byLookup);
+        }
+
+        return (System.nanoTime() - startTime) / NUM_ROUNDS;
+    }
+
+    private static void update (ScrabbleEngine engine, Square[][] board,
+                                boolean byLookup) {
+        if (byLookup) {
+            engine.updateDownCrossChecksByLookup(board);
+        }
+        else {
+            engine.updateDownCrossChecks(board);
+        }
+    }
+}
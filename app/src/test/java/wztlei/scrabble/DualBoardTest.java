@@ -0,0 +1,120 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the inverted board kept by a DualBoard stays the same as the
+ * one created by invertBoard() and that it finds the same best moves.
+ * The hash of the board, which is updated as tiles are placed, must also
+ * stay the same as the hash of the whole board, and the PackedBoard kept in
+ * step must stay the same as packing the whole board, without changing a
+ * PackedBoard that was handed out before.
+ */
+public class DualBoardTest {
+
+    private static ScrabbleEngine engine;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+    }
+
+    @Test
+    public void wholeGames_matchInvertedBoard () throws Exception {
+        Random random = new Random(2020);
+
+        for (int game = 0; game < 4; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            Square[][] board = TestData.readBoard(engine);
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+            String emptyBoard = engine.boardTilesToString(board);
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                ScrabbleMove dualMove = engine.findBestMove(dualBoard, rack);
+                ScrabbleMove bestMove = engine.findBestMove(board, rack);
+                assertEquals(bestMove.points, dualMove.points);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                // Hold on to the PackedBoard on even turns, so that it is
+                // copied by the move, which is then updated in place by the
+                // move of the next turn
+                PackedBoard heldBoard = null;
+                PackedBoard heldBoardBefore = null;
+
+                if (turn % 2 == 0) {
+                    heldBoard = dualBoard.getPackedBoard();
+                    heldBoardBefore = PackedBoard.fromDualBoard(dualBoard);
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                engine.addMoveToBoard(board, bestMove);
+                dualBoard.addMove(bestMove);
+
+                if (heldBoard != null) {
+                    assertSamePackedBoard(heldBoardBefore, heldBoard);
+                }
+                else {
+                    assertSamePackedBoard(PackedBoard.fromDualBoard(dualBoard),
+                            dualBoard.getPackedBoard());
+                }
+
+                assertEquals(engine.boardTilesToString(board),
+                        engine.boardTilesToString(dualBoard.across));
+                assertSameProperties(engine.invertBoard(board), dualBoard.down);
+                assertEquals(ZobristHash.hashBoard(board), dualBoard.getHash());
+            }
+
+            dualBoard.fillWithString(emptyBoard);
+            assertTrue(dualBoard.isEmpty());
+            assertSameProperties(engine.invertBoard(dualBoard.across), dualBoard.down);
+            assertEquals(ZobristHash.EMPTY, dualBoard.getHash());
+            assertSamePackedBoard(PackedBoard.fromDualBoard(dualBoard),
+                    dualBoard.getPackedBoard());
+        }
+    }
+
+    private static void assertSamePackedBoard (PackedBoard expected,
+                                               PackedBoard actual) {
+        assertArrayEquals(expected.letters, actual.letters);
+        assertArrayEquals(expected.letterMultipliers, actual.letterMultipliers);
+        assertArrayEquals(expected.wordMultipliers, actual.wordMultipliers);
+        assertArrayEquals(expected.downCrossChecks, actual.downCrossChecks);
+        assertArrayEquals(expected.acrossCrossChecks, actual.acrossCrossChecks);
+        assertArrayEquals(expected.downCrossScores, actual.downCrossScores);
+        assertArrayEquals(expected.acrossCrossScores, actual.acrossCrossScores);
+        assertArrayEquals(expected.acrossMinLengths, actual.acrossMinLengths);
+        assertArrayEquals(expected.downMinLengths, actual.downMinLengths);
+    }
+
+    private static void assertSameProperties (Square[][] expected,
+                                              Square[][] actual) {
+        for (int row = 1; row <= 15; row++) {
+            for (int col = 1; col <= 15; col++) {
+                String message = "row " + row + " col " + col;
+
+                assertEquals(message, expected[row][col].letter,
+                        actual[row][col].letter);
+                assertEquals(message, expected[row][col].minAcrossWordLength,
+                        actual[row][col].minAcrossWordLength);
+
+                if (expected[row][col].letter == '.') {
+                    assertEquals(message, expected[row][col].downCrossCheck,
+                            actual[row][col].downCrossCheck);
+                }
+            }
+        }
+    }
+}
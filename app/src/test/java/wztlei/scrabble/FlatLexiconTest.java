@@ -0,0 +1,111 @@
+package wztlei.scrabble;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class FlatLexiconTest {
+
+    @Test
+    public void fromDawg_containsSameWords () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("common_1000_words.txt");
+        ScrabbleEngine engine = new ScrabbleEngine(words, TestData.readTiles());
+        FlatLexicon lexicon = FlatLexicon.fromTrie(engine.createWordTrie());
+
+        for (String word : words.keySet()) {
+            boolean isValid = word.length() >= 2 && word.matches("[A-Z]+");
+            assertEquals(word, isValid, lexicon.contains(word));
+        }
+
+        assertFalse(lexicon.contains("ABILIT"));
+        assertFalse(lexicon.contains("ABILITYS"));
+        assertFalse(lexicon.contains(""));
+    }
+
+    @Test
+    public void child_matchesChildMask () throws Exception {
+        HashMap<String, Integer> words = new HashMap<>();
+        words.put("CAT", 1);
+        words.put("CUT", 1);
+        words.put("COT", 1);
+        FlatLexicon lexicon = new ScrabbleEngine(words, TestData.readTiles()).lexicon;
+
+        int c = lexicon.child(lexicon.root(), 'C' - 'A');
+        int vowels = (1 << ('A' - 'A')) | (1 << ('O' - 'A')) | (1 << ('U' - 'A'));
+        assertEquals(1 << ('C' - 'A'), lexicon.childMask(lexicon.root()));
+        assertEquals(vowels, lexicon.childMask(c));
+
+        for (int letterIndex = 0; letterIndex < 26; letterIndex++) {
+            int child = lexicon.child(c, letterIndex);
+
+            if ((vowels & (1 << letterIndex)) == 0) {
+                assertEquals(FlatLexicon.NO_CHILD, child);
+            }
+            else {
+                assertEquals(letterIndex, FlatLexicon.letterIndex(child));
+                assertEquals(child, lexicon.childInMask(c, vowels, letterIndex));
+                assertTrue(FlatLexicon.isTerminal(lexicon.child(child, 'T' - 'A')));
+            }
+        }
+    }
+
+    @Test
+    public void maxSuffixLength_countsLongestWord () throws Exception {
+        HashMap<String, Integer> words = new HashMap<>();
+        words.put("CAT", 1);
+        words.put("CATS", 1);
+        words.put("CATTLE", 1);
+        words.put("DO", 1);
+        FlatLexicon lexicon = new ScrabbleEngine(words, TestData.readTiles()).lexicon;
+
+        int c = lexicon.child(lexicon.root(), 'C' - 'A');
+        int ca = lexicon.child(c, 'A' - 'A');
+        int cat = lexicon.child(ca, 'T' - 'A');
+        int d = lexicon.child(lexicon.root(), 'D' - 'A');
+        int dO = lexicon.child(d, 'O' - 'A');
+
+        assertEquals(6, lexicon.maxSuffixLength(lexicon.root()));
+        assertEquals(5, lexicon.maxSuffixLength(c));
+        assertEquals(3, lexicon.maxSuffixLength(cat));
+        assertEquals(1, lexicon.maxSuffixLength(d));
+        assertEquals(0, lexicon.maxSuffixLength(dO));
+    }
+
+    @Test
+    public void writeThenMap_containsSameWords () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("common_1000_words.txt");
+        FlatLexicon lexicon = new ScrabbleEngine(words, TestData.readTiles()).lexicon;
+
+        File file = File.createTempFile("words", ".lex");
+        file.deleteOnExit();
+        FileOutputStream outputStream = new FileOutputStream(file);
+        lexicon.write(outputStream);
+        outputStream.close();
+
+        FlatLexicon mappedLexicon = FlatLexicon.map(file);
+
+        assertEquals(lexicon.root(), mappedLexicon.root());
+        assertArrayEquals(lexicon.edges, mappedLexicon.edges);
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsOtherVersions () throws Exception {
+        HashMap<String, Integer> words = new HashMap<>();
+        words.put("CAT", 1);
+        FlatLexicon lexicon = new ScrabbleEngine(words, TestData.readTiles()).lexicon;
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        lexicon.write(outputStream);
+        ByteBuffer buffer = ByteBuffer.wrap(outputStream.toByteArray());
+        buffer.putInt(4, FlatLexicon.FORMAT_VERSION + 1);
+
+        FlatLexicon.read(buffer);
+    }
+}
@@ -0,0 +1,67 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the gaddag move generator finds moves worth exactly as many
+ * points as the ones found by extendRight() over whole games.
+ */
+public class GaddagMoveGeneratorTest {
+
+    private static ScrabbleEngine engine;
+    private static GaddagMoveGenerator generator;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+        generator = new GaddagMoveGenerator(engine, new Gaddag(words.keySet()));
+    }
+
+    @Test
+    public void testGameBoard_sameBestMovePoints () throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+
+        for (String rackStr : new String[] {"ENTIREE", "QUIZ*AB", "**SATIRE"}) {
+            int[] rack = engine.fillRack(rackStr);
+
+            assertEquals(engine.findBestAcrossMove(board, rack).points,
+                    generator.findBestAcrossMove(board, rack).points);
+            assertEquals(engine.findBestDownMove(board, rack).points,
+                    generator.findBestDownMove(board, rack).points);
+        }
+    }
+
+    @Test
+    public void wholeGames_sameBestMovePoints () throws Exception {
+        Random random = new Random(2018);
+
+        for (int game = 0; game < 4; game++) {
+            Square[][] board = TestData.readBoard(engine);
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                ScrabbleMove gaddagMove = generator.findBestMove(board, rack);
+                ScrabbleMove bestMove = engine.findBestMove(board, rack);
+                assertEquals(bestMove.points, gaddagMove.points);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                engine.addMoveToBoard(board, bestMove);
+            }
+        }
+    }
+}
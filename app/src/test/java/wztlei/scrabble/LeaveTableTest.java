@@ -0,0 +1,73 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that every leave has its own index in a LeaveTable and that the
+ * estimated values make sense.
+ */
+public class LeaveTableTest {
+
+    private static LeaveTable leaveTable;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        leaveTable = LeaveTable.estimate(TestData.readTiles());
+    }
+
+    @Test
+    public void index_isUniqueForEveryLeave () {
+        boolean[] isUsed = new boolean[LeaveTable.SIZE];
+        int numLeaves = markLeaves(new int[LeaveTable.NUM_TILE_TYPES], 0, 0, isUsed);
+
+        assertEquals(LeaveTable.SIZE, numLeaves);
+
+        int[] leave = new int[LeaveTable.NUM_TILE_TYPES];
+        assertEquals(0, LeaveTable.index(leave));
+
+        leave[26] = LeaveTable.MAX_LEAVE_TILES + 1;
+        assertEquals(-1, LeaveTable.index(leave));
+    }
+
+    @Test
+    public void estimate_prefersBalancedLeaves () {
+        assertEquals(0, leaveTable.valueOf(leaveOf("")), 0);
+        assertTrue(leaveTable.valueOf(leaveOf("*")) > leaveTable.valueOf(leaveOf("S")));
+        assertTrue(leaveTable.valueOf(leaveOf("ERS")) > leaveTable.valueOf(leaveOf("IIU")));
+        assertTrue(leaveTable.valueOf(leaveOf("QU")) > leaveTable.valueOf(leaveOf("QV")));
+
+        // There is only one Q in the bag
+        assertEquals(0, leaveTable.valueOf(leaveOf("QQ")), 0);
+    }
+
+    private static int markLeaves (int[] leave, int firstType, int numTiles,
+                                   boolean[] isUsed) {
+        int index = LeaveTable.index(leave);
+        assertFalse(isUsed[index]);
+        isUsed[index] = true;
+        int numLeaves = 1;
+
+        if (numTiles < LeaveTable.MAX_LEAVE_TILES) {
+            for (int type = firstType; type < LeaveTable.NUM_TILE_TYPES; type++) {
+                leave[type]++;
+                numLeaves += markLeaves(leave, type, numTiles + 1, isUsed);
+                leave[type]--;
+            }
+        }
+
+        return numLeaves;
+    }
+
+    private static int[] leaveOf (String tiles) {
+        int[] leave = new int[LeaveTable.NUM_TILE_TYPES];
+
+        for (int i = 0; i < tiles.length(); i++) {
+            leave[tiles.charAt(i) == '*' ? 26 : tiles.charAt(i) - 'A']++;
+        }
+
+        return leave;
+    }
+}
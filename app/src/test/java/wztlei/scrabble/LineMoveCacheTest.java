@@ -0,0 +1,102 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a LineMoveCache finds exactly the same moves as a single
+ * MoveGenerator, with or without pruning, when the same rack is tried on
+ * every board of a game.
+ */
+public class LineMoveCacheTest {
+
+    private static ScrabbleEngine engine;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+    }
+
+    @Test
+    public void wholeGames_sameBestMoves () throws Exception {
+        checkWholeGames(false, 1000, 2028);
+    }
+
+    @Test
+    public void wholeGames_sameBestMovesWithPruning () throws Exception {
+        checkWholeGames(true, 1000, 2029);
+    }
+
+    @Test
+    public void wholeGames_sameBestMovesWhenFull () throws Exception {
+        checkWholeGames(true, 20, 2030);
+    }
+
+    private static void checkWholeGames (boolean usePruning, int capacity,
+                                         long seed) throws Exception {
+        MoveGenerator generator = new MoveGenerator(engine);
+        LineMoveCache cache = new LineMoveCache(engine, capacity);
+        cache.usePruning = usePruning;
+        Random random = new Random(seed);
+
+        for (int game = 0; game < 4; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            // The rack that is tried on every board of the game
+            int[] otherRack = new int[27];
+            TestData.drawTiles(TestData.fullBag(engine.tiles), otherRack, random);
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+                int[] rackCopy = rack.clone();
+                ScrabbleMove bestMove = generator.findBestMove(packedBoard, rack);
+                assertSameMove(bestMove, cache.findBestMove(packedBoard, rack));
+                assertSameMove(bestMove, cache.findBestMove(packedBoard, rack));
+                assertArrayEquals(rackCopy, rack);
+
+                assertSameMove(generator.findBestMove(packedBoard, otherRack),
+                        cache.findBestMove(packedBoard, otherRack));
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                dualBoard.addMove(bestMove);
+            }
+        }
+
+        assertTrue(cache.size() <= capacity);
+
+        // Each line of each board is searched at most once for the game rack
+        // and once for the other rack, when the cache can hold all of them
+        if (capacity >= 4 * engine.numBoardRows) {
+            assertTrue(cache.getNumHits() > cache.getNumMisses());
+        }
+        else {
+            assertTrue(cache.getNumHits() > 0);
+        }
+    }
+
+    private static void assertSameMove (ScrabbleMove expected,
+                                        ScrabbleMove actual) {
+        assertEquals(expected.points, actual.points);
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).row, actual.get(i).row);
+            assertEquals(expected.get(i).col, actual.get(i).col);
+            assertEquals(expected.get(i).letter, actual.get(i).letter);
+        }
+    }
+}
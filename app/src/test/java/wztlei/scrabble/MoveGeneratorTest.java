@@ -0,0 +1,475 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.*;
+
+/**
+ * Checks that the MoveGenerator finds exactly the same moves as
+ * ScrabbleEngine, with or without pruning, that it finds the leave value of
+ * every move, and that it does not allocate any memory while searching.
+ */
+public class MoveGeneratorTest {
+
+    private static ScrabbleEngine engine;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+    }
+
+    @Test
+    public void wholeGames_sameBestMoves () throws Exception {
+        MoveGenerator generator = new MoveGenerator(engine);
+        Random random = new Random(2022);
+
+        for (int game = 0; game < 4; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+                ScrabbleMove bestMove = engine.findBestMove(packedBoard, rack);
+                ScrabbleMove generatedMove = generator.findBestMove(packedBoard, rack);
+                assertSameMove(bestMove, generatedMove);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                dualBoard.addMove(bestMove);
+            }
+        }
+    }
+
+    @Test
+    public void wholeGames_incrementalScoresMatchCalcAcrossPts () throws Exception {
+        MoveGenerator generator = new MoveGenerator(engine);
+        generator.checkScores = true;
+        Random random = new Random(2024);
+
+        for (int game = 0; game < 6; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                // Every complete word found is checked by the generator
+                ScrabbleMove bestMove = generator.findBestMove
+                        (PackedBoard.fromDualBoard(dualBoard), rack);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                dualBoard.addMove(bestMove);
+            }
+        }
+
+        assertTrue(generator.numScoresChecked > 50000);
+    }
+
+    @Test
+    public void wholeGames_pruningFindsSameBestMoves () throws Exception {
+        MoveGenerator generator = new MoveGenerator(engine);
+        MoveGenerator pruningGenerator = new MoveGenerator(engine);
+        pruningGenerator.usePruning = true;
+        pruningGenerator.checkScores = true;
+        Random random = new Random(2025);
+
+        for (int game = 0; game < 6; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+                ScrabbleMove bestMove = generator.findBestMove(packedBoard, rack);
+                ScrabbleMove prunedMove = pruningGenerator.findBestMove(packedBoard, rack);
+                assertSameMove(bestMove, prunedMove);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                dualBoard.addMove(bestMove);
+            }
+        }
+
+        assertTrue(pruningGenerator.numNodesPruned > 0);
+        assertTrue(pruningGenerator.numNodesVisited < generator.numNodesVisited);
+    }
+
+    @Test
+    public void wholeGames_orderedStartSquaresFindSameMoves () throws Exception {
+        MoveGenerator generator = new MoveGenerator(engine);
+        MoveGenerator orderedGenerator = new MoveGenerator(engine);
+        orderedGenerator.orderStartSquares = true;
+        Random random = new Random(2031);
+
+        for (int game = 0; game < 3; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+                CountingVisitor counter = new CountingVisitor(Integer.MAX_VALUE);
+                CountingVisitor orderedCounter = new CountingVisitor(Integer.MAX_VALUE);
+                generator.visitMoves(packedBoard, rack, counter);
+                orderedGenerator.visitMoves(packedBoard, rack, orderedCounter);
+                assertEquals(counter.numMoves, orderedCounter.numMoves);
+
+                ScrabbleMove bestMove = generator.findBestMove(packedBoard, rack);
+                ScrabbleMove orderedMove = orderedGenerator.findBestMove(packedBoard, rack);
+                assertSameMove(bestMove, orderedMove);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                dualBoard.addMove(bestMove);
+            }
+        }
+
+        assertEquals(0, orderedGenerator.numNodesPruned);
+    }
+
+    @Test
+    public void wholeGames_topMovesMatchAllMoves () throws Exception {
+        MoveGenerator generator = new MoveGenerator(engine);
+        MoveGenerator pruningGenerator = new MoveGenerator(engine);
+        pruningGenerator.usePruning = true;
+        Random random = new Random(2028);
+
+        for (int game = 0; game < 3; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                // Keep every move and check that it is sorted and unique
+                PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+                ArrayList<ScrabbleMove> allMoves =
+                        generator.findTopMoves(packedBoard, rack, 1000000);
+                HashSet<String> moveStrings = new HashSet<>();
+
+                for (int i = 0; i < allMoves.size(); i++) {
+                    assertTrue(moveStrings.add(moveToString(allMoves.get(i))));
+
+                    if (i > 0) {
+                        assertTrue(allMoves.get(i - 1).points >= allMoves.get(i).points);
+                    }
+                }
+
+                ScrabbleMove bestMove = generator.findBestMove(packedBoard, rack);
+
+                if (bestMove.isEmpty()) {
+                    assertTrue(allMoves.isEmpty());
+                    break;
+                }
+
+                assertSameMove(bestMove, allMoves.get(0));
+
+                // The top 10 moves are the first 10 of all the moves
+                ArrayList<ScrabbleMove> topMoves =
+                        pruningGenerator.findTopMoves(packedBoard, rack, 10);
+                assertEquals(Math.min(10, allMoves.size()), topMoves.size());
+
+                for (int i = 0; i < topMoves.size(); i++) {
+                    assertSameMove(allMoves.get(i), topMoves.get(i));
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                dualBoard.addMove(bestMove);
+            }
+        }
+
+        assertTrue(pruningGenerator.numNodesPruned > 0);
+    }
+
+    @Test
+    public void wholeGames_equityMovesMatchAllLeaves () throws Exception {
+        LeaveTable leaveTable = LeaveTable.estimate(engine.tiles);
+        MoveGenerator generator = new MoveGenerator(engine);
+        generator.leaveTable = leaveTable;
+        MoveGenerator pruningGenerator = new MoveGenerator(engine);
+        pruningGenerator.leaveTable = leaveTable;
+        pruningGenerator.usePruning = true;
+        Random random = new Random(2033);
+
+        for (int game = 0; game < 3; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                // Every move is passed the value of its leave
+                PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+                LeaveCheckingVisitor leaveVisitor =
+                        new LeaveCheckingVisitor(leaveTable, rack);
+                generator.visitMoves(packedBoard, rack, leaveVisitor);
+
+                ScrabbleMove equityMove = generator.findBestEquityMove(packedBoard, rack);
+                assertSameMove(equityMove,
+                        pruningGenerator.findBestEquityMove(packedBoard, rack));
+
+                if (equityMove.isEmpty()) {
+                    break;
+                }
+
+                assertEquals(leaveVisitor.maxEquity, equityMove.points +
+                        leaveTable.valueOf(leaveOf(rack, equityMove)), 1e-4);
+
+                TestData.removeTiles(equityMove, rack);
+                dualBoard.addMove(equityMove);
+            }
+        }
+    }
+
+    @Test
+    public void visitMoves_oneSearchFeedsSeveralVisitors () throws Exception {
+        MoveGenerator generator = new MoveGenerator(engine);
+        generator.usePruning = true;
+        Random random = new Random(2029);
+
+        DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+        int[] bag = TestData.fullBag(engine.tiles);
+        int[] rack = new int[27];
+
+        for (int turn = 0; turn < 20; turn++) {
+            TestData.drawTiles(bag, rack, random);
+            PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+
+            // Every move is visited even though the other visitors prune
+            BestMoveVisitor bestMoveVisitor = new BestMoveVisitor();
+            TopMovesVisitor topMovesVisitor = new TopMovesVisitor(5);
+            CountingVisitor countingVisitor = new CountingVisitor(Integer.MAX_VALUE);
+            CountingVisitor stoppingVisitor = new CountingVisitor(3);
+            CompositeMoveVisitor compositeVisitor = new CompositeMoveVisitor
+                    (bestMoveVisitor, topMovesVisitor, countingVisitor,
+                     stoppingVisitor);
+
+            int[] rackCopy = rack.clone();
+            assertTrue(generator.visitMoves(packedBoard, rack, compositeVisitor));
+            assertArrayEquals(rackCopy, rack);
+
+            ScrabbleMove bestMove = generator.findBestMove(packedBoard, rack);
+            ArrayList<ScrabbleMove> allMoves =
+                    generator.findTopMoves(packedBoard, rack, 1000000);
+            ArrayList<ScrabbleMove> topMoves = topMovesVisitor.removeTopMoves();
+
+            assertSameMove(bestMove, bestMoveVisitor.getBestMove());
+            assertEquals(Math.min(5, allMoves.size()), topMoves.size());
+
+            for (int i = 0; i < topMoves.size(); i++) {
+                assertSameMove(allMoves.get(i), topMoves.get(i));
+            }
+
+            // Single tile moves are visited twice but only kept once
+            assertTrue(countingVisitor.numMoves >= allMoves.size());
+            assertEquals(Math.min(3, countingVisitor.numMoves),
+                    stoppingVisitor.numMoves);
+
+            if (bestMove.isEmpty()) {
+                break;
+            }
+
+            TestData.removeTiles(bestMove, rack);
+            dualBoard.addMove(bestMove);
+        }
+    }
+
+    @Test
+    public void visitMoves_stopsWhenAsked () throws Exception {
+        MoveGenerator generator = new MoveGenerator(engine);
+        Random random = new Random(2030);
+
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+        DualBoard dualBoard = new DualBoard(engine, board);
+        int[] rack = new int[27];
+        TestData.drawTiles(TestData.fullBag(engine.tiles), rack, random);
+        PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+
+        CountingVisitor countingVisitor = new CountingVisitor(Integer.MAX_VALUE);
+        assertTrue(generator.visitMoves(packedBoard, rack, countingVisitor));
+        assertTrue(countingVisitor.numMoves > 10);
+
+        int[] rackCopy = rack.clone();
+        CountingVisitor stoppingVisitor = new CountingVisitor(10);
+        assertFalse(generator.visitMoves(packedBoard, rack, stoppingVisitor));
+        assertEquals(10, stoppingVisitor.numMoves);
+        assertArrayEquals(rackCopy, rack);
+    }
+
+    @Test
+    public void search_allocatesNoMemory () throws Exception {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocationBean =
+                (com.sun.management.ThreadMXBean) threadBean;
+        assumeTrue(allocationBean.isThreadAllocatedMemorySupported());
+        allocationBean.setThreadAllocatedMemoryEnabled(true);
+
+        // Record a few positions from a game
+        ArrayList<PackedBoard> boards = new ArrayList<>();
+        ArrayList<int[]> racks = new ArrayList<>();
+        DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+        int[] bag = TestData.fullBag(engine.tiles);
+        int[] rack = new int[27];
+        Random random = new Random(2023);
+
+        for (int turn = 0; turn < 12; turn++) {
+            TestData.drawTiles(bag, rack, random);
+            ScrabbleMove bestMove = engine.findBestMove(dualBoard, rack);
+            boards.add(PackedBoard.fromDualBoard(dualBoard));
+            racks.add(rack.clone());
+            TestData.removeTiles(bestMove, rack);
+            dualBoard.addMove(bestMove);
+        }
+
+        MoveGenerator generator = new MoveGenerator(engine);
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < 2; i++) {
+            generator.usePruning = (i == 1);
+
+            // Warm up so that the measurement does not include class loading
+            searchAll(generator, boards, racks);
+            searchAll(generator, boards, racks);
+
+            generator.numNodesVisited = 0;
+            long startBytes = allocationBean.getThreadAllocatedBytes(threadId);
+            searchAll(generator, boards, racks);
+            long allocatedBytes = allocationBean.getThreadAllocatedBytes(threadId)
+                    - startBytes;
+
+            assertTrue(generator.numNodesVisited > (generator.usePruning ? 1000 : 10000));
+            assertEquals("bytes allocated over " + generator.numNodesVisited +
+                    " nodes", 0, allocatedBytes);
+        }
+    }
+
+    private static void searchAll (MoveGenerator generator,
+                                   ArrayList<PackedBoard> boards,
+                                   ArrayList<int[]> racks) {
+        for (int i = 0; i < boards.size(); i++) {
+            generator.search(boards.get(i), racks.get(i), PackedBoard.ACROSS);
+            generator.search(boards.get(i), racks.get(i), PackedBoard.DOWN);
+        }
+    }
+
+    // Counts the moves it visits and stops after maxMoves of them
+    private static class CountingVisitor implements MoveVisitor {
+
+        private final int maxMoves;
+        int numMoves;
+
+        CountingVisitor (int maxMoves) {
+            this.maxMoves = maxMoves;
+        }
+
+        @Override
+        public boolean visitMove (MoveView move) {
+            numMoves++;
+            return numMoves < maxMoves;
+        }
+
+        @Override
+        public int getMinPoints () {
+            return 0;
+        }
+    }
+
+    // Checks the leave value of every move against the leave table
+    private static class LeaveCheckingVisitor implements MoveVisitor {
+
+        private final LeaveTable leaveTable;
+        private final int[] rack;
+        float maxEquity = Float.NEGATIVE_INFINITY;
+
+        LeaveCheckingVisitor (LeaveTable leaveTable, int[] rack) {
+            this.leaveTable = leaveTable;
+            this.rack = rack.clone();
+        }
+
+        @Override
+        public boolean visitMove (MoveView move) {
+            float leaveValue = leaveTable.valueOf(leaveOf(rack, move.toScrabbleMove()));
+            assertEquals(leaveValue, move.getLeaveValue(), 0);
+
+            if (move.getPoints() > 0) {
+                maxEquity = Math.max(maxEquity, move.getEquity());
+            }
+
+            return true;
+        }
+
+        @Override
+        public int getMinPoints () {
+            return 0;
+        }
+    }
+
+    private static int[] leaveOf (int[] rack, ScrabbleMove move) {
+        int[] leave = rack.clone();
+
+        for (int i = 0; i < move.size(); i++) {
+            char letter = move.get(i).letter;
+            leave[Character.isLowerCase(letter) ? 26 : letter - 'A']--;
+        }
+
+        return leave;
+    }
+
+    private static String moveToString (ScrabbleMove move) {
+        StringBuilder builder = new StringBuilder();
+
+        for (int i = 0; i < move.size(); i++) {
+            builder.append(move.get(i).row).append(',').append(move.get(i).col)
+                    .append(move.get(i).letter).append(' ');
+        }
+
+        return builder.toString();
+    }
+
+    private static void assertSameMove (ScrabbleMove expected,
+                                        ScrabbleMove actual) {
+        assertEquals(expected.points, actual.points);
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).row, actual.get(i).row);
+            assertEquals(expected.get(i).col, actual.get(i).col);
+            assertEquals(expected.get(i).letter, actual.get(i).letter);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a MoveSimulator gives the same results on any number of
+ * threads, leaves the position unchanged and stops once one candidate is
+ * clearly the best.
+ */
+public class MoveSimulatorTest {
+
+    private static ScrabbleEngine engine;
+    private static LeaveTable leaveTable;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+        leaveTable = LeaveTable.estimate(engine.tiles);
+    }
+
+    @Test
+    public void simulate_sameResultsOnAnyNumberOfThreads () throws Exception {
+        checkSameResultsOnAnyNumberOfThreads(leaveTable);
+    }
+
+    @Test
+    public void simulate_sameResultsByPointsOnAnyNumberOfThreads () throws Exception {
+        checkSameResultsOnAnyNumberOfThreads(null);
+    }
+
+    @Test
+    public void simulate_dropsCandidatesThatAreClearlyWorse () throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+        DualBoard dualBoard = new DualBoard(engine, board);
+        int[] rack = engine.fillRack("QVVWUUI");
+
+        MoveSimulator simulator = new MoveSimulator(engine, leaveTable, 2);
+        simulator.numCandidates = 8;
+        simulator.minIterations = 16;
+        simulator.maxIterations = 400;
+        simulator.seed = 2035;
+
+        try {
+            SimulationResult result = simulator.simulate(dualBoard, rack);
+            int bestIndex = result.getBestIndex();
+
+            assertTrue(result.getNumIterations() < simulator.maxIterations);
+            assertEquals(result.getNumIterations(), result.getNumSamples(bestIndex));
+
+            // The candidates that were dropped fall short of the best one
+            for (int i = 0; i < result.size(); i++) {
+                if (result.getNumSamples(i) < result.getNumIterations()) {
+                    assertTrue(result.getMean(i) < result.getMean(bestIndex));
+                }
+            }
+
+            assertTrue(result.getIterationsPerSecond() > 0);
+        } finally {
+            simulator.shutdown();
+        }
+    }
+
+    private static void checkSameResultsOnAnyNumberOfThreads
+            (LeaveTable table) throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+        DualBoard dualBoard = new DualBoard(engine, board);
+        String boardString = engine.boardTilesToString(dualBoard.across);
+        int[] rack = engine.fillRack("QVVWUUI");
+
+        SimulationResult[] results = new SimulationResult[2];
+        int[] numThreads = {1, 3};
+
+        for (int i = 0; i < 2; i++) {
+            MoveSimulator simulator = new MoveSimulator(engine, table,
+                    numThreads[i]);
+            simulator.numCandidates = 5;
+            simulator.minIterations = 16;
+            simulator.maxIterations = 64;
+            simulator.seed = 2034;
+
+            try {
+                results[i] = simulator.simulate(dualBoard, rack);
+            } finally {
+                simulator.shutdown();
+            }
+        }
+
+        assertEquals(boardString, engine.boardTilesToString(dualBoard.across));
+        assertArrayEquals(engine.fillRack("QVVWUUI"), rack);
+        assertEquals(5, results[0].size());
+        assertEquals(results[0].getNumIterations(),
+                results[1].getNumIterations());
+
+        // Some candidates are dropped, after the same iterations on
+        // any number of threads
+        boolean wasDropped = false;
+
+        for (int i = 0; i < results[0].size(); i++) {
+            wasDropped |= results[0].getNumSamples(i)
+                    < results[0].getNumIterations();
+            assertEquals(results[0].getNumSamples(i),
+                    results[1].getNumSamples(i));
+            assertEquals(results[0].getMean(i), results[1].getMean(i), 0);
+            assertEquals(results[0].getStandardError(i),
+                    results[1].getStandardError(i), 0);
+        }
+
+        assertTrue(wasDropped);
+    }
+}
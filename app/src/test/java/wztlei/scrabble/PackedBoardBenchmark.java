@@ -0,0 +1,117 @@
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Times findBestMove() on boards of Squares against findBestMove() on
+ * PackedBoards and MoveGenerator, with and without pruning, and the top 10
+ * moves with pruning, over the positions of a few self-played games. Run it from
+ * the directory of the app module with the name of a word list in the
+ * assets, such as collins_2015_words.txt.
+ */
+public class PackedBoardBenchmark {
+
+    private static final int NUM_GAMES = 10;
+    private static final int NUM_ROUNDS = 10;
+
+    public static void main (String[] args) throws Exception {
+
+        String fileName = args.length > 0 ? args[0] : "collins_2015_words.txt";
+        HashMap<String, Integer> words = TestData.readWords(fileName);
+        ScrabbleEngine engine = new ScrabbleEngine(words, TestData.readTiles());
+
+        // Record the board and the rack before every move of a few games
+        ArrayList<DualBoard> boards = new ArrayList<>();
+        ArrayList<PackedBoard> packedBoards = new ArrayList<>();
+        ArrayList<int[]> racks = new ArrayList<>();
+        Random random = new Random(2018);
+
+        for (int game = 0; game < NUM_GAMES; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            while (true) {
+                TestData.drawTiles(bag, rack, random);
+                ScrabbleMove bestMove = engine.findBestMove(dualBoard, rack);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                DualBoard boardCopy = new DualBoard(engine,
+                        engine.copyBoard(dualBoard.across));
+                boards.add(boardCopy);
+                packedBoards.add(PackedBoard.fromDualBoard(boardCopy));
+                racks.add(rack.clone());
+
+                TestData.removeTiles(bestMove, rack);
+                dualBoard.addMove(bestMove);
+            }
+        }
+
+        System.out.println(racks.size() + " positions");
+        MoveGenerator generator = new MoveGenerator(engine);
+        MoveGenerator pruningGenerator = new MoveGenerator(engine);
+        pruningGenerator.usePruning = true;
+        MoveGenerator topMovesGenerator = new MoveGenerator(engine);
+        topMovesGenerator.usePruning = true;
+
+        for (int round = 0; round < NUM_ROUNDS; round++) {
+            long startTime = System.nanoTime();
+
+            for (int i = 0; i < racks.size(); i++) {
+                engine.findBestMove(boards.get(i), racks.get(i));
+            }
+
+            long squaresNanos = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+
+            for (int i = 0; i < racks.size(); i++) {
+                engine.findBestMove(packedBoards.get(i), racks.get(i));
+            }
+
+            long packedNanos = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+
+            for (int i = 0; i < racks.size(); i++) {
+                generator.findBestMove(packedBoards.get(i), racks.get(i));
+            }
+
+            long generatorNanos = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+
+            for (int i = 0; i < racks.size(); i++) {
+                pruningGenerator.findBestMove(packedBoards.get(i), racks.get(i));
+            }
+
+            long pruningNanos = System.nanoTime() - startTime;
+            startTime = System.nanoTime();
+
+            for (int i = 0; i < racks.size(); i++) {
+                topMovesGenerator.findTopMoves(packedBoards.get(i), racks.get(i), 10);
+            }
+
+            long topMovesNanos = System.nanoTime() - startTime;
+
+            System.out.printf("Square[][] %.3f ms, PackedBoard %.3f ms, " +
+                            "MoveGenerator %.3f ms, pruning %.3f ms, " +
+                            "top 10 %.3f ms%n",
+                    squaresNanos / 1e6 / racks.size(),
+                    packedNanos / 1e6 / racks.size(),
+                    generatorNanos / 1e6 / racks.size(),
+                    pruningNanos / 1e6 / racks.size(),
+                    topMovesNanos / 1e6 / racks.size());
+        }
+
+        System.out.printf("Nodes per search: %d without pruning, " +
+                        "%d with pruning (%d pruned)%n",
+                generator.numNodesVisited / NUM_ROUNDS / racks.size(),
+                pruningGenerator.numNodesVisited / NUM_ROUNDS / racks.size(),
+                pruningGenerator.numNodesPruned / NUM_ROUNDS / racks.size());
+        System.out.printf("Nodes per search for the top 10 moves: %d%n",
+                topMovesGenerator.numNodesVisited / NUM_ROUNDS / racks.size());
+    }
+}
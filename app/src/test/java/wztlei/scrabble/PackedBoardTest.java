@@ -0,0 +1,101 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that searching a PackedBoard finds exactly the same moves as
+ * searching the board of Squares it was packed from.
+ */
+public class PackedBoardTest {
+
+    private static ScrabbleEngine engine;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+    }
+
+    @Test
+    public void testGameBoard_sameBestMoves () throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+        DualBoard dualBoard = new DualBoard(engine, board);
+        PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+
+        for (String rackStr : new String[] {"ENTIREE", "QUIZ*AB", "**SATIRE"}) {
+            int[] rack = engine.fillRack(rackStr);
+
+            assertSameMove(engine.findBestAcrossMove(board, rack),
+                    engine.findBestMove(packedBoard, rack, PackedBoard.ACROSS));
+            assertSameMove(engine.findBestDownMove(dualBoard, rack),
+                    engine.findBestMove(packedBoard, rack, PackedBoard.DOWN));
+        }
+    }
+
+    @Test
+    public void wholeGames_sameBestMoves () throws Exception {
+        Random random = new Random(2021);
+
+        for (int game = 0; game < 4; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+
+                PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+                ScrabbleMove packedMove = engine.findBestMove(packedBoard, rack);
+                ScrabbleMove bestMove = engine.findBestMove(dualBoard, rack);
+                assertSameMove(bestMove, packedMove);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                dualBoard.addMove(bestMove);
+            }
+        }
+    }
+
+    @Test
+    public void toSquares_restoresBoard () throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+        PackedBoard packedBoard = PackedBoard.fromSquares(board,
+                engine.invertBoard(board));
+
+        Square[][] unpackedBoard = TestData.readBoard(engine);
+        packedBoard.toSquares(unpackedBoard);
+
+        for (int row = 0; row < 17; row++) {
+            for (int col = 0; col < 17; col++) {
+                assertEquals(board[row][col].letter, unpackedBoard[row][col].letter);
+                assertEquals(board[row][col].downCrossCheck,
+                        unpackedBoard[row][col].downCrossCheck);
+                assertEquals(board[row][col].minAcrossWordLength,
+                        unpackedBoard[row][col].minAcrossWordLength);
+            }
+        }
+    }
+
+    private static void assertSameMove (ScrabbleMove expected,
+                                        ScrabbleMove actual) {
+        assertEquals(expected.points, actual.points);
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).row, actual.get(i).row);
+            assertEquals(expected.get(i).col, actual.get(i).col);
+            assertEquals(expected.get(i).letter, actual.get(i).letter);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Times MoveGenerator against ParallelMoveGenerator with 1, 2, 4 and 8
+ * threads over the positions of a few self-played games. Run it from the
+ * directory of the app module with the name of a word list in the assets,
+ * such as collins_2015_words.txt.
+ */
+public class ParallelBenchmark {
+
+    private static final int NUM_GAMES = 10;
+    private static final int NUM_ROUNDS = 5;
+    private static final int[] NUM_THREADS = {1, 2, 4, 8};
+
+    public static void main (String[] args) throws Exception {
+
+        String fileName = args.length > 0 ? args[0] : "collins_2015_words.txt";
+        HashMap<String, Integer> words = TestData.readWords(fileName);
+        ScrabbleEngine engine = new ScrabbleEngine(words, TestData.readTiles());
+        MoveGenerator generator = new MoveGenerator(engine);
+
+        // Record the board and the rack before every move of a few games
+        ArrayList<PackedBoard> boards = new ArrayList<>();
+        ArrayList<int[]> racks = new ArrayList<>();
+        Random random = new Random(2018);
+
+        for (int game = 0; game < NUM_GAMES; game++) {
+            DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            while (true) {
+                TestData.drawTiles(bag, rack, random);
+                PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+                ScrabbleMove bestMove = generator.findBestMove(packedBoard, rack);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                boards.add(packedBoard);
+                racks.add(rack.clone());
+
+                TestData.removeTiles(bestMove, rack);
+                dualBoard.addMove(bestMove);
+            }
+        }
+
+        System.out.println(racks.size() + " positions, " +
+                Runtime.getRuntime().availableProcessors() + " processors");
+
+        for (int round = 0; round < NUM_ROUNDS; round++) {
+            long startTime = System.nanoTime();
+
+            for (int i = 0; i < racks.size(); i++) {
+                generator.findBestMove(boards.get(i), racks.get(i));
+            }
+
+            double singleMillis = (System.nanoTime() - startTime) / 1e6 / racks.size();
+            System.out.printf("MoveGenerator %.3f ms", singleMillis);
+
+            for (int numThreads : NUM_THREADS) {
+                ParallelMoveGenerator parallelGenerator =
+                        new ParallelMoveGenerator(engine, numThreads);
+                startTime = System.nanoTime();
+
+                for (int i = 0; i < racks.size(); i++) {
+                    parallelGenerator.findBestMove(boards.get(i), racks.get(i));
+                }
+
+                double parallelMillis = (System.nanoTime() - startTime) / 1e6 / racks.size();
+                parallelGenerator.shutdown();
+                System.out.printf(", %d threads %.3f ms (%.2fx)", numThreads,
+                        parallelMillis, singleMillis / parallelMillis);
+            }
+
+            System.out.println();
+        }
+    }
+}
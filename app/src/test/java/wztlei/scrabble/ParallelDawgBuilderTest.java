@@ -0,0 +1,107 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the ParallelDawgBuilder builds the same lexicon as a single
+ * DawgBuilder for any number of threads, and that the words starting with
+ * the same two letters are never split between runs.
+ */
+public class ParallelDawgBuilderTest {
+
+    private static ScrabbleEngine engine;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+    }
+
+    @Test
+    public void anyNumberOfThreads_sameLexicon () throws Exception {
+
+        for (int numThreads : new int[] {1, 2, 3, 8}) {
+            FlatLexicon lexicon = FlatLexicon.fromTrie(engine.createWordDawg(numThreads));
+            assertArrayEquals(engine.lexicon.edges, lexicon.edges);
+        }
+    }
+
+    @Test
+    public void sortedWordList_sameLexiconOnAnyNumberOfThreads () throws Exception {
+
+        for (int numThreads : new int[] {1, 2, 3, 8}) {
+            InputStream inputStream = new FileInputStream
+                    (TestData.ASSETS_DIR + "jonbcard_github_words.txt");
+
+            try {
+                TrieNode root = WordListReader.readDawg(inputStream, numThreads);
+                assertArrayEquals(engine.lexicon.edges,
+                        FlatLexicon.fromTrie(root).edges);
+            } finally {
+                inputStream.close();
+            }
+        }
+    }
+
+    @Test
+    public void fewerWordsThanRuns_sameLexicon () throws Exception {
+        byte[] bytes = "AA\nAAH\nAB\nabs\nBA\r\nBAD\nZA".getBytes("ISO-8859-1");
+        TrieNode root = WordListReader.readDawg(new ByteArrayInputStream(bytes), 8);
+        TrieNode expected = WordListReader.readDawg(new ByteArrayInputStream(bytes));
+
+        assertArrayEquals(FlatLexicon.fromTrie(expected).edges,
+                FlatLexicon.fromTrie(root).edges);
+    }
+
+    @Test
+    public void unsortedWordList_sameLexicon () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("common_1000_words.txt");
+        FlatLexicon expected = new ScrabbleEngine(words, TestData.readTiles()).lexicon;
+        InputStream inputStream = new FileInputStream
+                (TestData.ASSETS_DIR + "common_1000_words.txt");
+
+        try {
+            TrieNode root = WordListReader.readDawg(inputStream, 4);
+            assertArrayEquals(expected.edges, FlatLexicon.fromTrie(root).edges);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    @Test
+    public void splitIntoRuns_keepsTwoLetterPrefixesTogether () {
+        List<String> words = Arrays.asList("AA", "AAH", "AB", "ABA", "ABS",
+                "BA", "BAA", "BAD", "BE", "ZA");
+        ArrayList<List<String>> runs = ParallelDawgBuilder.splitIntoRuns(words, 5);
+        ArrayList<String> joinedRuns = new ArrayList<>();
+
+        for (int i = 0; i < runs.size(); i++) {
+            joinedRuns.addAll(runs.get(i));
+
+            if (i > 0) {
+                String lastWord = runs.get(i - 1).get(runs.get(i - 1).size() - 1);
+                assertFalse(runs.get(i).get(0).regionMatches(0, lastWord, 0, 2));
+            }
+        }
+
+        assertEquals(words, joinedRuns);
+        assertTrue(runs.size() > 1);
+    }
+
+    @Test
+    public void noWords_emptyRoot () throws Exception {
+        TrieNode root = ParallelDawgBuilder.build(new ArrayList<String>(), 2);
+        assertTrue(root.children.isEmpty());
+    }
+}
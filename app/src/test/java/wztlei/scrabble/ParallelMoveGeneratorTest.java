@@ -0,0 +1,99 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the ParallelMoveGenerator finds exactly the same moves as a
+ * single MoveGenerator, with or without pruning, by points and by equity.
+ */
+public class ParallelMoveGeneratorTest {
+
+    private static ScrabbleEngine engine;
+    private static LeaveTable leaveTable;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+        leaveTable = LeaveTable.estimate(engine.tiles);
+    }
+
+    @Test
+    public void wholeGames_sameBestMoves () throws Exception {
+        checkWholeGames(false, null, 2026);
+    }
+
+    @Test
+    public void wholeGames_sameBestMovesWithPruning () throws Exception {
+        checkWholeGames(true, null, 2027);
+    }
+
+    @Test
+    public void wholeGames_sameBestEquityMoves () throws Exception {
+        checkWholeGames(false, leaveTable, 2036);
+    }
+
+    @Test
+    public void wholeGames_sameBestEquityMovesWithPruning () throws Exception {
+        checkWholeGames(true, leaveTable, 2037);
+    }
+
+    private static void checkWholeGames (boolean usePruning, LeaveTable table,
+                                         long seed) throws Exception {
+        MoveGenerator generator = new MoveGenerator(engine);
+        generator.leaveTable = table;
+        ParallelMoveGenerator parallelGenerator = new ParallelMoveGenerator(engine, 4);
+        parallelGenerator.usePruning = usePruning;
+        parallelGenerator.leaveTable = table;
+        Random random = new Random(seed);
+
+        try {
+            for (int game = 0; game < 4; game++) {
+                DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+                int[] bag = TestData.fullBag(engine.tiles);
+                int[] rack = new int[27];
+
+                for (int turn = 0; turn < 30; turn++) {
+                    TestData.drawTiles(bag, rack, random);
+
+                    PackedBoard packedBoard = PackedBoard.fromDualBoard(dualBoard);
+                    int[] rackCopy = rack.clone();
+                    ScrabbleMove bestMove = (table != null) ?
+                            generator.findBestEquityMove(packedBoard, rack) :
+                            generator.findBestMove(packedBoard, rack);
+                    ScrabbleMove parallelMove = parallelGenerator.findBestMove
+                            (packedBoard, rack);
+                    assertSameMove(bestMove, parallelMove);
+                    assertArrayEquals(rackCopy, rack);
+
+                    if (bestMove.isEmpty()) {
+                        break;
+                    }
+
+                    TestData.removeTiles(bestMove, rack);
+                    dualBoard.addMove(bestMove);
+                }
+            }
+        } finally {
+            parallelGenerator.shutdown();
+        }
+    }
+
+    private static void assertSameMove (ScrabbleMove expected,
+                                        ScrabbleMove actual) {
+        assertEquals(expected.points, actual.points);
+        assertEquals(expected.size(), actual.size());
+
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).row, actual.get(i).row);
+            assertEquals(expected.get(i).col, actual.get(i).col);
+            assertEquals(expected.get(i).letter, actual.get(i).letter);
+        }
+    }
+}
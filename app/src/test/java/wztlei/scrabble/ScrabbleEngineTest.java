@@ -0,0 +1,126 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks the faster ways of updating the board against the original ones.
+ */
+public class ScrabbleEngineTest {
+
+    private static ScrabbleEngine engine;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+    }
+
+    @Test
+    public void testGameBoard_crossChecksMatchLookup () throws Exception {
+        Square[][] board = TestData.readBoard(engine);
+        TestData.readTestGame(engine, board);
+
+        assertCrossChecksMatchLookup(board);
+        assertCrossChecksMatchLookup(engine.invertBoard(board));
+    }
+
+    @Test
+    public void wholeGames_crossChecksMatchLookup () throws Exception {
+        Random random = new Random(2018);
+
+        for (int game = 0; game < 4; game++) {
+            Square[][] board = TestData.readBoard(engine);
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+                ScrabbleMove bestMove = engine.findBestMove(board, rack);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                engine.addMoveToBoard(board, bestMove);
+
+                assertCrossChecksMatchLookup(board);
+                assertCrossChecksMatchLookup(engine.invertBoard(board));
+            }
+        }
+    }
+
+    @Test
+    public void wholeGames_changedSquaresMatchFullUpdate () throws Exception {
+        Random random = new Random(2019);
+
+        for (int game = 0; game < 4; game++) {
+            Square[][] board = TestData.readBoard(engine);
+            int[] bag = TestData.fullBag(engine.tiles);
+            int[] rack = new int[27];
+            String emptyBoard = engine.boardTilesToString(board);
+
+            for (int turn = 0; turn < 30; turn++) {
+                TestData.drawTiles(bag, rack, random);
+                ScrabbleMove bestMove = engine.findBestMove(board, rack);
+
+                if (bestMove.isEmpty()) {
+                    break;
+                }
+
+                TestData.removeTiles(bestMove, rack);
+                engine.addMoveToBoard(board, bestMove);
+                assertMatchesFullUpdate(board);
+            }
+
+            // Removing all the tiles again must also be handled
+            engine.fillBoardWithString(board, emptyBoard);
+            assertMatchesFullUpdate(board);
+        }
+    }
+
+    private static void assertMatchesFullUpdate (Square[][] board) {
+        Square[][] boardCopy = engine.copyBoard(board);
+
+        for (int row = 1; row <= 15; row++) {
+            for (int col = 1; col <= 15; col++) {
+                String message = "row " + row + " col " + col;
+
+                assertEquals(message, boardCopy[row][col].minAcrossWordLength,
+                        board[row][col].minAcrossWordLength);
+
+                if (board[row][col].letter == '.') {
+                    assertEquals(message, boardCopy[row][col].downCrossCheck,
+                            board[row][col].downCrossCheck);
+                    assertEquals(message, boardCopy[row][col].downCrossScore,
+                            board[row][col].downCrossScore);
+                }
+            }
+        }
+    }
+
+    private static void assertCrossChecksMatchLookup (Square[][] board) {
+        int[][] crossChecks = new int[17][17];
+
+        for (int row = 0; row < 17; row++) {
+            for (int col = 0; col < 17; col++) {
+                crossChecks[row][col] = board[row][col].downCrossCheck;
+            }
+        }
+
+        engine.updateDownCrossChecksByLookup(board);
+
+        for (int row = 0; row < 17; row++) {
+            for (int col = 0; col < 17; col++) {
+                assertEquals("row " + row + " col " + col,
+                        board[row][col].downCrossCheck, crossChecks[row][col]);
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package wztlei.scrabble;
+
+import java.util.HashMap;
+
+/**
+ * Plays whole games between two engine players with SelfPlayRunner on 1, 2,
+ * 4 and 8 threads, with and without leave values, and prints the games and
+ * moves per second, the move latencies and the scores. Run it from the
+ * directory of the app module with the name of a word list in the assets,
+ * such as collins_2015_words.txt, and optionally the number of games.
+ */
+public class SelfPlayBenchmark {
+
+    private static final int[] NUM_THREADS = {1, 2, 4, 8};
+
+    public static void main (String[] args) throws Exception {
+
+        String fileName = args.length > 0 ? args[0] : "collins_2015_words.txt";
+        int numGames = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        HashMap<String, Integer> words = TestData.readWords(fileName);
+        ScrabbleEngine engine = new ScrabbleEngine(words, TestData.readTiles());
+        LeaveTable leaveTable = LeaveTable.estimate(engine.tiles);
+
+        System.out.println(Runtime.getRuntime().availableProcessors() + " processors");
+
+        for (int numThreads : NUM_THREADS) {
+            SelfPlayRunner runner = new SelfPlayRunner(engine,
+                    TestData.readBoard(engine), numThreads);
+
+            // Warm up the threads before timing them
+            runner.run(Math.max(numThreads, 10));
+            System.out.println(numThreads + " threads, points: " + runner.run(numGames));
+
+            runner.leaveTable = leaveTable;
+            System.out.println(numThreads + " threads, equity: " + runner.run(numGames));
+            runner.shutdown();
+        }
+    }
+}
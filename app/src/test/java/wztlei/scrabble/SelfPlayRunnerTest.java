@@ -0,0 +1,64 @@
+package wztlei.scrabble;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that a SelfPlayRunner plays the same games on any number of threads
+ * and with or without pruning, and that it times every move.
+ */
+public class SelfPlayRunnerTest {
+
+    private static ScrabbleEngine engine;
+
+    @BeforeClass
+    public static void setUp () throws Exception {
+        HashMap<String, Integer> words = TestData.readWords("jonbcard_github_words.txt");
+        engine = new ScrabbleEngine(words, TestData.readTiles());
+    }
+
+    @Test
+    public void run_sameGamesOnAnyNumberOfThreads () throws Exception {
+        SelfPlayResult oneThread = runGames(1, true);
+        SelfPlayResult threeThreads = runGames(3, true);
+        SelfPlayResult noPruning = runGames(2, false);
+
+        assertEquals(6, oneThread.getNumGames());
+        assertEquals(oneThread.getNumMoves(), threeThreads.getNumMoves());
+        assertEquals(oneThread.getNumMoves(), noPruning.getNumMoves());
+
+        for (int game = 0; game < 6; game++) {
+            for (int player = 0; player < 2; player++) {
+                assertEquals(oneThread.getScore(game, player),
+                        threeThreads.getScore(game, player));
+                assertEquals(oneThread.getScore(game, player),
+                        noPruning.getScore(game, player));
+            }
+        }
+
+        // Every game lasts more than a few moves
+        assertTrue(oneThread.getNumMoves() > 6 * 10);
+        assertTrue(oneThread.getMoveNanosPercentile(99) >= oneThread.getMoveNanosPercentile(50));
+        assertTrue(oneThread.getMoveNanosPercentile(100) * oneThread.getNumMoves() >=
+                oneThread.getMeanMoveNanos() * oneThread.getNumMoves());
+        assertTrue(oneThread.getScorePercentile(90) > 0);
+    }
+
+    private static SelfPlayResult runGames (int numThreads, boolean usePruning)
+            throws Exception {
+        SelfPlayRunner runner = new SelfPlayRunner(engine,
+                TestData.readBoard(engine), numThreads);
+        runner.usePruning = usePruning;
+        runner.seed = 2036;
+
+        try {
+            return runner.run(6);
+        } finally {
+            runner.shutdown();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package wztlei.scrabble;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+
+/**
+ * Times MoveSimulator with 1, 2, 4 and 8 threads over a few positions of a
+ * self-played game, reporting iterations and playouts per second. Every
+ * simulation runs the same number of iterations, so the thread counts do the
+ * same work. Run it from the directory of the app module with the name of a
+ * word list in the assets, such as collins_2015_words.txt.
+ */
+public class SimulationBenchmark {
+
+    private static final int NUM_POSITIONS = 5;
+    private static final int NUM_ITERATIONS = 64;
+    private static final int NUM_ROUNDS = 3;
+    private static final int[] NUM_THREADS = {1, 2, 4, 8};
+
+    public static void main (String[] args) throws Exception {
+
+        String fileName = args.length > 0 ? args[0] : "collins_2015_words.txt";
+        HashMap<String, Integer> words = TestData.readWords(fileName);
+        ScrabbleEngine engine = new ScrabbleEngine(words, TestData.readTiles());
+        LeaveTable leaveTable = LeaveTable.estimate(engine.tiles);
+        MoveGenerator generator = new MoveGenerator(engine);
+
+        // Record every third position of a game, after the first move
+        ArrayList<DualBoard> boards = new ArrayList<>();
+        ArrayList<int[]> racks = new ArrayList<>();
+        DualBoard dualBoard = new DualBoard(engine, TestData.readBoard(engine));
+        int[] bag = TestData.fullBag(engine.tiles);
+        int[] rack = new int[27];
+        Random random = new Random(2018);
+
+        for (int turn = 0; boards.size() < NUM_POSITIONS; turn++) {
+            TestData.drawTiles(bag, rack, random);
+            ScrabbleMove bestMove = generator.findBestMove
+                    (PackedBoard.fromDualBoard(dualBoard), rack);
+
+            if (bestMove.isEmpty()) {
+                break;
+            }
+
+            if (turn % 3 == 1) {
+                boards.add(new DualBoard(engine, engine.copyBoard(dualBoard.across)));
+                racks.add(rack.clone());
+            }
+
+            TestData.removeTiles(bestMove, rack);
+            dualBoard.addMove(bestMove);
+        }
+
+        System.out.println(boards.size() + " positions, " +
+                Runtime.getRuntime().availableProcessors() + " processors");
+
+        for (int numThreads : NUM_THREADS) {
+            MoveSimulator simulator = new MoveSimulator(engine, leaveTable, numThreads);
+            simulator.minIterations = NUM_ITERATIONS;
+            simulator.maxIterations = NUM_ITERATIONS;
+
+            for (int round = 0; round < NUM_ROUNDS; round++) {
+                long numIterations = 0;
+                long numPlayouts = 0;
+                long startTime = System.nanoTime();
+
+                for (int i = 0; i < boards.size(); i++) {
+                    SimulationResult result = simulator.simulate(boards.get(i),
+                            racks.get(i));
+                    numIterations += result.getNumIterations();
+                    numPlayouts += result.getNumPlayouts();
+                }
+
+                double seconds = (System.nanoTime() - startTime) / 1e9;
+                System.out.printf("%d threads: %.1f iterations/s, " +
+                                "%.1f playouts/s%n", numThreads,
+                        numIterations / seconds, numPlayouts / seconds);
+            }
+
+            simulator.shutdown();
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package wztlei.scrabble;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.Scanner;
+
+/**
+ * Reads the assets of the app for local unit tests, which run from the
+ * directory of the app module, and plays out games to get test positions.
+ */
+class TestData {
+
+    static final String ASSETS_DIR = "src/main/assets/";
+
+    /**
+     * Reads the words of a word list with WordListReader, which skips the
+     * lines that are not words.
+     */
+    static HashMap<String, Integer> readWords (String fileName)
+            throws IOException {
+
+        ArrayList<String> wordList = new ArrayList<>();
+        InputStream inputStream = new FileInputStream(ASSETS_DIR + fileName);
+
+        try {
+            WordListReader.readWords(inputStream, wordList);
+        } finally {
+            inputStream.close();
+        }
+
+        HashMap<String, Integer> words = new HashMap<>();
+
+        for (String word : wordList) {
+            words.put(word, 1);
+        }
+
+        return words;
+    }
+
+    static Tile[] readTiles () throws FileNotFoundException {
+
+        Tile[] tiles = new Tile[27];
+        Scanner scanner = new Scanner(new File(ASSETS_DIR + "tiles.txt"));
+
+        for (int i = 0; i < 27; i++) {
+            tiles[i] = new Tile();
+            tiles[i].letter = scanner.next().charAt(0);
+            tiles[i].points = Integer.parseInt(scanner.next());
+            tiles[i].total = Integer.parseInt(scanner.next());
+        }
+
+        scanner.close();
+        return tiles;
+    }
+
+    static Square[][] readBoard (ScrabbleEngine engine)
+            throws FileNotFoundException {
+
+        Square[][] board = new Square[17][17];
+        Scanner scanner = new Scanner(new File(ASSETS_DIR + "board.txt"));
+
+        for (int row = 0; row < 17; row++) {
+            String line = scanner.nextLine();
+
+            for (int col = 0; col < 17; col++) {
+                Square sqr = new Square();
+                sqr.row = row;
+                sqr.col = col;
+                sqr.letter = '.';
+                sqr.downCrossCheck = 0;
+
+                switch (line.charAt(col)) {
+                    case 'W': sqr.type = SquareType.TRIPLE_WORD;   break;
+                    case 'w': sqr.type = SquareType.DOUBLE_WORD;   break;
+                    case 'L': sqr.type = SquareType.TRIPLE_LETTER; break;
+                    case 'l': sqr.type = SquareType.DOUBLE_LETTER; break;
+                    case '.': sqr.type = SquareType.REGULAR;       break;
+                    default:  sqr.type = SquareType.OUTSIDE;       break;
+                }
+
+                if (sqr.type != SquareType.OUTSIDE) {
+                    sqr.downCrossCheck = Square.ALL_LETTERS;
+                }
+
+                board[row][col] = sqr;
+            }
+        }
+
+        scanner.close();
+        engine.updateDownCrossChecks(board);
+        engine.updateMinAcrossWordLength(board);
+        return board;
+    }
+
+    static void readTestGame (ScrabbleEngine engine, Square[][] board)
+            throws FileNotFoundException {
+
+        Scanner scanner = new Scanner(new File(ASSETS_DIR + "test_game_across.txt"));
+
+        for (int row = 1; row <= 15; row++) {
+            String line = scanner.next();
+
+            for (int col = 1; col <= 15; col++) {
+                board[row][col].letter = line.charAt(col - 1);
+            }
+        }
+
+        scanner.close();
+        engine.updateDownCrossChecks(board);
+        engine.updateMinAcrossWordLength(board);
+    }
+
+    /**
+     * Fills up a rack with tiles drawn at random from the bag.
+     *
+     * @param   bag     the number of each tile left in the bag
+     * @param   rack    the rack to be filled up to 7 tiles
+     * @param   random  the source of randomness for the draws
+     */
+    static void drawTiles (int[] bag, int[] rack, Random random) {
+        Racks.drawTiles(bag, rack, 7, random);
+    }
+
+    /**
+     * Removes the tiles used by a move from the rack.
+     */
+    static void removeTiles (ScrabbleMove move, int[] rack) {
+        Racks.removeTiles(move, rack);
+    }
+
+    static int[] fullBag (Tile[] tiles) {
+        int[] bag = new int[27];
+
+        for (int i = 0; i < 27; i++) {
+            bag[i] = tiles[i].total;
+        }
+
+        return bag;
+    }
+}
@@ -0,0 +1,112 @@
+package wztlei.scrabble;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * Checks that the WordListReader builds the same lexicon as the HashMap of
+ * lines read by a BufferedReader, for sorted and unsorted word lists.
+ */
+public class WordListReaderTest {
+
+    @Test
+    public void sortedWordList_sameLexicon () throws Exception {
+        checkSameLexicon("jonbcard_github_words.txt");
+    }
+
+    @Test
+    public void unsortedWordList_sameLexicon () throws Exception {
+        checkSameLexicon("common_1000_words.txt");
+    }
+
+    @Test
+    public void crlfAndInvalidLines_skipped () throws Exception {
+        byte[] bytes = "CAT\r\nA\nDOG\nCOw\nDO G\nFOR\u00F6\n\nZOO".getBytes("ISO-8859-1");
+        TrieNode root = WordListReader.readDawg(new ByteArrayInputStream(bytes));
+        FlatLexicon lexicon = FlatLexicon.fromTrie(root);
+
+        assertTrue(lexicon.contains("CAT"));
+        assertTrue(lexicon.contains("DOG"));
+        assertTrue(lexicon.contains("ZOO"));
+        assertFalse(lexicon.contains("A"));
+        assertFalse(lexicon.contains("COW"));
+        assertFalse(lexicon.contains("DO"));
+        assertFalse(lexicon.contains("FOR"));
+    }
+
+    @Test
+    public void lineLongerThanBuffer_readWhole () throws Exception {
+        StringBuilder wordList = new StringBuilder("AT\nBE\nZOO\n");
+
+        for (int i = 0; i < 100000; i++) {
+            wordList.append('Z');
+        }
+
+        wordList.append("\n");
+        TrieNode root = WordListReader.readDawg(new ByteArrayInputStream
+                (wordList.toString().getBytes("ISO-8859-1")));
+        FlatLexicon lexicon = FlatLexicon.fromTrie(root);
+
+        assertTrue(lexicon.contains("AT"));
+        assertTrue(lexicon.contains("BE"));
+        assertTrue(lexicon.contains("ZOO"));
+        assertTrue(lexicon.contains(wordList.substring(10, 100010)));
+        assertFalse(lexicon.contains("ZZ"));
+    }
+
+    @Test
+    public void readWords_countsEveryLine () throws Exception {
+        byte[] bytes = "CAT\r\nA\n\nDOG\nCOw".getBytes("ISO-8859-1");
+        ArrayList<String> words = new ArrayList<>();
+
+        assertEquals(5, WordListReader.readWords(new ByteArrayInputStream(bytes),
+                words));
+        assertEquals(Arrays.asList("CAT", "DOG"), words);
+    }
+
+    @Test
+    public void isWord_onlyUppercaseLetters () {
+        assertTrue(WordListReader.isWord("QI"));
+        assertFalse(WordListReader.isWord("Q"));
+        assertFalse(WordListReader.isWord("Qi"));
+        assertFalse(WordListReader.isWord("Q["));
+        assertFalse(WordListReader.isWord("Q\u0100"));
+    }
+
+    private static void checkSameLexicon (String fileName) throws Exception {
+        HashMap<String, Integer> words = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader
+                (new FileInputStream(TestData.ASSETS_DIR + fileName), "ISO-8859-1"));
+
+        try {
+            String line;
+
+            while ((line = reader.readLine()) != null) {
+                words.put(line, 1);
+            }
+        } finally {
+            reader.close();
+        }
+
+        FlatLexicon expected = new ScrabbleEngine(words, TestData.readTiles()).lexicon;
+        InputStream inputStream = new FileInputStream(TestData.ASSETS_DIR + fileName);
+
+        try {
+            TrieNode root = WordListReader.readDawg(inputStream);
+            FlatLexicon actual = new ScrabbleEngine(root, TestData.readTiles()).lexicon;
+            assertArrayEquals(expected.edges, actual.edges);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
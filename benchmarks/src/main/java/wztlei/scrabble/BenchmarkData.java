@@ -0,0 +1,200 @@
+package wztlei.scrabble;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Scanner;
+
+/**
+ * Reads the assets of the app for the benchmarks, which run from the
+ * directory of the app module, and the recorded mid-game positions, which
+ * are stored as a resource of the benchmarks.
+ */
+class BenchmarkData {
+
+    static final String ASSETS_DIR = "src/main/assets/";
+
+    // Each position is a line with the rack followed by the 15 rows of the
+    // board, and positions are separated by a blank line
+    static final String MID_GAME_BOARDS = "mid_game_boards.txt";
+
+    // A board position together with the rack of the player to move
+    static class Position {
+
+        final String rack;
+        final String boardString;
+
+        Position (String rack, String boardString) {
+            this.rack = rack;
+            this.boardString = boardString;
+        }
+    }
+
+    /**
+     * Reads the words of a word list with WordListReader, which skips the
+     * lines that are not words, and checks that it read every line.
+     *
+     * @param   fileName    the name of the word list in the assets
+     * @return              the words of the word list
+     * @throws  IOException if the word list could not be read
+     */
+    static HashMap<String, Integer> readWords (String fileName)
+            throws IOException {
+
+        File file = new File(ASSETS_DIR + fileName);
+        ArrayList<String> wordList = new ArrayList<>();
+        InputStream inputStream = new FileInputStream(file);
+        int numLines;
+
+        try {
+            numLines = WordListReader.readWords(inputStream, wordList);
+        } finally {
+            inputStream.close();
+        }
+
+        int expectedLines = countLines(file);
+
+        if (numLines != expectedLines) {
+            throw new IllegalStateException("Read " + numLines + " of the " +
+                    expectedLines + " lines of " + fileName);
+        }
+
+        HashMap<String, Integer> words = new HashMap<>();
+
+        for (String word : wordList) {
+            words.put(word, 1);
+        }
+
+        return words;
+    }
+
+    /**
+     * @param   file    a text file whose lines end with "\n" or "\r\n"
+     * @return          the number of lines in the file, counting a last line
+     *                  that does not end with a line break
+     * @throws  IOException if the file could not be read
+     */
+    private static int countLines (File file) throws IOException {
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        int numLines = 0;
+
+        for (byte b : bytes) {
+            if (b == '\n') {
+                numLines++;
+            }
+        }
+
+        if (bytes.length > 0 && bytes[bytes.length - 1] != '\n') {
+            numLines++;
+        }
+
+        return numLines;
+    }
+
+    static Tile[] readTiles () throws FileNotFoundException {
+
+        Tile[] tiles = new Tile[27];
+        Scanner scanner = new Scanner(new File(ASSETS_DIR + "tiles.txt"));
+
+        for (int i = 0; i < 27; i++) {
+            tiles[i] = new Tile();
+            tiles[i].letter = scanner.next().charAt(0);
+            tiles[i].points = Integer.parseInt(scanner.next());
+            tiles[i].total = Integer.parseInt(scanner.next());
+        }
+
+        scanner.close();
+        return tiles;
+    }
+
+    static Square[][] readBoard (ScrabbleEngine engine)
+            throws FileNotFoundException {
+
+        Square[][] board = new Square[17][17];
+        Scanner scanner = new Scanner(new File(ASSETS_DIR + "board.txt"));
+
+        for (int row = 0; row < 17; row++) {
+            String line = scanner.nextLine();
+
+            for (int col = 0; col < 17; col++) {
+                Square sqr = new Square();
+                sqr.row = row;
+                sqr.col = col;
+                sqr.letter = '.';
+                sqr.downCrossCheck = 0;
+
+                switch (line.charAt(col)) {
+                    case 'W': sqr.type = SquareType.TRIPLE_WORD;   break;
+                    case 'w': sqr.type = SquareType.DOUBLE_WORD;   break;
+                    case 'L': sqr.type = SquareType.TRIPLE_LETTER; break;
+                    case 'l': sqr.type = SquareType.DOUBLE_LETTER; break;
+                    case '.': sqr.type = SquareType.REGULAR;       break;
+                    default:  sqr.type = SquareType.OUTSIDE;       break;
+                }
+
+                if (sqr.type != SquareType.OUTSIDE) {
+                    sqr.downCrossCheck = Square.ALL_LETTERS;
+                }
+
+                board[row][col] = sqr;
+            }
+        }
+
+        scanner.close();
+        engine.updateDownCrossChecks(board);
+        engine.updateMinAcrossWordLength(board);
+        return board;
+    }
+
+    /**
+     * @return  the letters of the example game in the assets, row by row
+     */
+    static String readTestGame () throws FileNotFoundException {
+
+        StringBuilder boardString = new StringBuilder();
+        Scanner scanner = new Scanner(new File(ASSETS_DIR + "test_game_across.txt"));
+
+        for (int row = 1; row <= 15; row++) {
+            boardString.append(scanner.next());
+        }
+
+        scanner.close();
+        return boardString.toString();
+    }
+
+    /**
+     * @return  the positions recorded from games played with the Collins
+     *          word list
+     */
+    static ArrayList<Position> readMidGamePositions () {
+
+        ArrayList<Position> positions = new ArrayList<>();
+        InputStream stream = BenchmarkData.class.getResourceAsStream(MID_GAME_BOARDS);
+
+        if (stream == null) {
+            throw new IllegalStateException("Missing resource " + MID_GAME_BOARDS);
+        }
+
+        Scanner scanner = new Scanner(stream);
+
+        while (scanner.hasNext()) {
+            String rack = scanner.next();
+            StringBuilder boardString = new StringBuilder();
+
+            for (int row = 1; row <= 15; row++) {
+                boardString.append(scanner.next());
+            }
+
+            positions.add(new Position(rack, boardString.toString()));
+        }
+
+        scanner.close();
+        return positions;
+    }
+}
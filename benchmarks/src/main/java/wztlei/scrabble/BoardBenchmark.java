@@ -0,0 +1,149 @@
+package wztlei.scrabble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times the board updates, the search and the scoring of the engine on the
+ * example game of the assets and on positions recorded from games played
+ * with the Collins word list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class BoardBenchmark {
+
+    static final String TEST_GAME = "test_game_across";
+    static final String MID_GAME = "mid_game_";
+
+    // The rack played on the example game
+    static final String TEST_GAME_RACK = "AEIRST*";
+
+    @Param({"test_game_across", "mid_game_1", "mid_game_2", "mid_game_3",
+            "mid_game_4"})
+    public String position;
+
+    private ScrabbleEngine engine;
+    private Square[][] board;
+    private Square[][] invertedBoard;
+    private PackedBoard packedBoard;
+    private MoveGenerator generator;
+    private int[] rack;
+    private int rackMask;
+
+    // The first square of the word of the best across move, from which
+    // extendRight() is started
+    private Square startSquare;
+
+    // The best across move on the board, whose points are calculated again
+    private ScrabbleMove acrossMove;
+
+    @Setup
+    public void setUp () throws Exception {
+
+        engine = new ScrabbleEngine(
+                BenchmarkData.readWords("collins_2015_words.txt"),
+                BenchmarkData.readTiles());
+        board = BenchmarkData.readBoard(engine);
+
+        String rackString;
+        String boardString;
+
+        if (position.equals(TEST_GAME)) {
+            rackString = TEST_GAME_RACK;
+            boardString = BenchmarkData.readTestGame();
+        }
+        else {
+            int index = Integer.parseInt(position.substring(MID_GAME.length()));
+            BenchmarkData.Position midGame =
+                    BenchmarkData.readMidGamePositions().get(index - 1);
+            rackString = midGame.rack;
+            boardString = midGame.boardString;
+        }
+
+        engine.fillBoardWithString(board, boardString);
+        invertedBoard = engine.invertBoard(board);
+        packedBoard = PackedBoard.fromSquares(board, invertedBoard);
+        generator = new MoveGenerator(engine);
+        rack = engine.fillRack(rackString);
+        rackMask = engine.calcRackMask(rack);
+        acrossMove = engine.findBestMove(packedBoard, rack, PackedBoard.ACROSS);
+        startSquare = findWordStart(acrossMove);
+    }
+
+    /**
+     * @param   move    a move with at least one tile
+     * @return          the left-most square of the word formed by the move
+     */
+    private Square findWordStart (ScrabbleMove move) {
+
+        int row = move.get(0).row;
+        int col = move.get(0).col;
+
+        for (Square sqr : move) {
+            col = Math.min(col, sqr.col);
+        }
+
+        while (board[row][col - 1].letter != '.') {
+            col--;
+        }
+
+        return board[row][col];
+    }
+
+    @Benchmark
+    public Square[][] updateDownCrossChecks () {
+        engine.updateDownCrossChecks(board);
+        return board;
+    }
+
+    @Benchmark
+    public Square[][] updateMinAcrossWordLength () {
+        engine.updateMinAcrossWordLength(board);
+        return board;
+    }
+
+    @Benchmark
+    public Square[][] invertBoard () {
+        return engine.invertBoard(board);
+    }
+
+    @Benchmark
+    public ScrabbleMove extendRight () {
+        ScrabbleMove move = new ScrabbleMove();
+        engine.extendRight(board, rack, rackMask, engine.lexicon.root(),
+                startSquare, startSquare.minAcrossWordLength,
+                new ScrabbleMove(), move);
+        return move;
+    }
+
+    @Benchmark
+    public int calcAcrossPts () {
+        engine.calcAcrossPts(board, acrossMove);
+        return acrossMove.points;
+    }
+
+    @Benchmark
+    public ScrabbleMove findBestMove () {
+        return engine.findBestMove(board, rack);
+    }
+
+    @Benchmark
+    public ScrabbleMove findBestMovePacked () {
+        return generator.findBestMove(packedBoard, rack);
+    }
+}
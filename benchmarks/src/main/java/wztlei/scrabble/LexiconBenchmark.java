@@ -0,0 +1,56 @@
+package wztlei.scrabble;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times building the trie and the dawg out of the word lists of the assets,
+ * from the smallest list up to the Collins list, with the dawg also built on
+ * every processor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xmx2g"})
+public class LexiconBenchmark {
+
+    @Param({"common_1000_words.txt", "common_100000_words.txt",
+            "collins_2015_words.txt"})
+    public String wordList;
+
+    private ScrabbleEngine engine;
+
+    @Setup
+    public void setUp () throws Exception {
+        engine = new ScrabbleEngine(BenchmarkData.readWords(wordList),
+                BenchmarkData.readTiles());
+    }
+
+    @Benchmark
+    public TrieNode createWordTrie () {
+        return engine.createWordTrie();
+    }
+
+    @Benchmark
+    public TrieNode createWordDawg () {
+        return engine.createWordDawg();
+    }
+
+    @Benchmark
+    public TrieNode createWordDawgParallel () throws InterruptedException {
+        return engine.createWordDawg(Runtime.getRuntime().availableProcessors());
+    }
+}
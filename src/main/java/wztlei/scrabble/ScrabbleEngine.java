@@ -20,8 +20,12 @@
 
 package wztlei.scrabble;
 
+import java.io.BufferedInputStream;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Scanner;
@@ -33,6 +37,18 @@ import java.util.Scanner;
  */
 public class ScrabbleEngine {
 
+    // True for the bytes of the letters from A to Z, which are the only
+    // bytes that a word may contain
+    private static final boolean[] IS_LETTER = new boolean[256];
+
+    static {
+        for (int c = 'A'; c <= 'Z'; c++) {
+            IS_LETTER[c] = true;
+        }
+    }
+
+    private static final Charset LATIN_1 = Charset.forName("ISO-8859-1");
+
     // Define properties of the ScrabbleProgram class
     public HashMap <String, Integer> words;
     public TrieNode trieRoot;
@@ -64,6 +80,10 @@ public class ScrabbleEngine {
     }
 
     /**
+     * Reads the word list byte by byte, which is much faster than reading
+     * its lines with a Scanner. Lines may end with "\n" or "\r\n", and lines
+     * that are not made of uppercase letters are skipped.
+     *
      * @return  an unordered map of Strings containing all the words in the
      *          scrabble dictionary. The key is type String since it is stores
      *          the word. The mapped value is type integer since it stores if
@@ -74,25 +94,50 @@ public class ScrabbleEngine {
         HashMap <String, Integer> wordHashMap =
                 new HashMap <String, Integer> ();
 
-        // Open file containing the word data
-        Scanner wordDataFile = null;
-
         // Try opening the file
         try {
-            wordDataFile = new Scanner(new FileInputStream(wordsFileName));
-        } catch (FileNotFoundException ex) {
-            System.out.println("Could not open " + wordsFileName);
-        }
+            InputStream inputStream = new BufferedInputStream
+                    (new FileInputStream(wordsFileName), 1 << 16);
+
+            try {
+                byte[] word = new byte[64];
+                int length = 0;
+                boolean isValid = true;
+                int b;
 
-        // If file is opened
-        if (wordDataFile != null) {
-            while(wordDataFile.hasNextLine()) {
-                // IMPORTANT: The words must all be in uppercase.
-                String word = wordDataFile.nextLine();
+                while (true) {
+                    b = inputStream.read();
 
-                // Insert the word into the unordered map
-                wordHashMap.put(word, 1);
+                    // Store the word at the end of each line
+                    if (b == '\n' || b == -1) {
+                        if (isValid && length > 0) {
+                            wordHashMap.put(new String(word, 0, length, LATIN_1), 1);
+                        }
+
+                        if (b == -1) {
+                            break;
+                        }
+
+                        length = 0;
+                        isValid = true;
+                    }
+                    else if (b != '\r') {
+                        isValid &= IS_LETTER[b];
+
+                        if (length == word.length) {
+                            word = Arrays.copyOf(word, 2 * length);
+                        }
+
+                        word[length++] = (byte) b;
+                    }
+                }
+            } finally {
+                inputStream.close();
             }
+        } catch (FileNotFoundException ex) {
+            System.out.println("Could not open " + wordsFileName);
+        } catch (IOException ex) {
+            System.out.println("IOException due to " + wordsFileName);
         }
 
         return wordHashMap;
@@ -106,10 +151,11 @@ public class ScrabbleEngine {
         root.letter = '*';
         root.isTerminalNode = false;
 
-        // Add every word in the words HashMap
+        // Add every word in the words HashMap, which only holds uppercase
+        // words since readWordData() skips the other lines
         for (String word : words.keySet()) {
 
-            if (word.length() > 2 && word.matches("[A-Z]+")) {
+            if (word.length() > 2) {
                 insertIntoTrie(root, word);
             }
         }